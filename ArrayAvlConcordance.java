@@ -0,0 +1,490 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * AVL tree concordance of words, stored as parallel arrays instead of nodes.
+ * Node i is row i of the columns: left and right child indices (NIL for
+ * none), height as a byte, the key's ID in a SymbolTable, and where its
+ * lines are. A second array maps each symbol ID to its node, so a word
+ * already in the tree is found by one hash probe and an array read, with
+ * no descent and no string comparison; only a new word walks the tree.
+ *
+ * The lines of every word share one byte arena, encoded as in PostingList:
+ * varint gaps from the line before. Each node owns a slice of the arena
+ * with room to grow; when it fills, the slice moves to the end of the
+ * arena with twice the room, or just grows there if it is already last.
+ * The slices left behind add up to less than the live ones. Per-node
+ * columns hold the slice's start, used length and room, and the word's
+ * last line and line count. So the tree is twelve arrays, whatever the
+ * number of words: the collector sees no object per node. Posting lists
+ * are only made when lines are read out, as copies.
+ *
+ * The symbol table may be shared with a SymbolDictionary, so a program
+ * that both checks and indexes a text keeps one copy of the vocabulary
+ * and can hand the same IDs to both. (The two command-line programs each
+ * build only one of them, over a table of its own.)
+ * Insertion, rotation and balancing follow TwoParamObj; insert is
+ * iterative and stops rebalancing once a subtree's height is unchanged.
+ * Nodes are never freed, since a concordance only grows.
+ */
+public class ArrayAvlConcordance
+{
+    /**
+     * Construct the tree.
+     */
+    public ArrayAvlConcordance( )
+    {
+        this( DEFAULT_CAPACITY );
+    }
+
+    /**
+     * Construct the tree.
+     * @param capacity the number of words to make room for.
+     */
+    public ArrayAvlConcordance( int capacity )
+    {
+        this( new SymbolTable( capacity ), capacity );
+    }
+
+    /**
+     * Construct the tree over a shared symbol table.
+     * @param symbols the table that holds the words.
+     */
+    public ArrayAvlConcordance( SymbolTable symbols )
+    {
+        this( symbols, Math.max( DEFAULT_CAPACITY, symbols.size( ) ) );
+    }
+
+    private ArrayAvlConcordance( SymbolTable symbols, int capacity )
+    {
+        capacity = Math.max( 1, capacity );
+        this.symbols = symbols;
+        left = new int[ capacity ];
+        right = new int[ capacity ];
+        height = new byte[ capacity ];
+        keyId = new int[ capacity ];
+        postStart = new int[ capacity ];
+        postLength = new int[ capacity ];
+        postRoom = new int[ capacity ];
+        lastLine = new int[ capacity ];
+        lineCount = new int[ capacity ];
+        nodeOf = new int[ capacity ];
+        Arrays.fill( nodeOf, NIL );
+    }
+
+    /**
+     * Add an occurrence of a word.
+     * @param x the word; its characters are copied only if the symbol table lacks it.
+     * @param line the line, no less than any line added for it before.
+     * @throws IllegalArgumentException if line is negative or out of order.
+     */
+    public void insert( CharSequence x, int line )
+    {
+        insert( symbols.intern( x ), line );
+    }
+
+    /**
+     * Add an occurrence of a word by its ID in the symbol table.
+     * @param id the ID, as given by the symbol table.
+     * @param line the line, no less than any line added for it before.
+     * @throws IllegalArgumentException if the symbol table has no such ID,
+     *         or line is negative or out of order.
+     */
+    public void insert( int id, int line )
+    {
+        if( id < 0 || id >= symbols.size( ) )
+            throw new IllegalArgumentException( "No symbol " + id + " in a table of " + symbols.size( ) );
+        int t = node( id );
+        if( t != NIL )
+        {
+            addLine( t, line );
+            return;     // Shape unchanged, nothing to rebalance
+        }
+        if( line < 0 )
+            throw new IllegalArgumentException( "Negative line " + line );
+
+        int depth = 0;
+        int compareResult = 0;
+        t = root;
+        while( t != NIL )
+        {
+            compareResult = symbols.compare( id, keyId[ t ] );
+            if( depth == path.length )
+                path = Arrays.copyOf( path, 2 * depth );
+            path[ depth++ ] = t;
+            t = compareResult < 0 ? left[ t ] : right[ t ];
+        }
+
+        int aNode = newNode( id );
+        addLine( aNode, line );
+        if( depth == 0 )
+        {
+            root = aNode;
+            return;
+        }
+        if( compareResult < 0 )
+            left[ path[ depth - 1 ] ] = aNode;
+        else
+            right[ path[ depth - 1 ] ] = aNode;
+
+        for( int i = depth - 1; i >= 0; i-- )
+        {
+            t = path[ i ];
+            int oldHeight = height[ t ];
+            int b = balance( t );
+            if( b != t )
+            {
+                if( i == 0 )
+                    root = b;
+                else if( left[ path[ i - 1 ] ] == t )
+                    left[ path[ i - 1 ] ] = b;
+                else
+                    right[ path[ i - 1 ] ] = b;
+            }
+            if( height[ b ] == oldHeight )
+                break;
+        }
+    }
+
+    /**
+     * Find a word.
+     * @param x the word to search for.
+     * @return true if it has been added.
+     */
+    public boolean contains( CharSequence x )
+    {
+        return find( x ) != NIL;
+    }
+
+    /**
+     * Find out if a word appears on a line. Decodes the word's lines
+     * until it reaches that one.
+     * @param x the word to search for.
+     * @param line the line.
+     * @return true if that occurrence has been added.
+     */
+    public boolean appearsOn( CharSequence x, int line )
+    {
+        int t = find( x );
+        if( t == NIL || line > lastLine[ t ] || line < 0 )
+            return false;
+
+        int pos = postStart[ t ];
+        int current = 0;
+        for( int i = 0; i < lineCount[ t ]; i++ )
+        {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do
+            {
+                b = arena[ pos++ ];
+                gap |= ( b & 0x7f ) << shift;
+                shift += 7;
+            } while( b < 0 );
+            current += gap;
+            if( current >= line )
+                return current == line;
+        }
+        return false;
+    }
+
+    /**
+     * Get the lines a word appears on.
+     * @param x the word to search for.
+     * @return a copy of its lines, or null if x is not found.
+     */
+    public PostingList lines( CharSequence x )
+    {
+        int t = find( x );
+        return t == NIL ? null : postings( t );
+    }
+
+    /**
+     * Get the symbol table that holds the words.
+     * @return the symbol table.
+     */
+    public SymbolTable symbols( )
+    {
+        return symbols;
+    }
+
+    /**
+     * Get the number of words.
+     * @return the size.
+     */
+    public int size( )
+    {
+        return theSize;
+    }
+
+    /**
+     * Test if the tree is logically empty.
+     * @return true if empty, false otherwise.
+     */
+    public boolean isEmpty( )
+    {
+        return theSize == 0;
+    }
+
+    /**
+     * Hand every word and a copy of its lines to an action, in sorted order.
+     * @param action the action; it must not change the tree.
+     */
+    public void forEachEntry( BiConsumer<? super String, PostingList> action )
+    {
+        int [ ] stack = new int[ height( root ) + 2 ];
+        int depth = 0;
+        for( int t = root; ; )
+        {
+            for( ; t != NIL; t = left[ t ] )
+                stack[ depth++ ] = t;
+            if( depth == 0 )
+                return;
+            t = stack[ --depth ];
+            action.accept( key( t ), postings( t ) );
+            t = right[ t ];
+        }
+    }
+
+    /**
+     * Write the tree contents in sorted order, in the format of TwoParamObj.printTree.
+     * @param out where to write; pass a buffered writer.
+     * @throws IOException if out fails.
+     */
+    public void export( Writer out ) throws IOException
+    {
+        int [ ] stack = new int[ height( root ) + 2 ];
+        int depth = 0;
+        for( int t = root; ; )
+        {
+            for( ; t != NIL; t = left[ t ] )
+                stack[ depth++ ] = t;
+            if( depth == 0 )
+                return;
+            t = stack[ --depth ];
+            TwoParamObj.writeEntry( out, key( t ), postings( t ) );
+            t = right[ t ];
+        }
+    }
+
+    private int find( CharSequence x )
+    {
+        int id = symbols.find( x );
+        return id < 0 ? NIL : node( id );
+    }
+
+    /**
+     * Return the node of a symbol, or NIL if it is not in the tree.
+     */
+    private int node( int id )
+    {
+        return id < nodeOf.length ? nodeOf[ id ] : NIL;
+    }
+
+    private String key( int t )
+    {
+        return symbols.word( keyId[ t ] );
+    }
+
+    /**
+     * Copy the lines of node t out of the arena.
+     */
+    private PostingList postings( int t )
+    {
+        int start = postStart[ t ];
+        byte [ ] encoded = Arrays.copyOfRange( arena, start, start + postLength[ t ] );
+        return PostingList.fromEncoded( encoded, postLength[ t ], lineCount[ t ] );
+    }
+
+    /**
+     * Append a line to node t's slice of the arena.
+     */
+    private void addLine( int t, int line )
+    {
+        if( line < lastLine[ t ] )
+            throw new IllegalArgumentException( "Line " + line + " added after line " + lastLine[ t ] );
+        if( postLength[ t ] + MAX_VARINT_BYTES > postRoom[ t ] )
+            growSlice( t );
+
+        int pos = postStart[ t ] + postLength[ t ];
+        int gap = line - lastLine[ t ];
+        while( ( gap & ~0x7f ) != 0 )
+        {
+            arena[ pos++ ] = (byte) ( ( gap & 0x7f ) | 0x80 );
+            gap >>>= 7;
+        }
+        arena[ pos++ ] = (byte) gap;
+        postLength[ t ] = pos - postStart[ t ];
+        lastLine[ t ] = line;
+        lineCount[ t ]++;
+    }
+
+    /**
+     * Give node t twice the room, moving its slice to the end of the
+     * arena unless it is there already.
+     */
+    private void growSlice( int t )
+    {
+        int room = Math.max( MIN_SLICE, 2 * postRoom[ t ] );
+        boolean last = postStart[ t ] + postRoom[ t ] == arenaLength;
+        int start = last ? postStart[ t ] : arenaLength;
+        if( start + room > arena.length )
+            arena = Arrays.copyOf( arena, Math.max( start + room, 2 * arena.length ) );
+        if( !last )
+            System.arraycopy( arena, postStart[ t ], arena, start, postLength[ t ] );
+        postStart[ t ] = start;
+        postRoom[ t ] = room;
+        arenaLength = start + room;
+    }
+
+    /**
+     * Add a row for a new word.
+     * @return its index.
+     */
+    private int newNode( int id )
+    {
+        if( id >= nodeOf.length )
+        {
+            int oldLength = nodeOf.length;
+            nodeOf = Arrays.copyOf( nodeOf, Math.max( id + 1, 2 * oldLength ) );
+            Arrays.fill( nodeOf, oldLength, nodeOf.length, NIL );
+        }
+        int t = theSize;
+        if( t == left.length )
+        {
+            int capacity = 2 * t;
+            left = Arrays.copyOf( left, capacity );
+            right = Arrays.copyOf( right, capacity );
+            height = Arrays.copyOf( height, capacity );
+            keyId = Arrays.copyOf( keyId, capacity );
+            postStart = Arrays.copyOf( postStart, capacity );
+            postLength = Arrays.copyOf( postLength, capacity );
+            postRoom = Arrays.copyOf( postRoom, capacity );
+            lastLine = Arrays.copyOf( lastLine, capacity );
+            lineCount = Arrays.copyOf( lineCount, capacity );
+        }
+        keyId[ t ] = id;
+        nodeOf[ id ] = t;
+        left[ t ] = NIL;
+        right[ t ] = NIL;
+        height[ t ] = 0;
+        postStart[ t ] = arenaLength;
+        postLength[ t ] = 0;
+        postRoom[ t ] = 0;      // The first line gives it a slice
+        lastLine[ t ] = 0;
+        lineCount[ t ] = 0;
+        theSize++;
+        return t;
+    }
+
+    private static final int ALLOWED_IMBALANCE = 1;
+
+    // Assume t is either balanced or within one of being balanced
+    private int balance( int t )
+    {
+        if( height( left[ t ] ) - height( right[ t ] ) > ALLOWED_IMBALANCE )
+            if( height( left[ left[ t ] ] ) >= height( right[ left[ t ] ] ) )
+                t = rotateWithLeftChild( t );
+            else
+                t = doubleWithLeftChild( t );
+        else
+            if( height( right[ t ] ) - height( left[ t ] ) > ALLOWED_IMBALANCE )
+                if( height( right[ right[ t ] ] ) >= height( left[ right[ t ] ] ) )
+                    t = rotateWithRightChild( t );
+                else
+                    t = doubleWithRightChild( t );
+
+        fixHeight( t );
+        return t;
+    }
+
+    /**
+     * Return the height of node t, or -1, if NIL.
+     */
+    private int height( int t )
+    {
+        return t == NIL ? -1 : height[ t ];
+    }
+
+    private void fixHeight( int t )
+    {
+        height[ t ] = (byte) ( Math.max( height( left[ t ] ), height( right[ t ] ) ) + 1 );
+    }
+
+    /**
+     * Rotate binary tree node with left child.
+     * For AVL trees, this is a single rotation for case 1.
+     * Update heights, then return new root.
+     */
+    private int rotateWithLeftChild( int k2 )
+    {
+        int k1 = left[ k2 ];
+        left[ k2 ] = right[ k1 ];
+        right[ k1 ] = k2;
+        fixHeight( k2 );
+        fixHeight( k1 );
+        return k1;
+    }
+
+    /**
+     * Rotate binary tree node with right child.
+     * For AVL trees, this is a single rotation for case 4.
+     * Update heights, then return new root.
+     */
+    private int rotateWithRightChild( int k1 )
+    {
+        int k2 = right[ k1 ];
+        right[ k1 ] = left[ k2 ];
+        left[ k2 ] = k1;
+        fixHeight( k1 );
+        fixHeight( k2 );
+        return k2;
+    }
+
+    /**
+     * Double rotate binary tree node: first left child
+     * with its right child; then node k3 with new left child.
+     * For AVL trees, this is a double rotation for case 2.
+     */
+    private int doubleWithLeftChild( int k3 )
+    {
+        left[ k3 ] = rotateWithRightChild( left[ k3 ] );
+        return rotateWithLeftChild( k3 );
+    }
+
+    /**
+     * Double rotate binary tree node: first right child
+     * with its left child; then node k1 with new right child.
+     * For AVL trees, this is a double rotation for case 3.
+     */
+    private int doubleWithRightChild( int k1 )
+    {
+        right[ k1 ] = rotateWithLeftChild( right[ k1 ] );
+        return rotateWithRightChild( k1 );
+    }
+
+    private static final int NIL = -1;
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final int MIN_SLICE = 8;             // Arena bytes a word starts with
+    private static final int MAX_VARINT_BYTES = 5;
+
+    private int [ ] left;               // Left child of each node, or NIL
+    private int [ ] right;              // Right child of each node, or NIL
+    private byte [ ] height;            // Height of each node
+    private int [ ] keyId;              // Symbol ID of each node's word
+    private int [ ] postStart;          // Start of each node's slice of the arena
+    private int [ ] postLength;         // Bytes of the slice in use
+    private int [ ] postRoom;           // Bytes the slice has
+    private int [ ] lastLine;           // Last line of each node's word
+    private int [ ] lineCount;          // Lines of each node's word, counting repeats
+    private byte [ ] arena = new byte[ DEFAULT_CAPACITY * MIN_SLICE ];  // Every word's varint gaps
+    private int arenaLength;            // Bytes of the arena given out
+    private int [ ] nodeOf;             // Node of each symbol ID, or NIL
+    private final SymbolTable symbols;  // Where the words are kept
+    private int theSize;                // Nodes in use
+    private int root = NIL;
+    private int [ ] path = new int[ 32 ];   // Insertion path, root first
+}
@@ -0,0 +1,188 @@
+/**
+ * Blocked Bloom filter over runs of characters.
+ * Each word hashes to one 512-bit block, the size of a cache line, and
+ * sets k bits inside it, so a lookup touches a single line of memory.
+ * The block is picked by the high half of a 64-bit hash and the k bits
+ * from the low half, so the two are independent. Each bit is the top
+ * nine bits of the low half times a growing power of a golden-ratio
+ * constant. Plain double hashing within 512 bits gives sets of bits
+ * that overlap, which doubled the false positive rate at 0.1%.
+ * A miss means the word was never added; a hit means it probably was.
+ * Words cannot be taken out again.
+ *
+ * The filter is thread-safe: add sets its bits with atomic ORs and
+ * mightContain reads them with opaque loads, so concurrent adds never
+ * lose each other's bits and a reader sees each bit once it is set. A
+ * word being added while another thread tests it may still be reported
+ * absent until its add returns.
+ */
+public class BloomFilter
+{
+    /**
+     * Construct a filter sized for a number of words.
+     * @param expectedInsertions how many words will be added.
+     * @param falsePositiveRate the wanted chance that an absent word passes.
+     */
+    public BloomFilter( int expectedInsertions, double falsePositiveRate )
+    {
+        if( falsePositiveRate <= 0 || falsePositiveRate >= 1 )
+            throw new IllegalArgumentException( "False positive rate must be between 0 and 1" );
+
+        int n = Math.max( 1, expectedInsertions );
+        double bitsPerWord = -Math.log( falsePositiveRate ) / ( Math.log( 2 ) * Math.log( 2 ) );
+        long bits = (long) Math.ceil( n * bitsPerWord );
+        long blockCount = Math.max( 1, ( bits + BLOCK_BITS - 1 ) / BLOCK_BITS );
+        int k = Math.max( 1, Math.min( 16, (int) Math.round( bitsPerWord * Math.log( 2 ) ) ) );
+
+        // Some blocks get more than their share of words; add blocks until that is paid for
+        while( blockedRate( (double) n / blockCount, k ) > falsePositiveRate )
+            blockCount += Math.max( 1, blockCount / 32 );
+        if( blockCount * LONGS_PER_BLOCK > Integer.MAX_VALUE - 8 )
+            throw new IllegalArgumentException( "Bloom filter too large" );
+
+        blocks = (int) blockCount;
+        words = new long[ blocks * LONGS_PER_BLOCK ];
+        hashCount = k;
+    }
+
+    /**
+     * Add a word.
+     * @param x the word.
+     */
+    public void add( CharSequence x )
+    {
+        long h = hash( x );
+        int base = block( h ) * LONGS_PER_BLOCK;
+        long probe = h & 0xffffffffL;       // The block took the high half
+        for( int i = 0; i < hashCount; i++ )
+        {
+            probe *= PROBE_MULTIPLIER;
+            int bit = (int) ( probe >>> PROBE_SHIFT );
+            int index = base + ( bit >>> 6 );
+            long mask = 1L << bit;
+            if( ( (long) WORDS.getOpaque( words, index ) & mask ) == 0 )   // Leave the line clean if it is set
+                WORDS.getAndBitwiseOr( words, index, mask );
+        }
+        count.increment( );
+    }
+
+    /**
+     * Test a word.
+     * @param x the word.
+     * @return false if the word was never added; true if it may have been.
+     */
+    public boolean mightContain( CharSequence x )
+    {
+        long h = hash( x );
+        int base = block( h ) * LONGS_PER_BLOCK;
+        long probe = h & 0xffffffffL;
+        for( int i = 0; i < hashCount; i++ )
+        {
+            probe *= PROBE_MULTIPLIER;
+            int bit = (int) ( probe >>> PROBE_SHIFT );
+            if( ( (long) WORDS.getOpaque( words, base + ( bit >>> 6 ) ) & ( 1L << bit ) ) == 0 )
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Estimate the chance that an absent word passes, from the number of
+     * words added so far, allowing for the uneven number of words per block.
+     * @return the expected false positive rate.
+     */
+    public double expectedFalsePositiveRate( )
+    {
+        return blockedRate( (double) count.sum( ) / blocks, hashCount );
+    }
+
+    /**
+     * Get the number of words added, counting repeats.
+     * @return the count.
+     */
+    public long count( )
+    {
+        return count.sum( );
+    }
+
+    /**
+     * Get the size of the filter.
+     * @return the number of bits.
+     */
+    public long bitCount( )
+    {
+        return (long) blocks * BLOCK_BITS;
+    }
+
+    /**
+     * Get the number of bits set per word.
+     * @return k.
+     */
+    public int hashCount( )
+    {
+        return hashCount;
+    }
+
+    /**
+     * The false positive rate of a blocked filter: the number of words in
+     * the block a lookup lands in is Poisson distributed, and a block of j
+     * words passes an absent word with the rate of a j-word Bloom filter.
+     * @param wordsPerBlock the mean words per block.
+     * @param k the bits set per word.
+     * @return the rate.
+     */
+    static double blockedRate( double wordsPerBlock, int k )
+    {
+        if( wordsPerBlock <= 0 )
+            return 0;
+        double rate = 0;
+        double logLambda = Math.log( wordsPerBlock );
+        double logFactorial = 0;
+        int last = (int) ( wordsPerBlock + 12 * Math.sqrt( wordsPerBlock ) + 20 );
+        for( int j = 0; j <= last; j++ )
+        {
+            if( j > 0 )
+                logFactorial += Math.log( j );
+            double p = Math.exp( j * logLambda - wordsPerBlock - logFactorial );
+            rate += p * Math.pow( 1 - Math.pow( 1 - 1.0 / BLOCK_BITS, (double) k * j ), k );
+        }
+        return rate;
+    }
+
+    private int block( long h )
+    {
+        // Multiply-shift maps the hash onto [0, blocks) without a division
+        return (int) ( ( ( h >>> 32 ) * blocks ) >>> 32 );
+    }
+
+    /**
+     * 64-bit FNV-1a over the characters, finished with the MurmurHash3 mixer.
+     */
+    private static long hash( CharSequence x )
+    {
+        long h = 0xcbf29ce484222325L;
+        for( int i = 0; i < x.length( ); i++ )
+        {
+            h ^= x.charAt( i );
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final int BLOCK_BITS = 512;
+    private static final int LONGS_PER_BLOCK = BLOCK_BITS / 64;
+    private static final long PROBE_MULTIPLIER = 0x9e3779b97f4a7c15L;
+    private static final int PROBE_SHIFT = 64 - 9;      // Top log2( BLOCK_BITS ) bits
+    private static final java.lang.invoke.VarHandle WORDS =
+            java.lang.invoke.MethodHandles.arrayElementVarHandle( long [ ].class );
+
+    private final long [ ] words;   // The bits, LONGS_PER_BLOCK longs per block
+    private final int blocks;       // Number of blocks
+    private final int hashCount;    // Bits set per word
+    private final java.util.concurrent.atomic.LongAdder count = new java.util.concurrent.atomic.LongAdder( );  // Words added
+}
@@ -0,0 +1,437 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Checks text as a pipeline of stages, each on its own thread:
+ * <pre>
+ *   reader -> tokenizer -> check -> suggest -> writer
+ * </pre>
+ * The reader hands on batches of lines, the tokenizer batches of words
+ * packed into one char array, and the check stage the misspelled words
+ * of each batch. The suggest stage submits one task per misspelling and
+ * passes the futures on in text order, so the writer reports exactly what
+ * a single-threaded run would. Suggestion tasks run on virtual threads
+ * when the JVM has them (Java 21 and later), else on a fixed pool.
+ * Tasks share the dictionary's suggestion cache, if it has one; the
+ * cache is split into shards with a lock each, so tasks for different
+ * words seldom wait on each other there.
+ *
+ * Stages are joined by bounded queues, so a slow stage blocks the ones
+ * before it instead of letting work pile up, and only as many
+ * suggestion tasks are in flight as the writer's queue holds. After a
+ * run, report describes each stage: how many items it handled, how much
+ * of the run it spent working rather than waiting, and how full its
+ * output queue was. The busiest stage is the bottleneck; the queues in
+ * front of it run full and those behind it run empty.
+ * The dictionary must not be changed while a check is running.
+ */
+public class CheckPipeline
+{
+    /**
+     * Construct a pipeline.
+     * @param dictionary the dictionary to check against.
+     * @param suggestionThreads the size of the suggestion pool, if virtual threads are not available.
+     */
+    public CheckPipeline( SpellCheckHashTable dictionary, int suggestionThreads )
+    {
+        if( suggestionThreads < 1 )
+            throw new IllegalArgumentException( "Need at least one suggestion thread" );
+        this.dictionary = dictionary;
+        this.suggestionThreads = suggestionThreads;
+    }
+
+    /**
+     * Check every line of a text.
+     * @param in the text; it is read to the end but not closed.
+     * @param action called with each misspelling, in text order, on the writer thread.
+     * @throws IOException if the text cannot be read.
+     */
+    public void check( BufferedReader in, Consumer<? super Misspelling> action ) throws IOException
+    {
+        BlockingQueue<Lines> lines = new ArrayBlockingQueue<>( BATCH_QUEUE_CAPACITY );
+        BlockingQueue<Words> words = new ArrayBlockingQueue<>( BATCH_QUEUE_CAPACITY );
+        BlockingQueue<Words> misspelled = new ArrayBlockingQueue<>( BATCH_QUEUE_CAPACITY );
+        BlockingQueue<Future<Misspelling>> reports = new ArrayBlockingQueue<>( REPORT_QUEUE_CAPACITY );
+        resetStats( );
+        capacity[ READER ] = BATCH_QUEUE_CAPACITY;
+        capacity[ TOKENIZER ] = BATCH_QUEUE_CAPACITY;
+        capacity[ CHECK ] = BATCH_QUEUE_CAPACITY;
+        capacity[ SUGGEST ] = REPORT_QUEUE_CAPACITY;
+
+        ExecutorService suggesters = newSuggestionExecutor( );
+        AtomicReference<Throwable> failure = new AtomicReference<>( );
+        Thread [ ] threads = new Thread[ STAGES.length ];
+        threads[ READER ] = stage( READER, threads, failure, ( ) -> read( in, lines ) );
+        threads[ TOKENIZER ] = stage( TOKENIZER, threads, failure, ( ) -> tokenize( lines, words ) );
+        threads[ CHECK ] = stage( CHECK, threads, failure, ( ) -> checkWords( words, misspelled ) );
+        threads[ SUGGEST ] = stage( SUGGEST, threads, failure, ( ) -> suggest( misspelled, reports, suggesters ) );
+        threads[ WRITER ] = stage( WRITER, threads, failure, ( ) -> write( reports, action ) );
+
+        long start = System.nanoTime( );
+        try
+        {
+            for( Thread t : threads )
+                t.start( );
+            for( Thread t : threads )
+                t.join( );
+        }
+        catch( InterruptedException e )
+        {
+            for( Thread t : threads )
+                t.interrupt( );
+            Thread.currentThread( ).interrupt( );
+            throw new IOException( "Interrupted while checking", e );
+        }
+        finally
+        {
+            elapsedNanos = System.nanoTime( ) - start;
+            suggesters.shutdownNow( );
+        }
+
+        Throwable t = failure.get( );
+        if( t instanceof IOException )
+            throw (IOException) t;
+        if( t instanceof RuntimeException )
+            throw (RuntimeException) t;
+        if( t instanceof Error )
+            throw (Error) t;
+        if( t != null )
+            throw new IOException( t );
+    }
+
+    /**
+     * Test whether the last check ran its suggestion tasks on virtual threads.
+     * @return true for virtual threads, false for a fixed pool.
+     */
+    public boolean usesVirtualThreads( )
+    {
+        return virtualThreads;
+    }
+
+    /**
+     * Describe the last check, one line per stage: the items it handled,
+     * their rate over the whole run, the share of the run it spent working,
+     * and the mean and largest depth of its output queue. The suggest stage
+     * counts the time of all its tasks, so it can be busy more than 100%.
+     * If the dictionary caches suggestions, a last line gives the cache's
+     * hits and misses so far, over all checks, and its shard count.
+     * @return the report.
+     */
+    public String report( )
+    {
+        StringBuilder sb = new StringBuilder( );
+        double ms = Math.max( 1, elapsedNanos ) / 1e6;
+        sb.append( String.format( "Pipeline: %.1f ms, suggestions on %s%n", ms,
+                                  virtualThreads ? "virtual threads" : "a pool of " + suggestionThreads ) );
+        for( int i = 0; i < STAGES.length; i++ )
+        {
+            long busy = i == SUGGEST ? suggestNanos.sum( ) : busyNanos[ i ];
+            sb.append( String.format( "  %-9s %10d %-12s %10.1f/ms  busy %5.1f%%", STAGES[ i ], items[ i ], UNITS[ i ],
+                                      items[ i ] / ms, 100.0 * busy / Math.max( 1, elapsedNanos ) ) );
+            if( i < WRITER )
+                sb.append( String.format( "  queue mean %.1f max %d of %d",
+                                          puts[ i ] == 0 ? 0.0 : (double) depthSum[ i ] / puts[ i ],
+                                          maxDepth[ i ], capacity[ i ] ) );
+            sb.append( System.lineSeparator( ) );
+        }
+        SuggestionCache cache = dictionary.suggestionCache( );
+        if( cache != null )
+            sb.append( String.format( "  cache     %d hits, %d misses (%.1f%%) in %d shards%n", cache.hits( ),
+                                      cache.misses( ), 100 * cache.hitRate( ), cache.shardCount( ) ) );
+        return sb.toString( );
+    }
+
+    /**
+     * Read batches of lines.
+     */
+    private void read( BufferedReader in, BlockingQueue<Lines> out ) throws IOException, InterruptedException
+    {
+        int firstLine = 1;
+        while( true )
+        {
+            long start = System.nanoTime( );
+            Lines batch = new Lines( firstLine );
+            String line;
+            while( batch.text.size( ) < BATCH_LINES && ( line = in.readLine( ) ) != null )
+                batch.text.add( line );
+            busyNanos[ READER ] += System.nanoTime( ) - start;
+            if( batch.text.isEmpty( ) )
+                break;
+            items[ READER ] += batch.text.size( );
+            firstLine += batch.text.size( );
+            put( READER, out, batch );
+        }
+        put( READER, out, END_OF_LINES );
+    }
+
+    /**
+     * Split each batch of lines into words, as checkLine does.
+     */
+    private void tokenize( BlockingQueue<Lines> in, BlockingQueue<Words> out ) throws InterruptedException
+    {
+        WordTokenizer tokenizer = new WordTokenizer( );
+        for( Lines batch = in.take( ); batch != END_OF_LINES; batch = in.take( ) )
+        {
+            long start = System.nanoTime( );
+            Words words = new Words( );
+            for( int i = 0; i < batch.text.size( ); i++ )
+            {
+                tokenizer.reset( batch.text.get( i ) );
+                while( tokenizer.next( ) )
+                    words.add( tokenizer.buffer( ), 0, tokenizer.length( ), batch.firstLine + i, tokenizer.start( ) + 1 );
+            }
+            busyNanos[ TOKENIZER ] += System.nanoTime( ) - start;
+            items[ TOKENIZER ] += words.count;
+            put( TOKENIZER, out, words );
+        }
+        put( TOKENIZER, out, END_OF_WORDS );
+    }
+
+    /**
+     * Look each word up, passing on the misspelled ones.
+     */
+    private void checkWords( BlockingQueue<Words> in, BlockingQueue<Words> out ) throws InterruptedException
+    {
+        for( Words words = in.take( ); words != END_OF_WORDS; words = in.take( ) )
+        {
+            long start = System.nanoTime( );
+            Words found = new Words( );
+            CharBuffer word = CharBuffer.wrap( words.chars );
+            for( int i = 0; i < words.count; i++ )
+            {
+                int from = words.start( i );
+                word.limit( words.ends[ i ] ).position( from );
+                if( !dictionary.contains( word ) )
+                    found.add( words.chars, from, words.ends[ i ] - from, words.lines[ i ], words.columns[ i ] );
+                word.clear( );
+            }
+            busyNanos[ CHECK ] += System.nanoTime( ) - start;
+            items[ CHECK ] += words.count;
+            if( found.count > 0 )
+                put( CHECK, out, found );
+        }
+        put( CHECK, out, END_OF_WORDS );
+    }
+
+    /**
+     * Start a suggestion task for each misspelling, passing the futures on in order.
+     */
+    private void suggest( BlockingQueue<Words> in, BlockingQueue<Future<Misspelling>> out,
+                          ExecutorService suggesters ) throws InterruptedException
+    {
+        LongAdder taskNanos = suggestNanos;     // This run's, should a task outlive it
+        for( Words words = in.take( ); words != END_OF_WORDS; words = in.take( ) )
+            for( int i = 0; i < words.count; i++ )
+            {
+                int from = words.start( i );
+                String s = new String( words.chars, from, words.ends[ i ] - from );
+                int line = words.lines[ i ];
+                int column = words.columns[ i ];
+                items[ SUGGEST ]++;
+                put( SUGGEST, out, suggesters.submit( ( ) -> {
+                    long start = System.nanoTime( );
+                    Misspelling m = new Misspelling( line, column, s, dictionary.suggestions( s ) );
+                    taskNanos.add( System.nanoTime( ) - start );
+                    return m;
+                } ) );
+            }
+        put( SUGGEST, out, END_OF_REPORTS );
+    }
+
+    /**
+     * Hand each misspelling to the action once its suggestions are ready.
+     */
+    private void write( BlockingQueue<Future<Misspelling>> in, Consumer<? super Misspelling> action )
+            throws Exception
+    {
+        for( Future<Misspelling> report = in.take( ); report != END_OF_REPORTS; report = in.take( ) )
+        {
+            Misspelling m;
+            try
+            {
+                m = report.get( );
+            }
+            catch( ExecutionException e )
+            {
+                throw e.getCause( ) instanceof Exception ? (Exception) e.getCause( ) : e;
+            }
+            long start = System.nanoTime( );
+            action.accept( m );
+            busyNanos[ WRITER ] += System.nanoTime( ) - start;
+            items[ WRITER ]++;
+        }
+    }
+
+    /**
+     * Put an item on a stage's output queue, noting how full the queue was.
+     */
+    private <T> void put( int stage, BlockingQueue<T> out, T item ) throws InterruptedException
+    {
+        int depth = out.size( );
+        depthSum[ stage ] += depth;
+        maxDepth[ stage ] = Math.max( maxDepth[ stage ], depth );
+        puts[ stage ]++;
+        out.put( item );
+    }
+
+    /**
+     * Make the thread for a stage. If the stage fails, the failure is kept
+     * and every other stage is interrupted, so none is left blocked.
+     */
+    private static Thread stage( int stage, Thread [ ] threads, AtomicReference<Throwable> failure, Body body )
+    {
+        Thread t = new Thread( ( ) -> {
+            try
+            {
+                body.run( );
+            }
+            catch( Throwable e )
+            {
+                if( failure.compareAndSet( null, e ) )
+                    for( Thread other : threads )
+                        if( other != Thread.currentThread( ) )
+                            other.interrupt( );
+            }
+        }, "check-" + STAGES[ stage ] );
+        t.setDaemon( true );
+        return t;
+    }
+
+    /**
+     * Get an executor that starts a virtual thread per task, through
+     * reflection so the class still runs on older JVMs; failing that, a
+     * fixed pool of daemon threads.
+     */
+    private ExecutorService newSuggestionExecutor( )
+    {
+        try
+        {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod( "newVirtualThreadPerTaskExecutor" ).invoke( null );
+            virtualThreads = true;
+            return executor;
+        }
+        catch( ReflectiveOperationException | UnsupportedOperationException e )
+        {
+            virtualThreads = false;
+            return Executors.newFixedThreadPool( suggestionThreads, r -> {
+                Thread t = new Thread( r, "check-suggester" );
+                t.setDaemon( true );
+                return t;
+            } );
+        }
+    }
+
+    private void resetStats( )
+    {
+        Arrays.fill( items, 0 );
+        Arrays.fill( busyNanos, 0 );
+        Arrays.fill( depthSum, 0 );
+        Arrays.fill( maxDepth, 0 );
+        Arrays.fill( puts, 0 );
+        suggestNanos = new LongAdder( );
+        elapsedNanos = 0;
+    }
+
+    /**
+     * The work of one stage.
+     */
+    private interface Body
+    {
+        void run( ) throws Exception;
+    }
+
+    /**
+     * Consecutive lines of the text.
+     */
+    private static final class Lines
+    {
+        Lines( int firstLine )
+        {
+            this.firstLine = firstLine;
+        }
+
+        final int firstLine;                                    // Number of the first line
+        final List<String> text = new ArrayList<>( BATCH_LINES );
+    }
+
+    /**
+     * Words packed back to back in one char array, with where each ends
+     * and the line and column it came from.
+     */
+    private static final class Words
+    {
+        void add( char [ ] buffer, int from, int length, int line, int column )
+        {
+            int end = start( count ) + length;
+            if( end > chars.length )
+                chars = Arrays.copyOf( chars, Math.max( end, 2 * chars.length ) );
+            if( count == ends.length )
+            {
+                ends = Arrays.copyOf( ends, 2 * count );
+                lines = Arrays.copyOf( lines, 2 * count );
+                columns = Arrays.copyOf( columns, 2 * count );
+            }
+            System.arraycopy( buffer, from, chars, end - length, length );
+            ends[ count ] = end;
+            lines[ count ] = line;
+            columns[ count ] = column;
+            count++;
+        }
+
+        int start( int i )
+        {
+            return i == 0 ? 0 : ends[ i - 1 ];
+        }
+
+        char [ ] chars = new char[ 1024 ];
+        int [ ] ends = new int[ 128 ];      // End of each word in chars
+        int [ ] lines = new int[ 128 ];     // Line of each word
+        int [ ] columns = new int[ 128 ];   // Column of each word
+        int count;
+    }
+
+    private static final String [ ] STAGES = { "reader", "tokenizer", "check", "suggest", "writer" };
+    private static final String [ ] UNITS = { "lines", "words", "words", "misspellings", "misspellings" };
+    private static final int READER = 0;
+    private static final int TOKENIZER = 1;
+    private static final int CHECK = 2;
+    private static final int SUGGEST = 3;
+    private static final int WRITER = 4;
+
+    private static final int BATCH_LINES = 256;             // Lines per batch
+    private static final int BATCH_QUEUE_CAPACITY = 16;     // Batches waiting between stages
+    private static final int REPORT_QUEUE_CAPACITY = 1024;  // Suggestion tasks in flight
+
+    private static final Lines END_OF_LINES = new Lines( 0 );
+    private static final Words END_OF_WORDS = new Words( );
+    private static final Future<Misspelling> END_OF_REPORTS = CompletableFuture.completedFuture( null );
+
+    private final SpellCheckHashTable dictionary;
+    private final int suggestionThreads;      // Pool size without virtual threads
+    private boolean virtualThreads;           // Whether the last check used them
+
+    // Statistics of the last check, by stage; each is written by its stage's thread only
+    private final long [ ] items = new long[ STAGES.length ];      // Items handled
+    private final long [ ] busyNanos = new long[ STAGES.length ];  // Time spent working
+    private final long [ ] depthSum = new long[ STAGES.length ];   // Output queue depths seen on put
+    private final int [ ] maxDepth = new int[ STAGES.length ];     // Deepest output queue seen
+    private final long [ ] puts = new long[ STAGES.length ];       // Items put on the output queue
+    private final int [ ] capacity = new int[ STAGES.length ];     // Output queue capacity
+    private LongAdder suggestNanos = new LongAdder( );             // Time of all suggestion tasks
+    private long elapsedNanos;
+}
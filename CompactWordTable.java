@@ -0,0 +1,367 @@
+/**
+ * Probing hash table that keeps no object per word.
+ * Words are packed into one char arena, each one preceded by its length,
+ * and the table itself is an int array of arena offsets. A slot holds 0
+ * when empty, offset + 1 when active, and -(offset + 1) when deleted.
+ * The length sits in the arena rather than in spare bits of the slot so
+ * that slots can address the whole arena and words need no length cap
+ * below Character.MAX_VALUE; a probe that compares words reads the
+ * length from the same cache line as the first characters anyway.
+ * Probing and sizing follow SpellCheckHashTable, except that a rehash
+ * mostly caused by deleted slots keeps the table size and only compacts
+ * the arena, so remove/insert churn cannot grow either without bound.
+ * A word can also carry an int value, such as its frequency; values live
+ * in a second array parallel to the slots, allocated on first use.
+ */
+public class CompactWordTable implements WordTable
+{
+    /**
+     * Construct the hash table.
+     */
+    public CompactWordTable( )
+    {
+        this( DEFAULT_TABLE_SIZE );
+    }
+
+    /**
+     * Construct the hash table.
+     * @param size the approximate initial size.
+     */
+    public CompactWordTable( int size )
+    {
+        slots = new int[ SpellCheckHashTable.nextPrime( size ) ];
+        arena = new char[ DEFAULT_ARENA_SIZE ];
+        doClear( );
+    }
+
+    /**
+     * Insert into the hash table. If the item is
+     * already present, do nothing.
+     * @param x the item to insert.
+     * @return true if the item was added.
+     */
+    public boolean insert( String x )
+    {
+        if( x.length( ) > MAX_WORD_LENGTH )
+            throw new IllegalArgumentException( "Word too long: " + x.length( ) );
+
+        int currentPos = findPos( x );
+        if( isActive( currentPos ) )
+            return false;
+
+        if( slots[ currentPos ] == 0 )
+        {
+            slots[ currentPos ] = append( x ) + 1;
+            occupied++;
+        }
+        else
+            slots[ currentPos ] = -slots[ currentPos ];   // Deleted here; its characters are still in the arena
+        if( values != null )
+            values[ currentPos ] = 0;
+        theSize++;
+
+        if( occupied > slots.length / 2 )
+            rehash( );
+
+        return true;
+    }
+
+    /**
+     * Remove from the hash table.
+     * The characters stay in the arena until the next rehash.
+     * @param x the item to remove.
+     * @return true if item removed.
+     */
+    public boolean remove( String x )
+    {
+        int currentPos = findPos( x );
+        if( !isActive( currentPos ) )
+            return false;
+
+        slots[ currentPos ] = -slots[ currentPos ];
+        theSize--;
+        return true;
+    }
+
+    /**
+     * Find an item in the hash table.
+     * @param x the item to search for.
+     * @return true if the item is present.
+     */
+    public boolean contains( CharSequence x )
+    {
+        return isActive( findPos( x ) );
+    }
+
+    /**
+     * Find a word and the value it carries, with one probe.
+     * @param x the word to search for.
+     * @return its value, 0 if it was never given one, or -1 if it is absent.
+     */
+    public int lookup( CharSequence x )
+    {
+        int currentPos = findPos( x );
+        if( !isActive( currentPos ) )
+            return -1;
+        return values == null ? 0 : values[ currentPos ];
+    }
+
+    /**
+     * Store a word's frequency as its value.
+     * @param x a word in the table.
+     * @param frequency its count.
+     * @return false if the word is absent.
+     */
+    public boolean setFrequency( String x, int frequency )
+    {
+        int currentPos = findPos( x );
+        if( !isActive( currentPos ) )
+            return false;
+        if( values == null )
+            values = new int[ slots.length ];
+        values[ currentPos ] = frequency;
+        return true;
+    }
+
+    /**
+     * Set the value carried by a word, inserting the word if it is absent.
+     * @param x the word.
+     * @param value its new value.
+     */
+    public void setValue( String x, int value )
+    {
+        if( !contains( x ) )
+            insert( x );
+        if( values == null )
+            values = new int[ slots.length ];
+        values[ findPos( x ) ] = value;
+    }
+
+    /**
+     * Get the value carried by a word.
+     * @param x the word.
+     * @return its value, or 0 if it is absent or was never given one.
+     */
+    public int value( CharSequence x )
+    {
+        int currentPos = findPos( x );
+        return values != null && isActive( currentPos ) ? values[ currentPos ] : 0;
+    }
+
+    /**
+     * Get current size.
+     * @return the size.
+     */
+    public int size( )
+    {
+        return theSize;
+    }
+
+    /**
+     * Get length of internal table.
+     * @return the size.
+     */
+    public int capacity( )
+    {
+        return slots.length;
+    }
+
+    /**
+     * Make the hash table logically empty.
+     */
+    public void makeEmpty( )
+    {
+        doClear( );
+    }
+
+    /**
+     * Iterate over the words in the table, in slot order.
+     * @return an iterator that builds each word as a String.
+     */
+    public java.util.Iterator<String> iterator( )
+    {
+        return new java.util.Iterator<String>( )
+        {
+            private int next = advance( 0 );
+
+            private int advance( int pos )
+            {
+                while( pos < slots.length && !isActive( pos ) )
+                    pos++;
+                return pos;
+            }
+
+            public boolean hasNext( )
+            {
+                return next < slots.length;
+            }
+
+            public String next( )
+            {
+                if( !hasNext( ) )
+                    throw new java.util.NoSuchElementException( );
+                int offset = slots[ next ] - 1;
+                next = advance( next + 1 );
+                return new String( arena, offset + 1, arena[ offset ] );
+            }
+        };
+    }
+
+    private void doClear( )
+    {
+        occupied = 0;
+        theSize = 0;
+        arenaSize = 0;
+        java.util.Arrays.fill( slots, 0 );
+        values = null;
+    }
+
+    /**
+     * Expand the hash table, dropping deleted words from the arena.
+     * If most occupied cells are deleted ones, keep the size and just compact.
+     */
+    private void rehash( )
+    {
+        int [ ] oldSlots = slots;
+        int [ ] oldValues = values;
+        char [ ] oldArena = arena;
+
+        int newLength = theSize < occupied / 2 ? oldSlots.length
+                                               : SpellCheckHashTable.nextPrime( 2 * oldSlots.length );
+        slots = new int[ newLength ];
+        values = oldValues == null ? null : new int[ slots.length ];
+        arena = new char[ Math.max( DEFAULT_ARENA_SIZE, arenaSize ) ];
+        arenaSize = 0;
+        occupied = 0;
+
+        for( int i = 0; i < oldSlots.length; i++ )
+        {
+            int slot = oldSlots[ i ];
+            if( slot <= 0 )
+                continue;
+            int offset = slot - 1;
+            int length = oldArena[ offset ];
+            int newOffset = reserve( length );
+            System.arraycopy( oldArena, offset, arena, newOffset, length + 1 );
+
+            int currentPos = findPos( arena, newOffset + 1, length );
+            slots[ currentPos ] = newOffset + 1;
+            if( values != null )
+                values[ currentPos ] = oldValues[ i ];
+            occupied++;
+        }
+    }
+
+    /**
+     * Method that performs quadratic probing resolution.
+     * @param x the item to search for.
+     * @return the position where the search terminates.
+     */
+    private int findPos( CharSequence x )
+    {
+        int offset = 1;
+        int currentPos = SpellCheckHashTable.hash( x, slots.length );
+
+        while( slots[ currentPos ] != 0 && !matches( slots[ currentPos ], x ) )
+        {
+            currentPos += offset;  // Compute ith probe
+            offset += 2;
+            if( currentPos >= slots.length )
+                currentPos -= slots.length;
+        }
+
+        return currentPos;
+    }
+
+    /**
+     * Probe for a word already stored in the arena; used by rehash,
+     * where every word is known to be distinct.
+     */
+    private int findPos( char [ ] chars, int start, int length )
+    {
+        int hashVal = 0;
+        for( int i = 0; i < length; i++ )
+            hashVal = 41 * hashVal + chars[ start + i ];
+        hashVal %= slots.length;
+        if( hashVal < 0 )
+            hashVal += slots.length;
+
+        int offset = 1;
+        int currentPos = hashVal;
+        while( slots[ currentPos ] != 0 )
+        {
+            currentPos += offset;
+            offset += 2;
+            if( currentPos >= slots.length )
+                currentPos -= slots.length;
+        }
+        return currentPos;
+    }
+
+    /**
+     * Compare the word a slot points at with x.
+     * @param slot a nonzero slot value, active or deleted.
+     * @param x the item to compare.
+     * @return true if the stored characters equal x.
+     */
+    private boolean matches( int slot, CharSequence x )
+    {
+        int offset = ( slot > 0 ? slot : -slot ) - 1;
+        int length = arena[ offset ];
+        if( length != x.length( ) )
+            return false;
+        for( int i = 0; i < length; i++ )
+            if( arena[ offset + 1 + i ] != x.charAt( i ) )
+                return false;
+        return true;
+    }
+
+    private boolean isActive( int currentPos )
+    {
+        return slots[ currentPos ] > 0;
+    }
+
+    /**
+     * Copy x, prefixed by its length, to the end of the arena.
+     * @return the arena offset of the length char.
+     */
+    private int append( String x )
+    {
+        int offset = reserve( x.length( ) );
+        arena[ offset ] = (char) x.length( );
+        x.getChars( 0, x.length( ), arena, offset + 1 );
+        return offset;
+    }
+
+    /**
+     * Make room for a word of the given length at the end of the arena.
+     * @return the arena offset reserved for it.
+     */
+    private int reserve( int length )
+    {
+        int needed = arenaSize + length + 1;
+        if( needed < 0 )
+            throw new IllegalStateException( "Word arena is full" );
+        if( needed > arena.length )
+        {
+            int newLength = Math.max( needed, arena.length * 2 );
+            if( newLength < 0 )
+                newLength = Integer.MAX_VALUE - 8;
+            arena = java.util.Arrays.copyOf( arena, newLength );
+        }
+        int offset = arenaSize;
+        arenaSize = needed;
+        return offset;
+    }
+
+    private static final int DEFAULT_TABLE_SIZE = 17;
+    private static final int DEFAULT_ARENA_SIZE = 256;
+    private static final int MAX_WORD_LENGTH = Character.MAX_VALUE;
+
+    private int [ ] slots;      // Arena offset + 1 per slot, negated if deleted
+    private int [ ] values;     // Value per slot, or null if none was set
+    private char [ ] arena;     // Length-prefixed words, back to back
+    private int arenaSize;      // Chars of the arena in use
+    private int occupied;       // The number of occupied cells
+    private int theSize;        // Current size
+}
@@ -0,0 +1,286 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only dictionary answered straight from a memory-mapped file.
+ * The file holds a finished probing table in the CompactWordTable layout:
+ * <pre>
+ *   header   magic, version, slot count, word count, arena length (ints)
+ *   slots    one int per slot: arena offset + 1, or 0 if empty
+ *   arena    length-prefixed words as UTF-16 chars
+ * </pre>
+ * All values are little-endian. Lookups hash and probe exactly like
+ * SpellCheckHashTable, so contains does no parsing and no allocation.
+ */
+public class CompiledDictionary implements WordTable
+{
+    /**
+     * Write the words of a table as a compiled dictionary.
+     * @param words the words to write.
+     * @param file the file to create or replace.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write( WordTable words, Path file ) throws IOException
+    {
+        int wordCount = words.size( );
+        int [ ] slots = new int[ SpellCheckHashTable.nextPrime( 2 * wordCount + 1 ) ];
+        char [ ] arena = new char[ 16 ];
+        int arenaLength = 0;
+
+        for( String x : words )
+        {
+            if( x.length( ) > Character.MAX_VALUE )
+                throw new IllegalArgumentException( "Word too long: " + x.length( ) );
+            if( arenaLength + x.length( ) + 1 > arena.length )
+                arena = java.util.Arrays.copyOf( arena,
+                        Math.max( arena.length * 2, arenaLength + x.length( ) + 1 ) );
+
+            int offset = 1;
+            int currentPos = SpellCheckHashTable.hash( x, slots.length );
+            while( slots[ currentPos ] != 0 )
+            {
+                currentPos += offset;
+                offset += 2;
+                if( currentPos >= slots.length )
+                    currentPos -= slots.length;
+            }
+            slots[ currentPos ] = arenaLength + 1;
+
+            arena[ arenaLength ] = (char) x.length( );
+            x.getChars( 0, x.length( ), arena, arenaLength + 1 );
+            arenaLength += x.length( ) + 1;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate( HEADER_BYTES ).order( ByteOrder.LITTLE_ENDIAN );
+        header.putInt( MAGIC ).putInt( VERSION ).putInt( slots.length )
+              .putInt( wordCount ).putInt( arenaLength ).flip( );
+
+        try( FileChannel channel = FileChannel.open( file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE ) )
+        {
+            writeFully( channel, header );
+
+            ByteBuffer body = ByteBuffer.allocate( 1 << 16 ).order( ByteOrder.LITTLE_ENDIAN );
+            for( int slot : slots )
+            {
+                if( body.remaining( ) < 4 )
+                    flush( channel, body );
+                body.putInt( slot );
+            }
+            for( int i = 0; i < arenaLength; i++ )
+            {
+                if( body.remaining( ) < 2 )
+                    flush( channel, body );
+                body.putChar( arena[ i ] );
+            }
+            flush( channel, body );
+        }
+    }
+
+    /**
+     * Map a compiled dictionary.
+     * @param file the file written by write.
+     * @return the dictionary.
+     * @throws IOException if the file cannot be read or is not a compiled dictionary.
+     */
+    public static CompiledDictionary open( Path file ) throws IOException
+    {
+        try( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) )
+        {
+            if( channel.size( ) < HEADER_BYTES || channel.size( ) > Integer.MAX_VALUE )
+                throw new IOException( file + ": not a compiled dictionary" );
+            MappedByteBuffer buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size( ) );
+            buffer.order( ByteOrder.LITTLE_ENDIAN );
+            return new CompiledDictionary( buffer, file );
+        }
+    }
+
+    private CompiledDictionary( ByteBuffer buffer, Path file ) throws IOException
+    {
+        if( buffer.getInt( 0 ) != MAGIC || buffer.getInt( 4 ) != VERSION )
+            throw new IOException( file + ": not a compiled dictionary" );
+        this.buffer = buffer;
+        slotCount = buffer.getInt( 8 );
+        wordCount = buffer.getInt( 12 );
+        arenaStart = HEADER_BYTES + 4L * slotCount;
+        long arenaLength = buffer.getInt( 16 );
+        if( slotCount <= 0 || wordCount < 0 || arenaLength < 0
+                || arenaStart + 2 * arenaLength != buffer.capacity( ) )
+            throw new IOException( file + ": truncated compiled dictionary" );
+        checkSlots( arenaLength, file );
+    }
+
+    /**
+     * Scan the slots once, so a damaged file fails here rather than on a
+     * lookup: every word must lie inside the arena, the words must number
+     * wordCount, and some slot must be empty for probes to stop at.
+     */
+    private void checkSlots( long arenaLength, Path file ) throws IOException
+    {
+        int used = 0;
+        for( int pos = 0; pos < slotCount; pos++ )
+        {
+            long offset = slot( pos ) - 1L;
+            if( offset < 0 )
+                continue;
+            if( offset >= arenaLength || offset + 1 + arenaChar( (int) offset ) > arenaLength )
+                throw new IOException( file + ": slot " + pos + " points outside the words" );
+            used++;
+        }
+        if( used != wordCount || used == slotCount )
+            throw new IOException( file + ": corrupt compiled dictionary" );
+    }
+
+    /**
+     * Find an item in the mapped table.
+     * @param x the item to search for.
+     * @return true if the item is present.
+     */
+    public boolean contains( CharSequence x )
+    {
+        int offset = 1;
+        int currentPos = SpellCheckHashTable.hash( x, slotCount );
+
+        int slot;
+        while( ( slot = slot( currentPos ) ) != 0 )
+        {
+            if( matches( slot - 1, x ) )
+                return true;
+            currentPos += offset;  // Compute ith probe
+            offset += 2;
+            if( currentPos >= slotCount )
+                currentPos -= slotCount;
+        }
+        return false;
+    }
+
+    /**
+     * Compiled dictionaries are read-only.
+     * @throws UnsupportedOperationException always.
+     */
+    public boolean insert( String x )
+    {
+        throw new UnsupportedOperationException( "Compiled dictionaries are read-only" );
+    }
+
+    /**
+     * Compiled dictionaries are read-only.
+     * @throws UnsupportedOperationException always.
+     */
+    public boolean remove( String x )
+    {
+        throw new UnsupportedOperationException( "Compiled dictionaries are read-only" );
+    }
+
+    /**
+     * Compiled dictionaries are read-only.
+     * @throws UnsupportedOperationException always.
+     */
+    public void makeEmpty( )
+    {
+        throw new UnsupportedOperationException( "Compiled dictionaries are read-only" );
+    }
+
+    /**
+     * Get the number of words.
+     * @return the size.
+     */
+    public int size( )
+    {
+        return wordCount;
+    }
+
+    /**
+     * Get the number of slots in the mapped table.
+     * @return the capacity.
+     */
+    public int capacity( )
+    {
+        return slotCount;
+    }
+
+    /**
+     * Iterate over the words, in slot order.
+     * @return an iterator that builds each word as a String.
+     */
+    public Iterator<String> iterator( )
+    {
+        return new Iterator<String>( )
+        {
+            private int next = advance( 0 );
+
+            private int advance( int pos )
+            {
+                while( pos < slotCount && slot( pos ) == 0 )
+                    pos++;
+                return pos;
+            }
+
+            public boolean hasNext( )
+            {
+                return next < slotCount;
+            }
+
+            public String next( )
+            {
+                if( !hasNext( ) )
+                    throw new NoSuchElementException( );
+                int offset = slot( next ) - 1;
+                next = advance( next + 1 );
+                char [ ] word = new char[ arenaChar( offset ) ];
+                for( int i = 0; i < word.length; i++ )
+                    word[ i ] = arenaChar( offset + 1 + i );
+                return new String( word );
+            }
+        };
+    }
+
+    private int slot( int pos )
+    {
+        return buffer.getInt( HEADER_BYTES + 4 * pos );
+    }
+
+    private char arenaChar( int index )
+    {
+        return buffer.getChar( (int) ( arenaStart + 2L * index ) );
+    }
+
+    private boolean matches( int offset, CharSequence x )
+    {
+        if( arenaChar( offset ) != x.length( ) )
+            return false;
+        for( int i = 0; i < x.length( ); i++ )
+            if( arenaChar( offset + 1 + i ) != x.charAt( i ) )
+                return false;
+        return true;
+    }
+
+    private static void flush( FileChannel channel, ByteBuffer body ) throws IOException
+    {
+        body.flip( );
+        writeFully( channel, body );
+        body.clear( );
+    }
+
+    private static void writeFully( FileChannel channel, ByteBuffer bytes ) throws IOException
+    {
+        while( bytes.hasRemaining( ) )
+            channel.write( bytes );
+    }
+
+    private static final int MAGIC = 0x44435053;     // "SPCD"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+
+    private final ByteBuffer buffer;    // The mapped file
+    private final int slotCount;        // Slots in the probing table
+    private final int wordCount;        // Words in the dictionary
+    private final long arenaStart;      // Byte offset of the arena
+}
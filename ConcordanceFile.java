@@ -0,0 +1,538 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Concordance saved to disk and queried through a memory mapping.
+ * <pre>
+ *   header   magic, version, word count, block count (ints), index offset (long)
+ *   blocks   entries of up to BLOCK_WORDS words each, in word order
+ *   index    per block: offset (long), entry count, first word
+ * </pre>
+ * An entry is the length of the prefix shared with the previous word of
+ * its block, the rest of the word, the number of lines, the number of
+ * bytes they take, and the lines themselves in PostingList's varint gap
+ * encoding. Counts, lengths and chars are varints; the header and block
+ * offsets are little-endian.
+ *
+ * Only the sparse index is read into memory. A lookup binary searches it
+ * and decodes a single block; a prefix query decodes from that block on
+ * until the words stop matching. Lookups do not change any shared state,
+ * so one file can serve many threads.
+ */
+public class ConcordanceFile
+{
+    /**
+     * Writes a concordance file one word at a time, in word order.
+     * The header stays zero, so the file will not open, until finish
+     * writes it; closing a writer that was not finished deletes the file.
+     */
+    public static class Writer implements Closeable
+    {
+        /**
+         * Start a concordance file.
+         * @param file the file to create or replace.
+         * @throws IOException if it cannot be created.
+         */
+        public Writer( Path file ) throws IOException
+        {
+            this.file = file;
+            channel = FileChannel.open( file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE );
+            out = new BufferedOutputStream( Channels.newOutputStream( channel ), 1 << 16 );
+            out.write( new byte[ HEADER_BYTES ] );      // Filled in by finish
+            position = HEADER_BYTES;
+        }
+
+        /**
+         * Add a word and its lines.
+         * @param word the word; greater than the one added before it.
+         * @param lines the lines it appears on.
+         * @throws IOException if the file cannot be written.
+         * @throws IllegalArgumentException if the word is out of order.
+         */
+        public void add( String word, PostingList lines ) throws IOException
+        {
+            if( previous != null && previous.compareTo( word ) >= 0 )
+                throw new IllegalArgumentException( "Word '" + word + "' added after '" + previous + "'" );
+
+            int shared = 0;
+            if( wordsInBlock == BLOCK_WORDS || previous == null )
+            {
+                int block = firstWords.size( );
+                if( block == offsets.length )
+                {
+                    offsets = Arrays.copyOf( offsets, 2 * block );
+                    counts = Arrays.copyOf( counts, 2 * block );
+                }
+                offsets[ block ] = position;
+                firstWords.add( word );
+                wordsInBlock = 0;
+            }
+            else
+            {
+                int n = Math.min( previous.length( ), word.length( ) );
+                while( shared < n && previous.charAt( shared ) == word.charAt( shared ) )
+                    shared++;
+            }
+
+            writeVarint( shared );
+            writeVarint( word.length( ) - shared );
+            for( int i = shared; i < word.length( ); i++ )
+                writeVarint( word.charAt( i ) );
+            writeVarint( lines.size( ) );
+            writeVarint( lines.encodedLength( ) );
+            lines.writeEncoded( out );
+            position += lines.encodedLength( );
+
+            counts[ firstWords.size( ) - 1 ] = ++wordsInBlock;
+            previous = word;
+            wordCount++;
+        }
+
+        /**
+         * Write the index and header, which make the file complete, and
+         * close it. Call once every word has been added.
+         * @throws IOException if the file cannot be written.
+         */
+        public void finish( ) throws IOException
+        {
+            if( channel == null )
+                throw new IllegalStateException( "Writer already closed" );
+            try
+            {
+                long indexOffset = position;
+                ByteBuffer offset = ByteBuffer.allocate( 8 ).order( ByteOrder.LITTLE_ENDIAN );
+                for( int b = 0; b < firstWords.size( ); b++ )
+                {
+                    offset.clear( );
+                    out.write( offset.putLong( offsets[ b ] ).array( ) );
+                    writeVarint( counts[ b ] );
+                    String first = firstWords.get( b );
+                    writeVarint( first.length( ) );
+                    for( int i = 0; i < first.length( ); i++ )
+                        writeVarint( first.charAt( i ) );
+                }
+                out.flush( );
+
+                ByteBuffer header = ByteBuffer.allocate( HEADER_BYTES ).order( ByteOrder.LITTLE_ENDIAN );
+                header.putInt( MAGIC ).putInt( VERSION ).putInt( wordCount )
+                      .putInt( firstWords.size( ) ).putLong( indexOffset ).flip( );
+                while( header.hasRemaining( ) )
+                    channel.write( header, header.position( ) );
+                finished = true;
+            }
+            finally
+            {
+                close( );
+            }
+        }
+
+        /**
+         * Close the file. Unless finish succeeded, the file is incomplete
+         * and is deleted.
+         * @throws IOException if the file cannot be closed or deleted.
+         */
+        public void close( ) throws IOException
+        {
+            if( channel == null )
+                return;
+            try
+            {
+                channel.close( );
+            }
+            finally
+            {
+                channel = null;
+                if( !finished )
+                    Files.deleteIfExists( file );
+            }
+        }
+
+        private void writeVarint( int value ) throws IOException
+        {
+            while( ( value & ~0x7f ) != 0 )
+            {
+                out.write( ( value & 0x7f ) | 0x80 );
+                value >>>= 7;
+                position++;
+            }
+            out.write( value );
+            position++;
+        }
+
+        private final Path file;
+        private FileChannel channel;            // Null once closed
+        private boolean finished;               // True once the header is written
+        private final OutputStream out;
+        private long position;                  // Bytes written so far
+        private String previous;                // Last word added
+        private int wordCount;
+        private int wordsInBlock;               // Entries in the current block
+        private final List<String> firstWords = new ArrayList<>( );
+        private long [ ] offsets = new long[ 16 ];   // Byte offset of each block
+        private int [ ] counts = new int[ 16 ];      // Entries in each block
+    }
+
+    /**
+     * Save a concordance.
+     * @param tree the concordance.
+     * @param file the file to create or replace.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write( TwoParamObj<String> tree, Path file ) throws IOException
+    {
+        write( tree::forEachEntry, file );
+    }
+
+    /**
+     * Save a concordance given as its entries. If they fail partway
+     * the file is deleted.
+     * @param entries hands each word and its lines, in word order, to an action;
+     *        for instance an ArrayAvlConcordance's forEachEntry.
+     * @param file the file to create or replace.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write( Consumer<BiConsumer<? super String, PostingList>> entries, Path file ) throws IOException
+    {
+        try( Writer writer = new Writer( file ) )
+        {
+            entries.accept( ( word, lines ) -> {
+                try
+                {
+                    writer.add( word, lines );
+                }
+                catch( IOException e )
+                {
+                    throw new UncheckedIOException( e );
+                }
+            } );
+            writer.finish( );
+        }
+        catch( UncheckedIOException e )
+        {
+            throw e.getCause( );
+        }
+    }
+
+    /**
+     * Map a concordance file.
+     * @param file the file written by a Writer.
+     * @return the concordance.
+     * @throws IOException if the file cannot be read or is not a concordance file.
+     */
+    public static ConcordanceFile open( Path file ) throws IOException
+    {
+        try( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) )
+        {
+            return new ConcordanceFile( channel, file );
+        }
+    }
+
+    private ConcordanceFile( FileChannel channel, Path file ) throws IOException
+    {
+        long size = channel.size( );
+        ByteBuffer header = ByteBuffer.allocate( HEADER_BYTES ).order( ByteOrder.LITTLE_ENDIAN );
+        while( header.hasRemaining( ) && channel.read( header, header.position( ) ) > 0 )
+            ;
+        if( header.hasRemaining( ) || header.getInt( 0 ) != MAGIC || header.getInt( 4 ) != VERSION )
+            throw new IOException( file + ": not a concordance file" );
+        wordCount = header.getInt( 8 );
+        int blockCount = header.getInt( 12 );
+        long indexOffset = header.getLong( 16 );
+        if( indexOffset < HEADER_BYTES || indexOffset > size || size - indexOffset > Integer.MAX_VALUE )
+            throw new IOException( file + ": damaged concordance file" );
+
+        // Read the sparse index
+        ByteBuffer index = channel.map( FileChannel.MapMode.READ_ONLY, indexOffset, size - indexOffset )
+                                  .order( ByteOrder.LITTLE_ENDIAN );
+        firstWords = new String[ blockCount ];
+        blockOffsets = new long[ blockCount + 1 ];
+        blockCounts = new int[ blockCount ];
+        int [ ] pos = { 0 };
+        for( int b = 0; b < blockCount; b++ )
+        {
+            blockOffsets[ b ] = index.getLong( pos[ 0 ] );
+            pos[ 0 ] += 8;
+            blockCounts[ b ] = readVarint( index, pos );
+            char [ ] first = new char[ readVarint( index, pos ) ];
+            for( int i = 0; i < first.length; i++ )
+                first[ i ] = (char) readVarint( index, pos );
+            firstWords[ b ] = new String( first );
+        }
+        blockOffsets[ blockCount ] = indexOffset;
+
+        // Map the blocks in as few pieces as fit in a ByteBuffer
+        segments = new ArrayList<>( );
+        blockSegment = new int[ blockCount ];
+        blockStart = new int[ blockCount ];
+        for( int b = 0; b < blockCount; )
+        {
+            long segmentStart = blockOffsets[ b ];
+            int last = b;
+            while( last + 1 < blockCount && blockOffsets[ last + 2 ] - segmentStart <= MAX_SEGMENT_BYTES )
+                last++;
+            long length = blockOffsets[ last + 1 ] - segmentStart;
+            if( length > Integer.MAX_VALUE )
+                throw new IOException( file + ": block too large to map" );
+            MappedByteBuffer segment = channel.map( FileChannel.MapMode.READ_ONLY, segmentStart, length );
+            for( ; b <= last; b++ )
+            {
+                blockSegment[ b ] = segments.size( );
+                blockStart[ b ] = (int) ( blockOffsets[ b ] - segmentStart );
+            }
+            segments.add( segment );
+        }
+    }
+
+    /**
+     * A position in the file, moving forward one word at a time.
+     * Not safe to share between threads.
+     */
+    public class Cursor
+    {
+        private Cursor( int block )
+        {
+            this.block = block;
+            if( block < firstWords.length )
+                enterBlock( );
+        }
+
+        /**
+         * Move to the next word.
+         * @return true if there is one; false at the end of the file.
+         */
+        public boolean next( )
+        {
+            while( left == 0 )
+            {
+                if( block + 1 >= firstWords.length )
+                {
+                    length = -1;
+                    return false;
+                }
+                block++;
+                enterBlock( );
+            }
+            pos[ 0 ] = linesEnd;
+            int shared = readVarint( buffer, pos );
+            int suffix = readVarint( buffer, pos );
+            if( shared + suffix > word.length )
+                word = Arrays.copyOf( word, Math.max( 2 * word.length, shared + suffix ) );
+            for( int i = 0; i < suffix; i++ )
+                word[ shared + i ] = (char) readVarint( buffer, pos );
+            length = shared + suffix;
+            lineCount = readVarint( buffer, pos );
+            int bytes = readVarint( buffer, pos );
+            linesStart = pos[ 0 ];
+            linesEnd = linesStart + bytes;
+            left--;
+            return true;
+        }
+
+        /**
+         * Get the current word.
+         * @return the word, as a new String.
+         */
+        public String word( )
+        {
+            return new String( word, 0, length );
+        }
+
+        /**
+         * Get the lines the current word appears on.
+         * @return a new posting list.
+         */
+        public PostingList lines( )
+        {
+            byte [ ] encoded = new byte[ linesEnd - linesStart ];
+            for( int i = 0; i < encoded.length; i++ )
+                encoded[ i ] = buffer.get( linesStart + i );
+            return PostingList.fromEncoded( encoded, encoded.length, lineCount );
+        }
+
+        /**
+         * Compare the current word with x, as String.compareTo would.
+         */
+        int compareTo( CharSequence x )
+        {
+            int n = Math.min( length, x.length( ) );
+            for( int i = 0; i < n; i++ )
+                if( word[ i ] != x.charAt( i ) )
+                    return word[ i ] - x.charAt( i );
+            return length - x.length( );
+        }
+
+        /**
+         * Test if the current word starts with prefix.
+         */
+        boolean startsWith( CharSequence prefix )
+        {
+            if( length < prefix.length( ) )
+                return false;
+            for( int i = 0; i < prefix.length( ); i++ )
+                if( word[ i ] != prefix.charAt( i ) )
+                    return false;
+            return true;
+        }
+
+        private void enterBlock( )
+        {
+            buffer = segments.get( blockSegment[ block ] );
+            linesEnd = blockStart[ block ];
+            left = blockCounts[ block ];
+        }
+
+        private int block;                      // Current block
+        private ByteBuffer buffer;              // Segment it is mapped in
+        private int left;                       // Entries of the block not yet read
+        private final int [ ] pos = new int[ 1 ];
+        private char [ ] word = new char[ 32 ]; // The current word
+        private int length = -1;                // Its length, -1 before the first
+        private int lineCount;                  // Lines of the current word
+        private int linesStart;                 // Where they start in buffer
+        private int linesEnd;                   // Where the next entry starts
+    }
+
+    /**
+     * Start before the first word.
+     * @return a cursor; call next to reach the first word.
+     */
+    public Cursor cursor( )
+    {
+        return new Cursor( 0 );
+    }
+
+    /**
+     * Get the number of words.
+     * @return the size.
+     */
+    public int size( )
+    {
+        return wordCount;
+    }
+
+    /**
+     * Find a word.
+     * @param word the word to search for.
+     * @return true if it is in the concordance.
+     */
+    public boolean contains( CharSequence word )
+    {
+        return seek( word ) != null;
+    }
+
+    /**
+     * Get the lines a word appears on.
+     * @param word the word to search for.
+     * @return its lines, or null if it is not in the concordance.
+     */
+    public PostingList lines( CharSequence word )
+    {
+        Cursor c = seek( word );
+        return c == null ? null : c.lines( );
+    }
+
+    /**
+     * Hand every word starting with a prefix, and its lines, to an action,
+     * in word order.
+     * @param prefix the prefix.
+     * @param action the action.
+     */
+    public void forEachWithPrefix( CharSequence prefix, BiConsumer<? super String, ? super PostingList> action )
+    {
+        Cursor c = new Cursor( Math.max( 0, findBlock( prefix ) ) );
+        while( c.next( ) )
+        {
+            int compareResult = c.compareTo( prefix );
+            if( compareResult < 0 )
+                continue;
+            if( !c.startsWith( prefix ) )
+                break;
+            action.accept( c.word( ), c.lines( ) );
+        }
+    }
+
+    /**
+     * Find the cursor positioned on a word.
+     * @return the cursor, or null if the word is absent.
+     */
+    private Cursor seek( CharSequence word )
+    {
+        int block = findBlock( word );
+        if( block < 0 )
+            return null;
+        Cursor c = new Cursor( block );
+        for( int i = 0; i < blockCounts[ block ] && c.next( ); i++ )
+        {
+            int compareResult = c.compareTo( word );
+            if( compareResult == 0 )
+                return c;
+            if( compareResult > 0 )
+                break;
+        }
+        return null;
+    }
+
+    /**
+     * Find the last block whose first word is no greater than x.
+     * @return the block, or -1 if x comes before every word.
+     */
+    private int findBlock( CharSequence x )
+    {
+        int low = 0;
+        int high = firstWords.length - 1;
+        while( low <= high )
+        {
+            int mid = ( low + high ) >>> 1;
+            if( WordTokenizer.compare( firstWords[ mid ], x ) <= 0 )
+                low = mid + 1;
+            else
+                high = mid - 1;
+        }
+        return high;
+    }
+
+    private static int readVarint( ByteBuffer buffer, int [ ] pos )
+    {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do
+        {
+            b = buffer.get( pos[ 0 ]++ );
+            value |= ( b & 0x7f ) << shift;
+            shift += 7;
+        } while( b < 0 );
+        return value;
+    }
+
+    private static final int MAGIC = 0x43435053;     // "SPCC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+    private static final int BLOCK_WORDS = 64;       // Entries per block
+    private static final long MAX_SEGMENT_BYTES = 1 << 30;
+
+    private final int wordCount;                    // Words in the file
+    private final String [ ] firstWords;            // First word of each block
+    private final long [ ] blockOffsets;            // File offset of each block, then of the index
+    private final int [ ] blockCounts;              // Entries in each block
+    private final List<MappedByteBuffer> segments;  // The blocks, mapped
+    private final int [ ] blockSegment;             // Segment each block is in
+    private final int [ ] blockStart;               // Where each block starts in its segment
+}
@@ -0,0 +1,270 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Concordance that many threads can add to and query at once.
+ * Words live in a concurrent skip list ordered like String.compareTo, so
+ * finding or adding a word takes no lock, and a word can be looked up
+ * from a reused buffer such as a WordTokenizer without copying it. Each
+ * word's lines are guarded by that word's own lock. Lines may arrive out
+ * of order from different threads: those that do are parked in a small
+ * unsorted buffer, then appended in sorted batches, so the cost of an add
+ * does not grow with the word's list.
+ *
+ * Each add takes the read lock of one of a few stripes, picked by thread,
+ * so threads on different stripes share no lock. snapshot takes every
+ * stripe's write lock, so it sees every add that finished before it and
+ * none that started after.
+ */
+public class ConcurrentConcordance
+{
+    /**
+     * Add an occurrence of a word.
+     * @param word the word; its characters are copied only the first time it is seen.
+     * @param line the line it appears on, at least 0.
+     */
+    public void insert( CharSequence word, int line )
+    {
+        if( line < 0 )
+            throw new IllegalArgumentException( "Negative line: " + line );
+
+        Lock stripe = stripes[ (int) Thread.currentThread( ).getId( ) & ( stripes.length - 1 ) ].readLock( );
+        stripe.lock( );
+        try
+        {
+            Postings p = words.get( word );
+            if( p == null )
+            {
+                Postings fresh = new Postings( );
+                p = words.putIfAbsent( word.toString( ), fresh );
+                if( p == null )
+                    p = fresh;
+            }
+            p.add( line );
+        }
+        finally
+        {
+            stripe.unlock( );
+        }
+    }
+
+    /**
+     * Find a word. Never blocks.
+     * @param word the word to search for.
+     * @return true if it has been added.
+     */
+    public boolean contains( CharSequence word )
+    {
+        return words.containsKey( word );
+    }
+
+    /**
+     * Find out if a word appears on a line.
+     * @param word the word to search for.
+     * @param line the line.
+     * @return true if that occurrence has been added.
+     */
+    public boolean appearsOn( CharSequence word, int line )
+    {
+        Postings p = words.get( word );
+        return p != null && p.contains( line );
+    }
+
+    /**
+     * Get the number of sorted segments a word's lines are kept in,
+     * which appearsOn searches one by one.
+     * @param word the word to search for.
+     * @return the count, or 0 if it has not been added.
+     */
+    int segmentCount( CharSequence word )
+    {
+        Postings p = words.get( word );
+        return p == null ? 0 : p.segmentCount( );
+    }
+
+    /**
+     * Get the lines a word appears on so far.
+     * @param word the word to search for.
+     * @return a copy of its lines, or null if it has not been added.
+     */
+    public PostingList lines( CharSequence word )
+    {
+        Postings p = words.get( word );
+        return p == null ? null : p.copy( );
+    }
+
+    /**
+     * Get the number of distinct words. Counts them, so it takes time
+     * proportional to the size, and is only a snapshot while threads add.
+     * @return the size.
+     */
+    public int size( )
+    {
+        return words.size( );
+    }
+
+    /**
+     * Copy the concordance as it is into a balanced TwoParamObj.
+     * Adds wait while the copy is taken; queries do not.
+     * @return a tree of its own that later adds do not change.
+     */
+    public TwoParamObj<String> snapshot( )
+    {
+        List<String> keys = new ArrayList<>( words.size( ) );
+        List<PostingList> lines = new ArrayList<>( words.size( ) );
+        for( ReentrantReadWriteLock s : stripes )
+            s.writeLock( ).lock( );
+        try
+        {
+            for( Map.Entry<CharSequence, Postings> e : words.entrySet( ) )
+            {
+                keys.add( (String) e.getKey( ) );
+                lines.add( e.getValue( ).copy( ) );
+            }
+        }
+        finally
+        {
+            for( int i = stripes.length - 1; i >= 0; i-- )
+                stripes[ i ].writeLock( ).unlock( );
+        }
+
+        TwoParamObj<String> tree = new TwoParamObj<>( );
+        tree.bulkLoad( keys, lines );
+        return tree;
+    }
+
+    /**
+     * The lines of one word: sorted segments, each a posting list, plus
+     * lines that arrived behind the last segment's last line and are
+     * waiting to be sorted. A full batch of those is appended to the last
+     * segment if it follows on, and otherwise becomes a segment of its
+     * own, so no add copies lines already stored. A segment that has
+     * grown as long as the one before it is merged into it, so segments
+     * halve in size or faster toward the tail: there are O( log n ) of
+     * them to search and each line is merged O( log n ) times. Reads that
+     * need one sorted list merge the segments and keep the result.
+     */
+    private static final class Postings
+    {
+        synchronized void add( int line )
+        {
+            if( pendingCount == 0 && line >= tail.last( ) )
+                tail.add( line );
+            else
+            {
+                if( pendingCount == pending.length )
+                    pending = Arrays.copyOf( pending, Math.max( 4, 2 * pendingCount ) );
+                pending[ pendingCount++ ] = line;
+                if( pendingCount >= MAX_PENDING )
+                    flushPending( );
+            }
+        }
+
+        synchronized boolean contains( int line )
+        {
+            for( int i = 0; i < pendingCount; i++ )
+                if( pending[ i ] == line )
+                    return true;
+            for( PostingList s : segments )
+                if( s.contains( line ) )
+                    return true;
+            return false;
+        }
+
+        synchronized PostingList copy( )
+        {
+            flushPending( );
+            if( segments.size( ) > 1 )
+                mergeSegments( 0 );
+            PostingList copy = new PostingList( );
+            copy.addAll( tail );
+            return copy;
+        }
+
+        /**
+         * Sort the parked lines and append them as a batch.
+         */
+        private void flushPending( )
+        {
+            if( pendingCount == 0 )
+                return;
+            Arrays.sort( pending, 0, pendingCount );
+            if( pending[ 0 ] < tail.last( ) )
+            {
+                tail = new PostingList( );
+                segments.add( tail );
+            }
+            for( int i = 0; i < pendingCount; i++ )
+                tail.add( pending[ i ] );
+            pendingCount = 0;
+
+            int n;
+            while( ( n = segments.size( ) ) > 1 && segments.get( n - 2 ).size( ) <= tail.size( ) )
+                mergeSegments( n - 2 );
+        }
+
+        /**
+         * Replace the segments from one on by one sorted list.
+         * @param from the first segment to merge.
+         */
+        private void mergeSegments( int from )
+        {
+            List<PostingList> merged = segments.subList( from, segments.size( ) );
+            int total = 0;
+            for( PostingList s : merged )
+                total += s.size( );
+            int [ ] all = new int[ total ];
+            int n = 0;
+            for( PostingList s : merged )
+            {
+                int [ ] lines = s.toArray( );
+                System.arraycopy( lines, 0, all, n, lines.length );
+                n += lines.length;
+            }
+            Arrays.sort( all );
+
+            tail = new PostingList( );
+            for( int line : all )
+                tail.add( line );
+            merged.clear( );
+            segments.add( tail );
+        }
+
+        /**
+         * Get the number of sorted segments.
+         */
+        synchronized int segmentCount( )
+        {
+            return segments.size( );
+        }
+
+        private PostingList tail = new PostingList( );     // The segment adds go to
+        private final List<PostingList> segments = new ArrayList<>( List.of( tail ) );
+        private int [ ] pending = NO_LINES;     // Lines that came out of order
+        private int pendingCount;
+    }
+
+    private static final int MAX_PENDING = 256;     // Parked lines before a merge
+    private static final int [ ] NO_LINES = { };
+
+    private final ConcurrentSkipListMap<CharSequence, Postings> words =
+            new ConcurrentSkipListMap<>( WordTokenizer::compare );
+    private final ReentrantReadWriteLock [ ] stripes = newStripes( );   // Adds' locks, by thread
+
+    /**
+     * Make a power of two stripes, about two per processor.
+     */
+    private static ReentrantReadWriteLock [ ] newStripes( )
+    {
+        int n = Integer.highestOneBit( Math.max( 1, 2 * Runtime.getRuntime( ).availableProcessors( ) - 1 ) ) << 1;
+        ReentrantReadWriteLock [ ] stripes = new ReentrantReadWriteLock[ n ];
+        for( int i = 0; i < n; i++ )
+            stripes[ i ] = new ReentrantReadWriteLock( );
+        return stripes;
+    }
+}
@@ -0,0 +1,422 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Probing hash table that many threads can read while it is being changed.
+ * Words are split by hash among SEGMENTS segments, each a probing table
+ * of its own with its own slots and its own writer lock, so writers whose
+ * words fall in different segments go at once. (Striping the locks of
+ * one table would not work: quadratic probe sequences wander over the
+ * whole table.)
+ *
+ * Lookups take no lock: they probe whatever table their segment holds,
+ * reading each slot with volatile semantics. Entries are never changed
+ * in place; a remove swaps in a deleted copy, and a segment's rehash
+ * builds the bigger table off to the side and publishes it in one write,
+ * so a reader always sees a table that holds every word added before it
+ * started. replaceAll builds a whole new set of segments without any
+ * lock and swaps it in atomically; readers are never blocked.
+ *
+ * Behind a SpellCheckHashTable, its Bloom filter may stay on: the filter
+ * is safe for concurrent adds too.
+ */
+public class ConcurrentWordTable implements WordTable
+{
+    /**
+     * Construct the hash table.
+     */
+    public ConcurrentWordTable( )
+    {
+        this( DEFAULT_TABLE_SIZE );
+    }
+
+    /**
+     * Construct the hash table.
+     * @param size the approximate initial size.
+     */
+    public ConcurrentWordTable( int size )
+    {
+        segments = newSegments( size );
+    }
+
+    /**
+     * Insert into the hash table. If the item is
+     * already present, do nothing.
+     * @param x the item to insert.
+     * @return true if the item was added.
+     */
+    public boolean insert( String x )
+    {
+        Segment s = lockSegment( x );
+        try
+        {
+            AtomicReferenceArray<Entry> a = s.array;
+            int currentPos = findPos( a, x );
+            Entry old = a.get( currentPos );
+            if( old != null && old.isActive )
+                return false;
+
+            a.set( currentPos, new Entry( x, true, 0 ) );
+            s.theSize++;
+            if( old == null && ++s.occupied > a.length( ) / 2 )
+                s.rehash( );
+            return true;
+        }
+        finally
+        {
+            s.unlock( );
+        }
+    }
+
+    /**
+     * Remove from the hash table.
+     * @param x the item to remove.
+     * @return true if item removed.
+     */
+    public boolean remove( String x )
+    {
+        Segment s = lockSegment( x );
+        try
+        {
+            AtomicReferenceArray<Entry> a = s.array;
+            int currentPos = findPos( a, x );
+            Entry old = a.get( currentPos );
+            if( old == null || !old.isActive )
+                return false;
+
+            a.set( currentPos, new Entry( old.element, false, 0 ) );
+            s.theSize--;
+            return true;
+        }
+        finally
+        {
+            s.unlock( );
+        }
+    }
+
+    /**
+     * Find an item in the hash table. Never blocks.
+     * @param x the item to search for.
+     * @return true if the item is present.
+     */
+    public boolean contains( CharSequence x )
+    {
+        return isActive( find( segments[ segmentOf( x ) ].array, x ) );
+    }
+
+    /**
+     * Find a word and its frequency. Never blocks.
+     * @param x the item to search for.
+     * @return its frequency, 0 if none was set, or -1 if it is absent.
+     */
+    public int lookup( CharSequence x )
+    {
+        Entry e = find( segments[ segmentOf( x ) ].array, x );
+        return isActive( e ) ? e.frequency : -1;
+    }
+
+    /**
+     * Store a word's frequency in its entry, by swapping in a copy.
+     * @param x a word in the table.
+     * @param frequency its count.
+     * @return false if the word is absent.
+     */
+    public boolean setFrequency( String x, int frequency )
+    {
+        Segment s = lockSegment( x );
+        try
+        {
+            AtomicReferenceArray<Entry> a = s.array;
+            int currentPos = findPos( a, x );
+            Entry old = a.get( currentPos );
+            if( !isActive( old ) )
+                return false;
+
+            a.set( currentPos, new Entry( old.element, true, frequency ) );
+            return true;
+        }
+        finally
+        {
+            s.unlock( );
+        }
+    }
+
+    /**
+     * Swap in a whole new dictionary. The new segments are built without
+     * holding any lock; readers see either all of the old words or all
+     * of the new ones.
+     * @param words the words of the new dictionary.
+     */
+    public void replaceAll( Iterable<String> words )
+    {
+        ConcurrentWordTable fresh = new ConcurrentWordTable( );
+        for( String x : words )
+            fresh.insert( x );
+        swapSegments( fresh.segments );
+    }
+
+    /**
+     * Get current size. While writers are running this is only a snapshot.
+     * @return the size.
+     */
+    public int size( )
+    {
+        int size = 0;
+        for( Segment s : segments )
+            size += s.theSize;
+        return size;
+    }
+
+    /**
+     * Get the number of slots in all the segments.
+     * @return the size.
+     */
+    public int capacity( )
+    {
+        int capacity = 0;
+        for( Segment s : segments )
+            capacity += s.array.length( );
+        return capacity;
+    }
+
+    /**
+     * Make the hash table logically empty.
+     */
+    public void makeEmpty( )
+    {
+        swapSegments( newSegments( DEFAULT_TABLE_SIZE ) );
+    }
+
+    /**
+     * Iterate over the words of the table as it is when this is called.
+     * @return an iterator over a snapshot of the table.
+     */
+    public Iterator<String> iterator( )
+    {
+        final List<AtomicReferenceArray<Entry>> tables = new ArrayList<>( SEGMENTS );
+        for( Segment s : segments )
+            tables.add( s.array );
+        return new Iterator<String>( )
+        {
+            private int table;
+            private int next = -1;
+            {
+                advance( );
+            }
+
+            private void advance( )
+            {
+                for( next++; table < tables.size( ); table++, next = 0 )
+                {
+                    AtomicReferenceArray<Entry> a = tables.get( table );
+                    while( next < a.length( ) && !isActive( a.get( next ) ) )
+                        next++;
+                    if( next < a.length( ) )
+                        return;
+                }
+            }
+
+            public boolean hasNext( )
+            {
+                return table < tables.size( );
+            }
+
+            public String next( )
+            {
+                if( !hasNext( ) )
+                    throw new NoSuchElementException( );
+                Entry e = tables.get( table ).get( next );
+                advance( );
+                return e.element;
+            }
+        };
+    }
+
+    /**
+     * Lock the segment x belongs to in the current set of segments,
+     * trying again if replaceAll swapped the set meanwhile.
+     * @return the locked segment.
+     */
+    private Segment lockSegment( CharSequence x )
+    {
+        int i = segmentOf( x );
+        while( true )
+        {
+            Segment [ ] current = segments;
+            Segment s = current[ i ];
+            s.lock( );
+            if( segments == current )
+                return s;
+            s.unlock( );
+        }
+    }
+
+    /**
+     * Publish a new set of segments once no writer is in the old one.
+     */
+    private void swapSegments( Segment [ ] fresh )
+    {
+        Segment [ ] old = segments;
+        for( Segment s : old )
+            s.lock( );
+        try
+        {
+            segments = fresh;
+        }
+        finally
+        {
+            for( Segment s : old )
+                s.unlock( );
+        }
+    }
+
+    private static Segment [ ] newSegments( int size )
+    {
+        Segment [ ] segments = new Segment[ SEGMENTS ];
+        int each = SpellCheckHashTable.nextPrime( Math.max( MIN_SEGMENT_SIZE, size / SEGMENTS ) );
+        for( int i = 0; i < SEGMENTS; i++ )
+            segments[ i ] = new Segment( each );
+        return segments;
+    }
+
+    /**
+     * Pick the segment of a word, from a hash unrelated to the one its
+     * segment probes with.
+     */
+    private static int segmentOf( CharSequence x )
+    {
+        int h = 0;
+        for( int i = 0; i < x.length( ); i++ )
+            h = 31 * h + x.charAt( i );
+        return ( h * 0x9e3779b9 ) >>> ( 32 - SEGMENT_BITS );
+    }
+
+    /**
+     * One probing table and the lock its writers take.
+     */
+    private static final class Segment extends ReentrantLock
+    {
+        Segment( int size )
+        {
+            array = new AtomicReferenceArray<>( size );
+        }
+
+        /**
+         * Expand the table; called with the lock held.
+         */
+        void rehash( )
+        {
+            AtomicReferenceArray<Entry> oldArray = array;
+            AtomicReferenceArray<Entry> newArray =
+                    new AtomicReferenceArray<>( SpellCheckHashTable.nextPrime( 2 * oldArray.length( ) ) );
+
+            int live = 0;
+            for( int i = 0; i < oldArray.length( ); i++ )
+            {
+                Entry e = oldArray.get( i );
+                if( isActive( e ) )
+                {
+                    newArray.set( findPos( newArray, e.element ), e );
+                    live++;
+                }
+            }
+            occupied = live;
+            array = newArray;    // Publish
+        }
+
+        volatile AtomicReferenceArray<Entry> array;     // The current table
+        volatile int theSize;                           // Active entries
+        int occupied;                                   // Occupied cells; guarded by the lock
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Method that performs quadratic probing resolution.
+     * A reader can catch a table one entry past half full, between the
+     * insert that fills it and the rehash that replaces it, and then the
+     * probe sequence may find no empty cell. Its first (length + 1) / 2
+     * positions are distinct and are where any word inserted into this
+     * table was placed, so the search stops there.
+     * @param a the table to probe.
+     * @param x the item to search for.
+     * @return the position where the search terminates, or -1 if it
+     * ran out of probes, in which case x is not in a.
+     */
+    private static int findPos( AtomicReferenceArray<Entry> a, CharSequence x )
+    {
+        int offset = 1;
+        int currentPos = SpellCheckHashTable.hash( x, a.length( ) );
+        int probesLeft = ( a.length( ) + 1 ) / 2;
+
+        Entry e;
+        while( ( e = a.get( currentPos ) ) != null && !e.element.contentEquals( x ) )
+        {
+            if( --probesLeft == 0 )
+                return -1;
+            currentPos += offset;  // Compute ith probe
+            offset += 2;
+            if( currentPos >= a.length( ) )
+                currentPos -= a.length( );
+        }
+
+        return currentPos;
+    }
+
+    /**
+     * Probe for a word as findPos does, for readers. The entry is read
+     * once: reading the cell again could find a word a writer has put
+     * in the empty cell the probe stopped at.
+     * @param a the table to probe.
+     * @param x the item to search for.
+     * @return the entry holding x, or null if there is none.
+     */
+    private static Entry find( AtomicReferenceArray<Entry> a, CharSequence x )
+    {
+        int offset = 1;
+        int currentPos = SpellCheckHashTable.hash( x, a.length( ) );
+        for( int probesLeft = ( a.length( ) + 1 ) / 2; probesLeft > 0; probesLeft-- )
+        {
+            Entry e = a.get( currentPos );
+            if( e == null )
+                return null;
+            if( e.element.contentEquals( x ) )
+                return e;
+            currentPos += offset;  // Compute ith probe
+            offset += 2;
+            if( currentPos >= a.length( ) )
+                currentPos -= a.length( );
+        }
+        return null;
+    }
+
+    private static boolean isActive( Entry e )
+    {
+        return e != null && e.isActive;
+    }
+
+    private static final class Entry
+    {
+        Entry( String e, boolean i, int f )
+        {
+            element   = e;
+            isActive  = i;
+            frequency = f;
+        }
+
+        final String  element;    // the element
+        final boolean isActive;   // false if marked deleted
+        final int     frequency;  // how common the word is
+    }
+
+    private static final int DEFAULT_TABLE_SIZE = 17;
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int MIN_SEGMENT_SIZE = 7;
+
+    private volatile Segment [ ] segments;      // Replaced whole by replaceAll and makeEmpty
+}
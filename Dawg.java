@@ -0,0 +1,474 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only dictionary stored as a directed acyclic word graph: the
+ * minimal automaton accepting exactly the dictionary's words, which shares
+ * common suffixes as well as prefixes. It is built from sorted words by
+ * Daciuk's incremental algorithm and then frozen into flat arrays, one
+ * range of edges per state.
+ *
+ * As a suggestion engine it walks the graph while running the dynamic
+ * programming rows of a Levenshtein automaton for the misspelling, one row
+ * per character of the path. Once every entry of a row exceeds the maximum
+ * distance, no word below that state can match, so the whole subgraph is
+ * skipped; no candidate strings are built. Insertions, deletions,
+ * substitutions and adjacent swaps each count as one edit.
+ */
+public class Dawg implements WordTable, SuggestionEngine
+{
+    /**
+     * Build the graph from any words, in any order, with repeats.
+     * @param words the dictionary.
+     * @return the graph.
+     */
+    public static Dawg build( Iterable<String> words )
+    {
+        List<String> sorted = new ArrayList<>( );
+        for( String w : words )
+            sorted.add( w );
+        sorted.sort( null );
+        return new Dawg( sorted );
+    }
+
+    /**
+     * Build the graph from sorted words.
+     * @param sorted the words in String.compareTo order; repeats are skipped.
+     */
+    private Dawg( List<String> sorted )
+    {
+        Map<Node, Node> register = new HashMap<>( );
+        List<Node> path = new ArrayList<>( );
+        Node root = new Node( );
+        path.add( root );
+        String previous = null;
+        int words = 0;
+        int longest = 0;
+
+        for( String word : sorted )
+        {
+            if( word.equals( previous ) )
+                continue;
+            int common = previous == null ? 0 : commonPrefix( previous, word );
+            minimize( path, common, register );
+            for( int i = common; i < word.length( ); i++ )
+            {
+                Node next = new Node( );
+                path.get( i ).addEdge( word.charAt( i ), next );
+                path.add( next );
+            }
+            path.get( word.length( ) ).isFinal = true;
+            previous = word;
+            words++;
+            longest = Math.max( longest, word.length( ) );
+        }
+        minimize( path, 0, register );
+
+        wordCount = words;
+        maxLength = longest;
+
+        // Freeze: number the states, then lay their edges out back to back
+        IdentityHashMap<Node, Integer> ids = new IdentityHashMap<>( );
+        List<Node> order = new ArrayList<>( );
+        ids.put( root, 0 );
+        order.add( root );
+        int edgeCount = 0;
+        for( int i = 0; i < order.size( ); i++ )
+        {
+            Node n = order.get( i );
+            edgeCount += n.count;
+            for( int e = 0; e < n.count; e++ )
+                if( !ids.containsKey( n.targets[ e ] ) )
+                {
+                    ids.put( n.targets[ e ], order.size( ) );
+                    order.add( n.targets[ e ] );
+                }
+        }
+
+        firstEdge = new int[ order.size( ) + 1 ];
+        finals = new boolean[ order.size( ) ];
+        labels = new char[ edgeCount ];
+        targets = new int[ edgeCount ];
+        int edge = 0;
+        for( int s = 0; s < order.size( ); s++ )
+        {
+            Node n = order.get( s );
+            firstEdge[ s ] = edge;
+            finals[ s ] = n.isFinal;
+            for( int e = 0; e < n.count; e++ )
+            {
+                labels[ edge ] = n.labels[ e ];
+                targets[ edge ] = ids.get( n.targets[ e ] );
+                edge++;
+            }
+        }
+        firstEdge[ order.size( ) ] = edge;
+    }
+
+    /**
+     * Find a word.
+     * @param x the word to search for.
+     * @return true if the word is present.
+     */
+    public boolean contains( CharSequence x )
+    {
+        int state = 0;
+        for( int i = 0; i < x.length( ) && state >= 0; i++ )
+            state = step( state, x.charAt( i ) );
+        return state >= 0 && finals[ state ];
+    }
+
+    /**
+     * Set the largest edit distance suggest looks for.
+     * @param maxDistance the distance; 2 unless set.
+     */
+    public void setMaxDistance( int maxDistance )
+    {
+        if( maxDistance < 1 )
+            throw new IllegalArgumentException( "Distance must be at least 1" );
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Find the words within the maximum edit distance of a word.
+     * @param word the misspelled word.
+     * @return the corrections, nearest first, then in alphabetical order.
+     */
+    public List<String> suggest( String word )
+    {
+        Search search = newSearch( word );
+        walk( search, 0, 0 );
+
+        List<String> result = new ArrayList<>( );
+        for( int d = 1; d <= maxDistance; d++ )
+        {
+            List<String> atDistance = search.found.get( d );
+            if( atDistance != null )
+                result.addAll( atDistance );   // Already in alphabetical order
+        }
+        return result;
+    }
+
+    /**
+     * Hand the corrections to a sink in the order of suggest( String ),
+     * deepening one distance at a time: the walk for distance d prunes
+     * at d, so if the sink wants nothing past distance 1 the much wider
+     * walk for distance 2 never runs.
+     * @param word the misspelled word.
+     * @param sink takes each correction with its distance.
+     */
+    public void suggest( String word, Corrections sink )
+    {
+        Search search = newSearch( word );
+        int bound = Integer.MAX_VALUE;
+        for( int d = 1; d <= maxDistance && d <= bound; d++ )
+        {
+            search.limit = d;
+            search.found.clear( );
+            walk( search, 0, 0 );
+            List<String> atDistance = search.found.get( d );
+            if( atDistance == null )
+                continue;
+            for( String w : atDistance )
+            {
+                if( d > bound )
+                    return;
+                bound = sink.accept( w, d );
+            }
+        }
+    }
+
+    /**
+     * Start a search out to maxDistance, with the first automaton row set.
+     */
+    private Search newSearch( String word )
+    {
+        int m = word.length( );
+        Search search = new Search( word, Math.min( maxLength, m + maxDistance ) + 1, maxDistance );
+        for( int j = 0; j <= m; j++ )
+            search.rows[ 0 ][ j ] = j;
+        return search;
+    }
+
+    /**
+     * Follow every edge out of a state, extending the automaton by one row.
+     * @param s the search in progress.
+     * @param state the state reached.
+     * @param depth the number of characters on the path to it.
+     */
+    private void walk( Search s, int state, int depth )
+    {
+        int m = s.word.length( );
+        int [ ] previous = s.rows[ depth ];
+        if( finals[ state ] && previous[ m ] <= s.limit && previous[ m ] > 0 )
+            s.found.computeIfAbsent( previous[ m ], d -> new ArrayList<>( ) )
+                   .add( new String( s.path, 0, depth ) );
+        if( depth + 1 >= s.rows.length )
+            return;
+
+        int [ ] row = s.rows[ depth + 1 ];
+        int [ ] before = depth > 0 ? s.rows[ depth - 1 ] : null;
+        for( int e = firstEdge[ state ]; e < firstEdge[ state + 1 ]; e++ )
+        {
+            char c = labels[ e ];
+            s.path[ depth ] = c;
+            row[ 0 ] = depth + 1;
+            int rowMin = row[ 0 ];
+            for( int j = 1; j <= m; j++ )
+            {
+                int cost = s.word.charAt( j - 1 ) == c ? 0 : 1;
+                int d = Math.min( Math.min( previous[ j ] + 1, row[ j - 1 ] + 1 ), previous[ j - 1 ] + cost );
+                if( before != null && j > 1 && s.word.charAt( j - 1 ) == s.path[ depth - 1 ]
+                        && s.word.charAt( j - 2 ) == c )
+                    d = Math.min( d, before[ j - 2 ] + 1 );
+                row[ j ] = d;
+                rowMin = Math.min( rowMin, d );
+            }
+            if( rowMin <= s.limit )
+                walk( s, targets[ e ], depth + 1 );
+        }
+    }
+
+    /**
+     * Follow the edge labelled c.
+     * @return the next state, or -1 if there is no such edge.
+     */
+    private int step( int state, char c )
+    {
+        int low = firstEdge[ state ];
+        int high = firstEdge[ state + 1 ] - 1;
+        while( low <= high )
+        {
+            int mid = ( low + high ) >>> 1;
+            if( labels[ mid ] < c )
+                low = mid + 1;
+            else if( labels[ mid ] > c )
+                high = mid - 1;
+            else
+                return targets[ mid ];
+        }
+        return -1;
+    }
+
+    /**
+     * Get the number of words.
+     * @return the size.
+     */
+    public int size( )
+    {
+        return wordCount;
+    }
+
+    /**
+     * Get the number of states in the graph.
+     * @return the state count.
+     */
+    public int capacity( )
+    {
+        return finals.length;
+    }
+
+    /**
+     * Get the number of edges in the graph.
+     * @return the edge count.
+     */
+    public int edgeCount( )
+    {
+        return labels.length;
+    }
+
+    /**
+     * DAWGs are read-only.
+     * @throws UnsupportedOperationException always.
+     */
+    public boolean insert( String x )
+    {
+        throw new UnsupportedOperationException( "DAWGs are read-only" );
+    }
+
+    /**
+     * DAWGs are read-only.
+     * @throws UnsupportedOperationException always.
+     */
+    public boolean remove( String x )
+    {
+        throw new UnsupportedOperationException( "DAWGs are read-only" );
+    }
+
+    /**
+     * DAWGs are read-only.
+     * @throws UnsupportedOperationException always.
+     */
+    public void makeEmpty( )
+    {
+        throw new UnsupportedOperationException( "DAWGs are read-only" );
+    }
+
+    /**
+     * Iterate over the words in sorted order.
+     * @return an iterator that builds each word as a String.
+     */
+    public Iterator<String> iterator( )
+    {
+        return new Iterator<String>( )
+        {
+            // Depth-first walk: the state and next edge at each level
+            private final int [ ] states = new int[ maxLength + 1 ];
+            private final int [ ] edges = new int[ maxLength + 1 ];
+            private final char [ ] path = new char[ maxLength ];
+            private int depth = 0;
+            private String next = start( );
+
+            private String start( )
+            {
+                states[ 0 ] = 0;
+                edges[ 0 ] = firstEdge[ 0 ];
+                return finals[ 0 ] ? "" : advance( );
+            }
+
+            private String advance( )
+            {
+                while( depth >= 0 )
+                {
+                    int state = states[ depth ];
+                    if( edges[ depth ] == firstEdge[ state + 1 ] )
+                    {
+                        depth--;
+                        continue;
+                    }
+                    int e = edges[ depth ]++;
+                    path[ depth ] = labels[ e ];
+                    depth++;
+                    states[ depth ] = targets[ e ];
+                    edges[ depth ] = firstEdge[ targets[ e ] ];
+                    if( finals[ targets[ e ] ] )
+                        return new String( path, 0, depth );
+                }
+                return null;
+            }
+
+            public boolean hasNext( )
+            {
+                return next != null;
+            }
+
+            public String next( )
+            {
+                if( next == null )
+                    throw new NoSuchElementException( );
+                String x = next;
+                next = advance( );
+                return x;
+            }
+        };
+    }
+
+    /**
+     * Replace the states of the last word below depth common with
+     * equivalent registered states, registering any that are new.
+     */
+    private static void minimize( List<Node> path, int common, Map<Node, Node> register )
+    {
+        for( int i = path.size( ) - 1; i > common; i-- )
+        {
+            Node child = path.get( i );
+            Node parent = path.get( i - 1 );
+            Node existing = register.get( child );
+            if( existing != null )
+                parent.targets[ parent.count - 1 ] = existing;
+            else
+                register.put( child, child );
+            path.remove( i );
+        }
+    }
+
+    private static int commonPrefix( String a, String b )
+    {
+        int n = Math.min( a.length( ), b.length( ) );
+        int i = 0;
+        while( i < n && a.charAt( i ) == b.charAt( i ) )
+            i++;
+        return i;
+    }
+
+    /**
+     * A state while the graph is being built. Two states are equal when
+     * they are both final or both not and have the same edges to the
+     * same registered states.
+     */
+    private static class Node
+    {
+        void addEdge( char c, Node target )
+        {
+            if( count == labels.length )
+            {
+                labels = Arrays.copyOf( labels, Math.max( 2, 2 * count ) );
+                targets = Arrays.copyOf( targets, labels.length );
+            }
+            labels[ count ] = c;
+            targets[ count ] = target;
+            count++;
+        }
+
+        public boolean equals( Object o )
+        {
+            if( !( o instanceof Node ) )
+                return false;
+            Node n = (Node) o;
+            if( isFinal != n.isFinal || count != n.count )
+                return false;
+            for( int e = 0; e < count; e++ )
+                if( labels[ e ] != n.labels[ e ] || targets[ e ] != n.targets[ e ] )
+                    return false;
+            return true;
+        }
+
+        public int hashCode( )
+        {
+            int h = isFinal ? 1 : 0;
+            for( int e = 0; e < count; e++ )
+                h = 31 * ( 31 * h + labels[ e ] ) + System.identityHashCode( targets[ e ] );
+            return h;
+        }
+
+        char [ ] labels = new char[ 0 ];     // Edge labels, ascending
+        Node [ ] targets = new Node[ 0 ];    // Edge targets
+        int count;                           // Edges in use
+        boolean isFinal;                     // True if a word ends here
+    }
+
+    /**
+     * State of one suggestion search.
+     */
+    private static class Search
+    {
+        Search( String word, int depth, int limit )
+        {
+            this.word = word;
+            this.limit = limit;
+            rows = new int[ depth ][ word.length( ) + 1 ];
+            path = new char[ depth ];
+        }
+
+        final String word;                  // The misspelling
+        int limit;                          // Largest distance this walk finds
+        final int [ ] [ ] rows;             // Automaton row per path length
+        final char [ ] path;                // Characters of the current path
+        final Map<Integer, List<String>> found = new HashMap<>( );   // Distance -> words
+    }
+
+    private int maxDistance = 2;    // Largest distance suggested
+
+    private final int [ ] firstEdge;    // First edge of each state; one extra at the end
+    private final char [ ] labels;      // Edge labels, ascending within a state
+    private final int [ ] targets;      // Edge targets
+    private final boolean [ ] finals;   // True if a word ends at the state
+    private final int wordCount;        // Words accepted
+    private final int maxLength;        // Longest word
+}
@@ -0,0 +1,267 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Suggestion engine that precomputes deletions of every dictionary word.
+ * Two words are within edit distance d only if some string with up to d
+ * characters deleted is shared by both, so a lookup deletes characters
+ * from the misspelling and reads the words filed under each result,
+ * then checks each candidate's real distance. Insertions, deletions,
+ * substitutions and adjacent swaps all count as one edit.
+ *
+ * Only the first prefixLength characters of each word are indexed, which
+ * bounds the number of deletions per word; the distance check still
+ * compares whole words.
+ *
+ * The index is a snapshot: words inserted or removed afterwards are not seen.
+ */
+public class DeletionIndex implements SuggestionEngine
+{
+    /**
+     * Build the index with the default prefix length.
+     * @param words the dictionary.
+     * @param maxDistance the largest edit distance to suggest.
+     */
+    public DeletionIndex( Iterable<String> words, int maxDistance )
+    {
+        this( words, maxDistance, DEFAULT_PREFIX_LENGTH );
+    }
+
+    /**
+     * Build the index.
+     * @param words the dictionary.
+     * @param maxDistance the largest edit distance to suggest.
+     * @param prefixLength how many leading characters of each word to index.
+     */
+    public DeletionIndex( Iterable<String> words, int maxDistance, int prefixLength )
+    {
+        if( maxDistance < 1 || prefixLength <= maxDistance )
+            throw new IllegalArgumentException( "Need 0 < maxDistance < prefixLength" );
+        this.maxDistance = maxDistance;
+        this.prefixLength = prefixLength;
+
+        Set<String> deletes = new HashSet<>( );
+        for( String word : words )
+        {
+            deletes.clear( );
+            collectDeletes( prefix( word ), maxDistance, deletes );
+            for( String key : deletes )
+            {
+                List<String> filed = index.get( key );
+                if( filed == null )
+                {
+                    filed = new ArrayList<>( 1 );
+                    index.put( key, filed );
+                }
+                filed.add( word );
+            }
+        }
+        for( List<String> filed : index.values( ) )
+            ( (ArrayList<String>) filed ).trimToSize( );
+    }
+
+    /**
+     * Find the dictionary words within maxDistance edits of a word.
+     * @param word the misspelled word.
+     * @return the corrections, nearest first, then in alphabetical order.
+     */
+    public List<String> suggest( String word )
+    {
+        Set<String> deletes = new HashSet<>( );
+        collectDeletes( prefix( word ), maxDistance, deletes );
+
+        List<Suggestion> found = new ArrayList<>( );
+        measure( word, deletes, new HashSet<>( ), newRows( word ), found );
+
+        Collections.sort( found );
+        List<String> result = new ArrayList<>( found.size( ) );
+        for( Suggestion s : found )
+            result.add( s.word );
+        return result;
+    }
+
+    /**
+     * Hand the corrections to a sink one distance at a time, in the order
+     * of suggest( String ). Each level deletes up to d characters from the
+     * misspelling and measures only the candidates no earlier level did,
+     * so if the sink wants nothing past distance 1 the far larger set of
+     * double deletions is never built.
+     * @param word the misspelled word.
+     * @param sink takes each correction with its distance.
+     */
+    public void suggest( String word, Corrections sink )
+    {
+        int [ ] [ ] rows = newRows( word );
+        Set<String> seen = new HashSet<>( );
+        List<Suggestion> found = new ArrayList<>( );
+        int bound = Integer.MAX_VALUE;
+        for( int d = 1; d <= maxDistance && d <= bound; d++ )
+        {
+            Set<String> deletes = new HashSet<>( );
+            collectDeletes( prefix( word ), d, deletes );
+            measure( word, deletes, seen, rows, found );
+
+            // Hand over everything now known to be this near; keep the rest
+            Collections.sort( found );
+            int handed = 0;
+            while( handed < found.size( ) && found.get( handed ).distance <= d )
+            {
+                Suggestion s = found.get( handed++ );
+                if( s.distance > bound )
+                    return;
+                bound = sink.accept( s.word, s.distance );
+            }
+            found.subList( 0, handed ).clear( );
+        }
+    }
+
+    /**
+     * Measure the words filed under some deletions that have not been
+     * measured yet, keeping those within maxDistance.
+     * @param word the misspelled word.
+     * @param deletes the deletion keys to read.
+     * @param seen the candidates already measured; added to.
+     * @param rows scratch rows for editDistance.
+     * @param found where to add the corrections.
+     */
+    private void measure( String word, Set<String> deletes, Set<String> seen,
+                          int [ ] [ ] rows, List<Suggestion> found )
+    {
+        for( String key : deletes )
+        {
+            List<String> filed = index.get( key );
+            if( filed == null )
+                continue;
+            for( String candidate : filed )
+            {
+                if( candidate.equals( word ) || !seen.add( candidate ) )
+                    continue;
+                if( Math.abs( candidate.length( ) - word.length( ) ) > maxDistance )
+                    continue;
+                int distance = editDistance( word, candidate, maxDistance, rows );
+                if( distance <= maxDistance )
+                    found.add( new Suggestion( candidate, distance ) );
+            }
+        }
+    }
+
+    /**
+     * Scratch rows long enough to measure word against any candidate
+     * within maxDistance of its length.
+     */
+    private int [ ] [ ] newRows( String word )
+    {
+        return new int[ 3 ][ word.length( ) + maxDistance + 1 ];
+    }
+
+    /**
+     * Get the number of distinct deletion keys.
+     * @return the number of keys in the index.
+     */
+    public int keyCount( )
+    {
+        return index.size( );
+    }
+
+    /**
+     * Optimal string alignment distance: the Levenshtein distance with
+     * adjacent transpositions counted as one edit.
+     * @param a one word.
+     * @param b the other word.
+     * @param max stop early once the distance must exceed this.
+     * @return the distance, or max + 1 if it is larger than max.
+     */
+    static int editDistance( CharSequence a, CharSequence b, int max )
+    {
+        return editDistance( a, b, max, new int[ 3 ][ b.length( ) + 1 ] );
+    }
+
+    /**
+     * Optimal string alignment distance, reusing the caller's rows.
+     * @param rows three rows of at least b.length( ) + 1 entries each.
+     */
+    static int editDistance( CharSequence a, CharSequence b, int max, int [ ] [ ] rows )
+    {
+        int n = a.length( );
+        int m = b.length( );
+        if( Math.abs( n - m ) > max )
+            return max + 1;
+
+        int [ ] before = rows[ 0 ];
+        int [ ] previous = rows[ 1 ];
+        int [ ] current = rows[ 2 ];
+        for( int j = 0; j <= m; j++ )
+            previous[ j ] = j;
+
+        for( int i = 1; i <= n; i++ )
+        {
+            current[ 0 ] = i;
+            int rowMin = i;
+            for( int j = 1; j <= m; j++ )
+            {
+                int cost = a.charAt( i - 1 ) == b.charAt( j - 1 ) ? 0 : 1;
+                int d = Math.min( Math.min( previous[ j ] + 1, current[ j - 1 ] + 1 ),
+                                  previous[ j - 1 ] + cost );
+                if( i > 1 && j > 1 && a.charAt( i - 1 ) == b.charAt( j - 2 )
+                        && a.charAt( i - 2 ) == b.charAt( j - 1 ) )
+                    d = Math.min( d, before[ j - 2 ] + 1 );
+                current[ j ] = d;
+                rowMin = Math.min( rowMin, d );
+            }
+            if( rowMin > max )
+                return max + 1;
+
+            int [ ] t = before;
+            before = previous;
+            previous = current;
+            current = t;
+        }
+        return Math.min( previous[ m ], max + 1 );
+    }
+
+    private String prefix( String word )
+    {
+        return word.length( ) <= prefixLength ? word : word.substring( 0, prefixLength );
+    }
+
+    /**
+     * Add s and every string made by deleting up to distance characters from it.
+     */
+    private static void collectDeletes( String s, int distance, Set<String> deletes )
+    {
+        if( !deletes.add( s ) || distance == 0 )
+            return;
+        for( int i = 0; i < s.length( ); i++ )
+            collectDeletes( s.substring( 0, i ) + s.substring( i + 1 ), distance - 1, deletes );
+    }
+
+    private static class Suggestion implements Comparable<Suggestion>
+    {
+        Suggestion( String w, int d )
+        {
+            word = w;
+            distance = d;
+        }
+
+        public int compareTo( Suggestion other )
+        {
+            if( distance != other.distance )
+                return Integer.compare( distance, other.distance );
+            return word.compareTo( other.word );
+        }
+
+        String word;     // The dictionary word
+        int distance;    // Its edit distance from the misspelling
+    }
+
+    private static final int DEFAULT_PREFIX_LENGTH = 7;
+
+    private final Map<String, List<String>> index = new HashMap<>( );  // Deletion -> words
+    private final int maxDistance;      // Largest edit distance suggested
+    private final int prefixLength;     // Leading characters indexed per word
+}
@@ -0,0 +1,303 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Builds a concordance file for texts whose index does not fit in memory.
+ * Words go into an ordinary TwoParamObj while an estimate of its heap use
+ * stays under a budget. When the budget is reached the tree is written
+ * out as a sorted run, a ConcordanceFile of its own, and emptied. close
+ * merges the runs into the output file, up to fanIn at once: the runs
+ * cover consecutive stretches of lines, so a word's lists are simply
+ * joined in run order. With more runs than that, each pass merges groups
+ * of fanIn neighbouring runs into one, so no more than fanIn runs are
+ * ever open. Only one word's lines are in memory during a merge.
+ *
+ * The estimate adds up what each insert grows the tree by: the node,
+ * String, posting list object and arrays of a new word, and the array
+ * growth of a known word's list, at 64-bit JVM sizes with compressed
+ * references. It is meant to keep the heap use predictable, not exact.
+ *
+ * Lines are split as in TwoParamObj.main, at \r\n or at any one of \n,
+ * \r, U+0085, U+2028 and U+2029.
+ */
+public class ExternalConcordanceBuilder implements Closeable
+{
+    /**
+     * Start building.
+     * @param output the concordance file to create or replace.
+     * @param memoryBudget the most bytes the in-memory tree should take.
+     * @throws IOException if the directory for runs cannot be created.
+     */
+    public ExternalConcordanceBuilder( Path output, long memoryBudget ) throws IOException
+    {
+        this( output, memoryBudget, DEFAULT_FAN_IN );
+    }
+
+    /**
+     * Start building.
+     * @param output the concordance file to create or replace.
+     * @param memoryBudget the most bytes the in-memory tree should take.
+     * @param fanIn the most runs to merge at once, at least 2.
+     * @throws IOException if the directory for runs cannot be created.
+     */
+    public ExternalConcordanceBuilder( Path output, long memoryBudget, int fanIn ) throws IOException
+    {
+        if( memoryBudget < MIN_BUDGET )
+            throw new IllegalArgumentException( "Memory budget too small: " + memoryBudget );
+        if( fanIn < 2 )
+            throw new IllegalArgumentException( "Need to merge at least 2 runs at once" );
+        this.output = output;
+        this.memoryBudget = memoryBudget;
+        this.fanIn = fanIn;
+        Path parent = output.toAbsolutePath( ).getParent( );
+        runDirectory = Files.createTempDirectory( parent, "runs" );
+    }
+
+    /**
+     * Add an occurrence of a word.
+     * @param word the word; its characters are copied only if it is new to the current run.
+     * @param line its line, no less than the line of any earlier occurrence.
+     * @throws IOException if a run cannot be written.
+     */
+    public void add( CharSequence word, int line ) throws IOException
+    {
+        estimate += tree.insertWord( word, line );
+        if( estimate >= memoryBudget )
+            spill( );
+    }
+
+    /**
+     * Add every word of a text, lower-cased, numbering its lines from 1.
+     * @param text the text; it is read to the end but not closed.
+     * @throws IOException if the text cannot be read or a run cannot be written.
+     */
+    public void index( Reader text ) throws IOException
+    {
+        WordTokenizer words = new WordTokenizer( true );
+        char [ ] buf = new char[ 1 << 13 ];
+        int held = 0;           // Chars of buf in use; the first starts a line
+        int counter = 1;
+        boolean atEnd = false;
+        while( !atEnd )
+        {
+            int n = text.read( buf, held, buf.length - held );
+            if( n < 0 )
+                atEnd = true;
+            else
+                held += n;
+
+            CharBuffer chars = CharBuffer.wrap( buf, 0, held );
+            int lineStart = 0;
+            for( int i = 0; i < held; i++ )
+            {
+                if( buf[ i ] == '\r' && i + 1 == held && !atEnd )
+                    break;      // Maybe the first half of \r\n
+                int breakLength = ParallelConcordance.lineBreak( chars, i );
+                if( breakLength == 0 )
+                    continue;
+                indexLine( words, chars, lineStart, i, counter++ );
+                i += breakLength - 1;
+                lineStart = i + 1;
+            }
+            if( atEnd )
+            {
+                indexLine( words, chars, lineStart, held, counter );   // Last line, with no break
+                break;
+            }
+
+            // Keep the unfinished line, making room if it fills the buffer
+            System.arraycopy( buf, lineStart, buf, 0, held - lineStart );
+            held -= lineStart;
+            if( held == buf.length )
+                buf = Arrays.copyOf( buf, 2 * buf.length );
+        }
+    }
+
+    private void indexLine( WordTokenizer words, CharSequence text, int start, int end, int line ) throws IOException
+    {
+        words.reset( text, start, end );
+        while( words.next( ) )
+            add( words, line );
+    }
+
+    /**
+     * Get the number of runs written so far.
+     * @return the run count.
+     */
+    public int runs( )
+    {
+        return runs.size( );
+    }
+
+    /**
+     * Write the output file and delete the runs.
+     * @throws IOException if a file cannot be written or read.
+     */
+    public void close( ) throws IOException
+    {
+        if( tree == null )
+            return;
+        try
+        {
+            if( runs.isEmpty( ) )
+                ConcordanceFile.write( tree, output );    // It all fit
+            else
+            {
+                if( !tree.isEmpty( ) )
+                    spill( );
+                merge( );
+            }
+        }
+        finally
+        {
+            tree = null;
+            try( Stream<Path> left = Files.list( runDirectory ) )
+            {
+                for( Path run : (Iterable<Path>) left::iterator )
+                    Files.deleteIfExists( run );
+            }
+            Files.deleteIfExists( runDirectory );
+        }
+    }
+
+    /**
+     * Write the tree out as a run and start a new one.
+     */
+    private void spill( ) throws IOException
+    {
+        Path run = newRun( );
+        ConcordanceFile.write( tree, run );
+        runs.add( run );
+        tree.makeEmpty( );
+        estimate = 0;
+    }
+
+    private Path newRun( )
+    {
+        return runDirectory.resolve( "run" + runsWritten++ );
+    }
+
+    /**
+     * Merge the runs into the output, fanIn at a time.
+     */
+    private void merge( ) throws IOException
+    {
+        List<Path> pass = new ArrayList<>( runs );
+        while( pass.size( ) > fanIn )
+        {
+            // Neighbouring runs hold neighbouring lines, so each group merges like the whole
+            List<Path> next = new ArrayList<>( );
+            for( int i = 0; i < pass.size( ); i += fanIn )
+            {
+                List<Path> group = pass.subList( i, Math.min( i + fanIn, pass.size( ) ) );
+                if( group.size( ) == 1 )
+                {
+                    next.add( group.get( 0 ) );
+                    continue;
+                }
+                Path run = newRun( );
+                merge( group, run );
+                for( Path done : group )
+                    Files.delete( done );
+                next.add( run );
+            }
+            pass = next;
+        }
+        merge( pass, output );
+    }
+
+    /**
+     * Merge runs into one file, joining each word's lists in run order.
+     * @param inputs the runs, in text order.
+     * @param out the file to write.
+     */
+    private static void merge( List<Path> inputs, Path out ) throws IOException
+    {
+        int k = inputs.size( );
+        List<ConcordanceFile.Cursor> cursors = new ArrayList<>( k );
+        for( Path run : inputs )
+            cursors.add( ConcordanceFile.open( run ).cursor( ) );
+        String [ ] heads = new String[ k ];
+
+        // Heap of runs by their next word; ties go to the earlier run
+        PriorityQueue<Integer> order = new PriorityQueue<>( k, ( a, b ) -> {
+            int c = heads[ a ].compareTo( heads[ b ] );
+            return c != 0 ? c : Integer.compare( a, b );
+        } );
+        for( int r = 0; r < k; r++ )
+            if( cursors.get( r ).next( ) )
+            {
+                heads[ r ] = cursors.get( r ).word( );
+                order.add( r );
+            }
+
+        try( ConcordanceFile.Writer writer = new ConcordanceFile.Writer( out ) )
+        {
+            String word = null;
+            PostingList lines = null;
+            while( !order.isEmpty( ) )
+            {
+                int r = order.poll( );
+                ConcordanceFile.Cursor c = cursors.get( r );
+                if( heads[ r ].equals( word ) )
+                    lines.addAll( c.lines( ) );
+                else
+                {
+                    if( word != null )
+                        writer.add( word, lines );
+                    word = heads[ r ];
+                    lines = c.lines( );
+                }
+                if( c.next( ) )
+                {
+                    heads[ r ] = c.word( );
+                    order.add( r );
+                }
+            }
+            if( word != null )
+                writer.add( word, lines );
+            writer.finish( );
+        }
+    }
+
+    /**
+     * Read a byte count such as 512m: a number with an optional k, m or g.
+     * @param size the text.
+     * @return the number of bytes.
+     */
+    public static long parseSize( String size )
+    {
+        String s = size.trim( ).toLowerCase( );
+        long unit = 1;
+        if( s.endsWith( "k" ) )
+            unit = 1L << 10;
+        else if( s.endsWith( "m" ) )
+            unit = 1L << 20;
+        else if( s.endsWith( "g" ) )
+            unit = 1L << 30;
+        if( unit != 1 )
+            s = s.substring( 0, s.length( ) - 1 );
+        return Long.parseLong( s ) * unit;
+    }
+
+    private static final long MIN_BUDGET = 1 << 10;   // A few words
+    private static final int DEFAULT_FAN_IN = 64;     // Runs open at once while merging
+
+    private final Path output;                        // The final concordance file
+    private final long memoryBudget;                  // Bytes the tree may take
+    private final int fanIn;                          // Most runs merged at once
+    private final Path runDirectory;                  // Where runs are written
+    private final List<Path> runs = new ArrayList<>( );   // Runs spilled, in text order
+    private int runsWritten;                          // Run files made, for their names
+    private TwoParamObj<String> tree = new TwoParamObj<>( );  // The current run; null once closed
+    private long estimate;                            // Bytes the tree is thought to take
+}
@@ -0,0 +1,213 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters describing how a SpellCheckHashTable behaves: how long probe
+ * sequences get, how often and how slowly it rehashes, how full it is and
+ * how many cells hold deleted words. The table only collects them after
+ * enableStats, so a table without statistics pays one null check.
+ *
+ * Every contains is counted once, as a hit, a miss, or a Bloom reject
+ * when the table's Bloom filter answered without a probe. Probe lengths
+ * count the cells one insert, remove or contains looks at, added up over
+ * both arrays while an incremental rehash is running, and not the
+ * reinserts done by rehash; only the built-in table reports them, as do
+ * tombstones. Counters are LongAdders so several checking threads can
+ * share one table.
+ */
+public class HashTableStats implements HashTableStatsMXBean
+{
+    HashTableStats( SpellCheckHashTable table )
+    {
+        this.table = table;
+        probeLengths = new LongAdder[ HISTOGRAM_BUCKETS ];
+        for( int i = 0; i < HISTOGRAM_BUCKETS; i++ )
+            probeLengths[ i ] = new LongAdder( );
+    }
+
+    void recordProbe( int cells )
+    {
+        probeLengths[ Math.min( cells, HISTOGRAM_BUCKETS ) - 1 ].increment( );
+    }
+
+    void recordContains( boolean found )
+    {
+        ( found ? containsHits : containsMisses ).increment( );
+    }
+
+    void recordBloomReject( )
+    {
+        containsBloomRejects.increment( );
+    }
+
+    synchronized void recordRehash( long nanos )
+    {
+        rehashCount++;
+        rehashTotalNanos += nanos;
+        rehashMaxNanos = Math.max( rehashMaxNanos, nanos );
+    }
+
+    /**
+     * Register these statistics with the platform MBean server.
+     * @param name the value of the name key in the object name.
+     * @return the object name used.
+     * @throws JMException if registration fails.
+     */
+    public ObjectName register( String name ) throws JMException
+    {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer( );
+        ObjectName objectName = new ObjectName( "SpellCheckHashTable:type=HashTableStats,name="
+                + ObjectName.quote( name ) );
+        server.registerMBean( this, objectName );
+        return objectName;
+    }
+
+    public long getContainsHits( )
+    {
+        return containsHits.sum( );
+    }
+
+    public long getContainsMisses( )
+    {
+        return containsMisses.sum( );
+    }
+
+    /**
+     * Get the number of contains calls the Bloom filter answered alone.
+     * They are misses too, but are not counted by getContainsMisses.
+     * @return the count.
+     */
+    public long getContainsBloomRejects( )
+    {
+        return containsBloomRejects.sum( );
+    }
+
+    /**
+     * Get the share of contains calls that found their word, out of all
+     * of them, Bloom rejects included.
+     * @return the rate, or 0 if there have been no lookups.
+     */
+    public double getContainsHitRate( )
+    {
+        long hits = containsHits.sum( );
+        long lookups = hits + containsMisses.sum( ) + containsBloomRejects.sum( );
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Get how many probe sequences looked at each number of cells.
+     * @return element i counts sequences of i + 1 cells; the last element
+     * also counts every longer sequence.
+     */
+    public long [ ] getProbeLengthHistogram( )
+    {
+        long [ ] counts = new long[ HISTOGRAM_BUCKETS ];
+        for( int i = 0; i < HISTOGRAM_BUCKETS; i++ )
+            counts[ i ] = probeLengths[ i ].sum( );
+        return counts;
+    }
+
+    /**
+     * Get the mean number of cells per probe sequence, counting the
+     * overflow bucket as its lower bound.
+     * @return the mean, or 0 if nothing has been probed.
+     */
+    public double getMeanProbeLength( )
+    {
+        long [ ] counts = getProbeLengthHistogram( );
+        long total = 0;
+        long cells = 0;
+        for( int i = 0; i < counts.length; i++ )
+        {
+            total += counts[ i ];
+            cells += counts[ i ] * ( i + 1 );
+        }
+        return total == 0 ? 0 : (double) cells / total;
+    }
+
+    public synchronized long getRehashCount( )
+    {
+        return rehashCount;
+    }
+
+    public synchronized long getRehashTotalNanos( )
+    {
+        return rehashTotalNanos;
+    }
+
+    public synchronized long getRehashMaxNanos( )
+    {
+        return rehashMaxNanos;
+    }
+
+    public int getSize( )
+    {
+        return table.size( );
+    }
+
+    public int getCapacity( )
+    {
+        return table.capacity( );
+    }
+
+    /**
+     * Get the share of cells in use, counting deleted words where known.
+     * @return the load factor.
+     */
+    public double getLoadFactor( )
+    {
+        int tombstones = table.tombstones( );
+        return (double) ( table.size( ) + Math.max( 0, tombstones ) ) / table.capacity( );
+    }
+
+    /**
+     * Get the share of used cells that hold deleted words.
+     * @return the ratio, or NaN if the storage engine does not track it.
+     */
+    public double getTombstoneRatio( )
+    {
+        int tombstones = table.tombstones( );
+        if( tombstones < 0 )
+            return Double.NaN;
+        int used = table.size( ) + tombstones;
+        return used == 0 ? 0 : (double) tombstones / used;
+    }
+
+    /**
+     * Zero every counter.
+     */
+    public synchronized void reset( )
+    {
+        containsHits.reset( );
+        containsMisses.reset( );
+        containsBloomRejects.reset( );
+        for( LongAdder bucket : probeLengths )
+            bucket.reset( );
+        rehashCount = 0;
+        rehashTotalNanos = 0;
+        rehashMaxNanos = 0;
+    }
+
+    public String toString( )
+    {
+        return String.format( "size %d, capacity %d, load %.3f, tombstones %.3f, "
+                + "contains %d hit / %d miss / %d bloom reject, mean probe %.2f cells, rehash %d times, %.3f ms total, %.3f ms max",
+                getSize( ), getCapacity( ), getLoadFactor( ), getTombstoneRatio( ),
+                getContainsHits( ), getContainsMisses( ), getContainsBloomRejects( ), getMeanProbeLength( ),
+                getRehashCount( ), getRehashTotalNanos( ) / 1e6, getRehashMaxNanos( ) / 1e6 );
+    }
+
+    private static final int HISTOGRAM_BUCKETS = 32;
+
+    private final SpellCheckHashTable table;       // The table described
+    private final LongAdder containsHits = new LongAdder( );
+    private final LongAdder containsMisses = new LongAdder( );
+    private final LongAdder containsBloomRejects = new LongAdder( );
+    private final LongAdder [ ] probeLengths;      // Sequences by cells looked at
+    private long rehashCount;
+    private long rehashTotalNanos;
+    private long rehashMaxNanos;
+}
@@ -0,0 +1,34 @@
+/**
+ * Management view of a SpellCheckHashTable's statistics.
+ * @see HashTableStats
+ */
+public interface HashTableStatsMXBean
+{
+    long getContainsHits( );
+
+    long getContainsMisses( );
+
+    long getContainsBloomRejects( );
+
+    double getContainsHitRate( );
+
+    long [ ] getProbeLengthHistogram( );
+
+    double getMeanProbeLength( );
+
+    long getRehashCount( );
+
+    long getRehashTotalNanos( );
+
+    long getRehashMaxNanos( );
+
+    int getSize( );
+
+    int getCapacity( );
+
+    double getLoadFactor( );
+
+    double getTombstoneRatio( );
+
+    void reset( );
+}
@@ -0,0 +1,68 @@
+import java.util.List;
+
+/**
+ * A word of a checked text that is not in the dictionary.
+ */
+public class Misspelling
+{
+    /**
+     * Construct the result.
+     * @param line the line the word is on, counting from 1.
+     * @param column where the word starts on the line, counting from 1.
+     * @param word the word, with punctuation removed.
+     * @param suggestions its possible corrections.
+     */
+    public Misspelling( int line, int column, String word, List<String> suggestions )
+    {
+        this.line = line;
+        this.column = column;
+        this.word = word;
+        this.suggestions = suggestions;
+    }
+
+    /**
+     * Get the line the word is on.
+     * @return the line number, counting from 1.
+     */
+    public int line( )
+    {
+        return line;
+    }
+
+    /**
+     * Get where the word starts on its line.
+     * @return the column, counting from 1.
+     */
+    public int column( )
+    {
+        return column;
+    }
+
+    /**
+     * Get the misspelled word.
+     * @return the word, with punctuation removed.
+     */
+    public String word( )
+    {
+        return word;
+    }
+
+    /**
+     * Get the possible corrections.
+     * @return the corrections; callers must not change the list.
+     */
+    public List<String> suggestions( )
+    {
+        return suggestions;
+    }
+
+    public String toString( )
+    {
+        return line + ":" + column + ": '" + word + "' " + suggestions;
+    }
+
+    private final int line;                    // Line of the word, from 1
+    private final int column;                  // Column of the word, from 1
+    private final String word;                 // The misspelled word
+    private final List<String> suggestions;    // Its possible corrections
+}
@@ -0,0 +1,69 @@
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+/**
+ * Writes misspellings in the checker's text format:
+ * <pre>
+ *   Misspelling in line: 3. Misspelled word: 'teh'. Possible corrections include: 
+ *   the
+ *   ...
+ * </pre>
+ * Everything goes through one Writer, which should be buffered.
+ * Write errors are thrown as UncheckedIOException, since accept cannot
+ * throw IOException.
+ */
+public class MisspellingWriter implements Consumer<Misspelling>, Flushable, Closeable
+{
+    /**
+     * Construct the writer.
+     * @param out where the text goes.
+     */
+    public MisspellingWriter( Writer out )
+    {
+        this.out = out;
+    }
+
+    /**
+     * Write one misspelling and its corrections.
+     * @param m the misspelling.
+     */
+    public void accept( Misspelling m )
+    {
+        try
+        {
+            out.write( "Misspelling in line: " );
+            out.write( Integer.toString( m.line( ) ) );
+            out.write( ". Misspelled word: '" );
+            out.write( m.word( ) );
+            out.write( "'. Possible corrections include: " );
+            out.write( LINE_SEPARATOR );
+            for( String suggestion : m.suggestions( ) )
+            {
+                out.write( suggestion );
+                out.write( LINE_SEPARATOR );
+            }
+        }
+        catch( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    public void flush( ) throws IOException
+    {
+        out.flush( );
+    }
+
+    public void close( ) throws IOException
+    {
+        out.close( );
+    }
+
+    private static final String LINE_SEPARATOR = System.lineSeparator( );
+
+    private final Writer out;   // Where the text goes
+}
@@ -0,0 +1,102 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Checks text on several threads at once.
+ * The input is read in chunks of whole lines, each chunk is checked on a
+ * fork-join pool, and the misspellings are handed on in chunk order, so the
+ * results match a single-threaded run. Only a bounded number of chunks is in
+ * flight, so memory use does not grow with the size of the input.
+ * The dictionary must not be changed while a check is running.
+ */
+public class ParallelChecker
+{
+    /**
+     * Check every line of a text.
+     * @param dictionary the dictionary to check against.
+     * @param in the text.
+     * @param action called with each misspelling, in text order, on the calling thread.
+     * @param threads the number of worker threads.
+     * @param chunkLines the number of lines checked per task.
+     * @throws IOException if the text cannot be read.
+     */
+    public static void check( SpellCheckHashTable dictionary, BufferedReader in, Consumer<? super Misspelling> action,
+                              int threads, int chunkLines ) throws IOException
+    {
+        if( threads < 1 || chunkLines < 1 )
+            throw new IllegalArgumentException( "Need at least one thread and one line per chunk" );
+
+        ForkJoinPool pool = new ForkJoinPool( threads );
+        ArrayDeque<Future<List<Misspelling>>> pending = new ArrayDeque<>( );
+        int maxPending = threads * CHUNKS_PER_THREAD;
+        try
+        {
+            int firstLine = 1;
+            List<String> lines = readChunk( in, chunkLines );
+            while( !lines.isEmpty( ) )
+            {
+                if( pending.size( ) >= maxPending )
+                    await( pending.poll( ) ).forEach( action );
+
+                final List<String> chunk = lines;
+                final int start = firstLine;
+                pending.add( pool.submit( ( ) -> checkChunk( dictionary, chunk, start ) ) );
+
+                firstLine += lines.size( );
+                lines = readChunk( in, chunkLines );
+            }
+            while( !pending.isEmpty( ) )
+                await( pending.poll( ) ).forEach( action );
+        }
+        finally
+        {
+            pool.shutdownNow( );
+        }
+    }
+
+    private static List<Misspelling> checkChunk( SpellCheckHashTable dictionary, List<String> lines, int firstLine )
+    {
+        List<Misspelling> found = new ArrayList<>( );
+        WordTokenizer words = new WordTokenizer( );
+        for( int i = 0; i < lines.size( ); i++ )
+            dictionary.checkLine( lines.get( i ), firstLine + i, words, found::add );
+        return found;
+    }
+
+    private static List<String> readChunk( BufferedReader in, int chunkLines ) throws IOException
+    {
+        List<String> lines = new ArrayList<>( );
+        String line;
+        while( lines.size( ) < chunkLines && ( line = in.readLine( ) ) != null )
+            lines.add( line );
+        return lines;
+    }
+
+    private static List<Misspelling> await( Future<List<Misspelling>> report ) throws IOException
+    {
+        try
+        {
+            return report.get( );
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread( ).interrupt( );
+            throw new IOException( "Interrupted while checking", e );
+        }
+        catch( ExecutionException e )
+        {
+            if( e.getCause( ) instanceof RuntimeException )
+                throw (RuntimeException) e.getCause( );
+            throw new IOException( e.getCause( ) );
+        }
+    }
+
+    private static final int CHUNKS_PER_THREAD = 4;   // Chunks in flight per worker
+}
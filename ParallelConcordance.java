@@ -0,0 +1,331 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Builds a concordance of a file on several threads at once.
+ * The file is memory-mapped and split into one run of whole lines per
+ * thread. A first pass counts the line breaks in each run, so every
+ * worker knows the number of its first line; a second pass indexes each
+ * run into a tree of its own. The trees are then merged in word order,
+ * joining the posting lists of a word in run order, and the result is
+ * bulk-loaded into one balanced tree. Words are lower-cased as in
+ * TwoParamObj.main.
+ *
+ * Lines end where Scanner.nextLine ends them, as in the sequential build:
+ * at \r\n or at any one of \n, \r, U+0085, U+2028 and U+2029. Runs and
+ * windows are cut just after a \n byte, so the charset must encode \n as
+ * the single byte 0x0a, as UTF-8 and the ISO-8859 family do; lines are
+ * counted on the decoded text, so the other breaks may take any bytes.
+ * Malformed input is replaced rather than reported.
+ */
+public class ParallelConcordance
+{
+    /**
+     * Index a file in the platform's default charset.
+     * @param file the file.
+     * @param threads the number of worker threads.
+     * @return the concordance.
+     * @throws IOException if the file cannot be read.
+     */
+    public static TwoParamObj<String> build( Path file, int threads ) throws IOException
+    {
+        return build( file, threads, Charset.defaultCharset( ) );
+    }
+
+    /**
+     * Index a file.
+     * @param file the file.
+     * @param threads the number of worker threads.
+     * @param charset the file's charset.
+     * @return the concordance.
+     * @throws IOException if the file cannot be read.
+     */
+    public static TwoParamObj<String> build( Path file, int threads, Charset charset ) throws IOException
+    {
+        if( threads < 1 )
+            throw new IllegalArgumentException( "Need at least one thread" );
+
+        try( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) )
+        {
+            long [ ] bounds = split( channel, threads );
+            int runs = bounds.length - 1;
+            ForkJoinPool pool = new ForkJoinPool( threads );
+            try
+            {
+                List<Future<Long>> counts = new ArrayList<>( runs );
+                for( int i = 0; i < runs; i++ )
+                {
+                    long from = bounds[ i ];
+                    long to = bounds[ i + 1 ];
+                    counts.add( pool.submit( ( ) -> scan( channel, from, to, 0, charset, null ) ) );
+                }
+
+                List<Future<TwoParamObj<String>>> trees = new ArrayList<>( runs );
+                long firstLine = 1;
+                for( int i = 0; i < runs; i++ )
+                {
+                    long from = bounds[ i ];
+                    long to = bounds[ i + 1 ];
+                    int start = (int) firstLine;
+                    trees.add( pool.submit( ( ) -> {
+                        TwoParamObj<String> tree = new TwoParamObj<>( );
+                        scan( channel, from, to, start, charset, tree );
+                        return tree;
+                    } ) );
+                    firstLine += await( counts.get( i ) );
+                    if( firstLine > Integer.MAX_VALUE )
+                        throw new IOException( "Too many lines to number: " + file );
+                }
+
+                List<TwoParamObj<String>> indexes = new ArrayList<>( runs );
+                for( Future<TwoParamObj<String>> tree : trees )
+                    indexes.add( await( tree ) );
+                return merge( indexes );
+            }
+            finally
+            {
+                pool.shutdownNow( );
+            }
+        }
+    }
+
+    /**
+     * Merge concordances of consecutive runs of one text into one.
+     * The lists of a word are joined in the order the runs are given,
+     * so every line of a run must come before every line of the next.
+     * The posting lists of the runs are reused and added to.
+     * @param runs the concordances, in text order.
+     * @return a balanced concordance of the whole text.
+     */
+    public static TwoParamObj<String> merge( List<TwoParamObj<String>> runs )
+    {
+        int k = runs.size( );
+        List<List<String>> words = new ArrayList<>( k );
+        List<List<PostingList>> lines = new ArrayList<>( k );
+        int total = 0;
+        for( TwoParamObj<String> run : runs )
+        {
+            List<String> w = new ArrayList<>( );
+            List<PostingList> l = new ArrayList<>( );
+            run.forEachEntry( ( word, list ) -> {
+                w.add( word );
+                l.add( list );
+            } );
+            words.add( w );
+            lines.add( l );
+            total += w.size( );
+        }
+
+        // Heap of runs by their next word; ties go to the earlier run
+        int [ ] next = new int[ k ];
+        PriorityQueue<Integer> heads = new PriorityQueue<>( Math.max( 1, k ), ( a, b ) -> {
+            int c = words.get( a ).get( next[ a ] ).compareTo( words.get( b ).get( next[ b ] ) );
+            return c != 0 ? c : Integer.compare( a, b );
+        } );
+        for( int r = 0; r < k; r++ )
+            if( !words.get( r ).isEmpty( ) )
+                heads.add( r );
+
+        List<String> mergedWords = new ArrayList<>( total );
+        List<PostingList> mergedLines = new ArrayList<>( total );
+        while( !heads.isEmpty( ) )
+        {
+            int r = heads.poll( );
+            String word = words.get( r ).get( next[ r ] );
+            PostingList list = lines.get( r ).get( next[ r ] );
+            int last = mergedWords.size( ) - 1;
+            if( last >= 0 && mergedWords.get( last ).equals( word ) )
+                mergedLines.get( last ).addAll( list );
+            else
+            {
+                mergedWords.add( word );
+                mergedLines.add( list );
+            }
+            if( ++next[ r ] < words.get( r ).size( ) )
+                heads.add( r );
+        }
+
+        TwoParamObj<String> tree = new TwoParamObj<>( );
+        tree.bulkLoad( mergedWords, mergedLines );
+        return tree;
+    }
+
+    /**
+     * Split the file into runs that start at line starts.
+     * @return the run boundaries, first 0 and last the file size.
+     */
+    private static long [ ] split( FileChannel channel, int runs ) throws IOException
+    {
+        long size = channel.size( );
+        List<Long> bounds = new ArrayList<>( );
+        bounds.add( 0L );
+        for( int i = 1; i < runs; i++ )
+        {
+            long at = Math.max( size * i / runs, bounds.get( bounds.size( ) - 1 ) );
+            long lineStart = nextLineStart( channel, at, size );
+            if( lineStart > bounds.get( bounds.size( ) - 1 ) && lineStart < size )
+                bounds.add( lineStart );
+        }
+        bounds.add( size );
+
+        long [ ] result = new long[ bounds.size( ) ];
+        for( int i = 0; i < result.length; i++ )
+            result[ i ] = bounds.get( i );
+        return result;
+    }
+
+    /**
+     * Find the first byte after the next \n at or after pos.
+     */
+    private static long nextLineStart( FileChannel channel, long pos, long size ) throws IOException
+    {
+        ByteBuffer buf = ByteBuffer.allocate( 8192 );
+        while( pos < size )
+        {
+            buf.clear( );
+            int n = channel.read( buf, pos );
+            if( n <= 0 )
+                break;
+            for( int i = 0; i < n; i++ )
+                if( buf.get( i ) == '\n' )
+                    return pos + i + 1;
+            pos += n;
+        }
+        return size;
+    }
+
+    /**
+     * Walk the lines between from and to, a window of whole lines at a
+     * time, counting the breaks and indexing the words if there is a tree.
+     * @param firstLine the number of the first line.
+     * @param tree where to index the words, or null to only count.
+     * @return the number of line breaks.
+     */
+    private static long scan( FileChannel channel, long from, long to, int firstLine, Charset charset,
+                              TwoParamObj<String> tree ) throws IOException
+    {
+        WordTokenizer words = new WordTokenizer( true );
+        CharsetDecoder decoder = charset.newDecoder( )
+                .onMalformedInput( CodingErrorAction.REPLACE )
+                .onUnmappableCharacter( CodingErrorAction.REPLACE );
+        long breaks = 0;
+
+        for( long pos = from; pos < to; )
+        {
+            // Take a window that ends just after a \n, or at the end of the run
+            long length = Math.min( WINDOW_BYTES, to - pos );
+            MappedByteBuffer window;
+            int usable;
+            while( true )
+            {
+                window = channel.map( FileChannel.MapMode.READ_ONLY, pos, length );
+                usable = pos + length == to ? (int) length : lastLineEnd( window );
+                if( usable > 0 )
+                    break;
+                if( length > Integer.MAX_VALUE / 2 )
+                    throw new IOException( "Line too long at byte " + pos );
+                length = Math.min( 2 * length, to - pos );   // One line fills the window
+            }
+            window.limit( usable );
+            pos += usable;
+
+            CharBuffer text = decoder.reset( ).decode( window );
+            int n = text.length( );
+            int lineStart = 0;
+            for( int i = 0; i < n; i++ )
+            {
+                int breakLength = lineBreak( text, i );
+                if( breakLength == 0 )
+                    continue;
+                if( tree != null )
+                    index( tree, words, text, lineStart, i, (int) ( firstLine + breaks ) );
+                breaks++;
+                i += breakLength - 1;
+                lineStart = i + 1;
+            }
+            if( tree != null )
+                index( tree, words, text, lineStart, n, (int) ( firstLine + breaks ) );   // Last line, with no break
+        }
+        return breaks;
+    }
+
+    private static void index( TwoParamObj<String> tree, WordTokenizer words, CharSequence text,
+                               int start, int end, int line )
+    {
+        words.reset( text, start, end );
+        while( words.next( ) )
+            tree.insertWord( words, line );
+    }
+
+    /**
+     * Find out if a line break starts at i, by the rule Scanner.nextLine
+     * uses: \r\n, or any one of \n, \r, U+0085, U+2028 and U+2029.
+     * @param text the text.
+     * @param i a position in it.
+     * @return the number of characters in the break, or 0 if there is none.
+     */
+    static int lineBreak( CharSequence text, int i )
+    {
+        switch( text.charAt( i ) )
+        {
+            case '\r':
+                return i + 1 < text.length( ) && text.charAt( i + 1 ) == '\n' ? 2 : 1;
+            case '\n':
+            case '\u0085':
+            case '\u2028':
+            case '\u2029':
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Find the end of the last complete line in a window.
+     * @return the index just past its \n, or 0 if there is none.
+     */
+    private static int lastLineEnd( ByteBuffer window )
+    {
+        for( int i = window.limit( ) - 1; i >= 0; i-- )
+            if( window.get( i ) == '\n' )
+                return i + 1;
+        return 0;
+    }
+
+    private static <T> T await( Future<T> result ) throws IOException
+    {
+        try
+        {
+            return result.get( );
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread( ).interrupt( );
+            throw new IOException( "Interrupted while indexing", e );
+        }
+        catch( ExecutionException e )
+        {
+            if( e.getCause( ) instanceof IOException )
+                throw (IOException) e.getCause( );
+            if( e.getCause( ) instanceof RuntimeException )
+                throw (RuntimeException) e.getCause( );
+            throw new IOException( e.getCause( ) );
+        }
+    }
+
+    private static final int WINDOW_BYTES = 4 << 20;   // Bytes mapped and decoded at a time
+}
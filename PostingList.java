@@ -0,0 +1,433 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Growable list of line numbers in ascending order, stored compactly.
+ * Each line is kept as its gap from the one before, written as a varint:
+ * seven bits per byte, with the top bit set on every byte but the last.
+ * Lines close together take one byte each. The same line may be added
+ * more than once, as a gap of 0.
+ *
+ * Every SKIP_INTERVAL lines the list notes the line and its byte offset,
+ * so contains only decodes the one stretch the line could be in. The
+ * first stretch starts at line 0, offset 0, so a list shorter than that
+ * keeps no skip arrays at all: a word seen once costs this object and a
+ * four-byte array.
+ *
+ * Lines inserted out of order are parked unsorted and merged in a batch,
+ * once there are more than a quarter as many as the list holds or when the
+ * list is next read. A merge rewrites the list only from the stretch its
+ * lowest line falls in, so n inserts in any order cost O( n log n ).
+ */
+public class PostingList
+{
+    /**
+     * Construct an empty list.
+     */
+    public PostingList( )
+    {
+        data = new byte[ DEFAULT_CAPACITY ];
+    }
+
+    /**
+     * Append a line.
+     * @param line the line, no less than the last one added.
+     * @throws IllegalArgumentException if line is negative or out of order.
+     */
+    public void add( int line )
+    {
+        if( line < last )
+            throw new IllegalArgumentException( "Line " + line + " added after line " + last );
+
+        if( count > 0 && count % SKIP_INTERVAL == 0 )
+            addSkip( count / SKIP_INTERVAL - 1, last, length );        // Decoding restarts from here
+
+        writeVarint( line - last );
+        last = line;
+        count++;
+    }
+
+    /**
+     * Add a line in its place, in any order. A line no less than the
+     * last one is appended; a lower one is parked until the next merge.
+     * @param line the line.
+     * @throws IllegalArgumentException if line is negative.
+     */
+    public void insert( int line )
+    {
+        if( line < 0 )
+            throw new IllegalArgumentException( "Negative line " + line );
+        if( line >= last )
+        {
+            add( line );        // Parked lines are all below last, so order holds
+            return;
+        }
+
+        if( pendingCount == pending.length )
+            pending = Arrays.copyOf( pending, Math.max( 4, 2 * pendingCount ) );
+        pending[ pendingCount++ ] = line;
+        if( pendingCount > MIN_PENDING + count / 4 )
+            settle( );
+    }
+
+    /**
+     * Append every line of another list.
+     * @param other the list; its first line must be no less than the last one here.
+     * @throws IllegalArgumentException if the lines would be out of order.
+     */
+    public void addAll( PostingList other )
+    {
+        if( !other.isEmpty( ) && other.first( ) < last )
+            throw new IllegalArgumentException( "Line " + other.first( ) + " added after line " + last );
+        PrimitiveIterator.OfInt it = other.iterator( );
+        while( it.hasNext( ) )
+            add( it.nextInt( ) );
+    }
+
+    /**
+     * Get the lowest line.
+     * @return the line, or 0 if the list is empty.
+     */
+    public int first( )
+    {
+        settle( );
+        return count == 0 ? 0 : firstGap( );    // The first gap is from 0
+    }
+
+    /**
+     * Get the number of lines, counting repeats.
+     * @return the size.
+     */
+    public int size( )
+    {
+        return count + pendingCount;
+    }
+
+    /**
+     * Test if the list is empty.
+     * @return true if no line was added.
+     */
+    public boolean isEmpty( )
+    {
+        return size( ) == 0;
+    }
+
+    /**
+     * Get the last line added.
+     * @return the line, or 0 if the list is empty.
+     */
+    public int last( )
+    {
+        return last;
+    }
+
+    /**
+     * Get the number of bytes the encoded lines take.
+     * @return the encoded size.
+     */
+    public int encodedLength( )
+    {
+        settle( );
+        return length;
+    }
+
+    /**
+     * Estimate the heap the list takes on a 64-bit JVM with compressed
+     * references: this object and its arrays, headers and padding included.
+     * @return the number of bytes.
+     */
+    public long footprint( )
+    {
+        long bytes = OBJECT_BYTES + arrayBytes( data.length );
+        if( skipLines != NO_SKIPS )
+            bytes += 2 * arrayBytes( 4L * skipLines.length );
+        if( pending != NO_SKIPS )
+            bytes += arrayBytes( 4L * pending.length );
+        return bytes;
+    }
+
+    /**
+     * Estimate the heap an array takes, by the same rules as footprint.
+     * @param payload the bytes of its elements.
+     * @return the number of bytes, with the header and padding.
+     */
+    static long arrayBytes( long payload )
+    {
+        return ( ARRAY_HEADER_BYTES + payload + 7 ) & ~7L;
+    }
+
+    /**
+     * Find a line.
+     * @param line the line to search for.
+     * @return true if it was added.
+     */
+    public boolean contains( int line )
+    {
+        settle( );
+        if( count == 0 || line > last || line < 0 )
+            return false;
+
+        int low = stretchBefore( line );
+        int pos = low == 0 ? 0 : skipOffsets[ low - 1 ];
+        int current = low == 0 ? 0 : skipLines[ low - 1 ];
+        int end = Math.min( count, ( low + 1 ) * SKIP_INTERVAL );
+        for( int i = low * SKIP_INTERVAL; i < end; i++ )
+        {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do
+            {
+                b = data[ pos++ ];
+                gap |= ( b & 0x7f ) << shift;
+                shift += 7;
+            } while( b < 0 );
+            current += gap;
+            if( current >= line )
+                return current == line;
+        }
+        return false;
+    }
+
+    /**
+     * Iterate over the lines in order, without boxing them.
+     * Lines added while iterating may or may not be seen.
+     * @return an iterator over the lines.
+     */
+    public PrimitiveIterator.OfInt iterator( )
+    {
+        settle( );
+        return new PrimitiveIterator.OfInt( )
+        {
+            private int pos;
+            private int seen;
+            private int current;
+
+            public boolean hasNext( )
+            {
+                return seen < count;
+            }
+
+            public int nextInt( )
+            {
+                if( !hasNext( ) )
+                    throw new NoSuchElementException( );
+                int gap = 0;
+                int shift = 0;
+                byte b;
+                do
+                {
+                    b = data[ pos++ ];
+                    gap |= ( b & 0x7f ) << shift;
+                    shift += 7;
+                } while( b < 0 );
+                seen++;
+                current += gap;
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Hand every line, in order, to an action.
+     * @param action the action.
+     */
+    public void forEach( IntConsumer action )
+    {
+        PrimitiveIterator.OfInt it = iterator( );
+        while( it.hasNext( ) )
+            action.accept( it.nextInt( ) );
+    }
+
+    /**
+     * Copy the lines out.
+     * @return a new array of the lines, in order.
+     */
+    public int [ ] toArray( )
+    {
+        settle( );
+        int [ ] lines = new int[ count ];
+        PrimitiveIterator.OfInt it = iterator( );
+        for( int i = 0; i < count; i++ )
+            lines[ i ] = it.nextInt( );
+        return lines;
+    }
+
+    /**
+     * Write the encoded lines: the varint gaps, with no count or length.
+     * @param out where to write them.
+     * @throws IOException if out fails.
+     */
+    public void writeEncoded( OutputStream out ) throws IOException
+    {
+        settle( );
+        out.write( data, 0, length );
+    }
+
+    /**
+     * Rebuild a list from lines written by writeEncoded.
+     * @param encoded the varint gaps; the list takes over the array.
+     * @param length the number of bytes of encoded in use.
+     * @param count the number of lines they hold.
+     * @return the list.
+     * @throws IllegalArgumentException if the bytes do not hold count lines.
+     */
+    public static PostingList fromEncoded( byte [ ] encoded, int length, int count )
+    {
+        PostingList list = new PostingList( );
+        list.data = encoded;
+        int pos = 0;
+        for( int i = 0; i < count; i++ )
+        {
+            if( i > 0 && i % SKIP_INTERVAL == 0 )
+                list.addSkip( i / SKIP_INTERVAL - 1, list.last, pos );
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do
+            {
+                if( pos >= length )
+                    throw new IllegalArgumentException( "Encoded lines end after " + i + " of " + count );
+                b = encoded[ pos++ ];
+                gap |= ( b & 0x7f ) << shift;
+                shift += 7;
+            } while( b < 0 );
+            list.last += gap;
+        }
+        if( pos != length )
+            throw new IllegalArgumentException( "Encoded lines run past " + count + " lines" );
+        list.length = length;
+        list.count = count;
+        return list;
+    }
+
+    @Override
+    public String toString( )
+    {
+        return Arrays.toString( toArray( ) );
+    }
+
+    /**
+     * Merge the parked lines in. The list is kept up to the stretch the
+     * lowest of them falls in and rebuilt from there.
+     */
+    private void settle( )
+    {
+        if( pendingCount == 0 )
+            return;
+        Arrays.sort( pending, 0, pendingCount );
+
+        int stretch = stretchBefore( pending[ 0 ] );
+        int pos = stretch == 0 ? 0 : skipOffsets[ stretch - 1 ];
+        int current = stretch == 0 ? 0 : skipLines[ stretch - 1 ];
+        int [ ] tail = new int[ count - stretch * SKIP_INTERVAL ];
+        for( int i = 0; i < tail.length; i++ )
+        {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do
+            {
+                b = data[ pos++ ];
+                gap |= ( b & 0x7f ) << shift;
+                shift += 7;
+            } while( b < 0 );
+            current += gap;
+            tail[ i ] = current;
+        }
+
+        length = stretch == 0 ? 0 : skipOffsets[ stretch - 1 ];
+        last = stretch == 0 ? 0 : skipLines[ stretch - 1 ];
+        count = stretch * SKIP_INTERVAL;
+        int [ ] parked = pending;
+        int parkedCount = pendingCount;
+        pending = NO_SKIPS;
+        pendingCount = 0;
+        int p = 0;
+        int t = 0;
+        while( p < parkedCount || t < tail.length )
+            add( t == tail.length || p < parkedCount && parked[ p ] < tail[ t ] ? parked[ p++ ] : tail[ t++ ] );
+    }
+
+    /**
+     * Find the last stretch that starts before a line; stretch k > 0
+     * starts after skip k - 1. The list must not be empty.
+     */
+    private int stretchBefore( int line )
+    {
+        int low = 0;
+        int high = ( count - 1 ) / SKIP_INTERVAL;
+        while( low < high )
+        {
+            int mid = ( low + high + 1 ) >>> 1;
+            if( skipLines[ mid - 1 ] < line )
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return low;
+    }
+
+    /**
+     * Note where stretch skip + 1 of SKIP_INTERVAL lines starts,
+     * allocating the skip arrays on the first one.
+     */
+    private void addSkip( int skip, int line, int offset )
+    {
+        if( skip == skipLines.length )
+        {
+            skipLines = Arrays.copyOf( skipLines, Math.max( 4, 2 * skip ) );
+            skipOffsets = Arrays.copyOf( skipOffsets, skipLines.length );
+        }
+        skipLines[ skip ] = line;
+        skipOffsets[ skip ] = offset;
+    }
+
+    private int firstGap( )
+    {
+        int gap = 0;
+        int shift = 0;
+        int pos = 0;
+        byte b;
+        do
+        {
+            b = data[ pos++ ];
+            gap |= ( b & 0x7f ) << shift;
+            shift += 7;
+        } while( b < 0 );
+        return gap;
+    }
+
+    private void writeVarint( int value )
+    {
+        if( length + MAX_VARINT_BYTES > data.length )
+            data = Arrays.copyOf( data, Math.max( length + MAX_VARINT_BYTES, data.length * 2 ) );
+        while( ( value & ~0x7f ) != 0 )
+        {
+            data[ length++ ] = (byte) ( ( value & 0x7f ) | 0x80 );
+            value >>>= 7;
+        }
+        data[ length++ ] = (byte) value;
+    }
+
+    private static final int DEFAULT_CAPACITY = 4;
+    private static final int MAX_VARINT_BYTES = 5;
+    private static final int SKIP_INTERVAL = 64;
+    private static final int [ ] NO_SKIPS = { };
+    private static final int MIN_PENDING = 16;
+    private static final long OBJECT_BYTES = 48;        // Header and eight fields, padded
+    private static final long ARRAY_HEADER_BYTES = 16;  // Header and length
+
+    private byte [ ] data;                   // Varint gaps, back to back
+    private int length;                      // Bytes of data in use
+    private int count;                       // Lines added
+    private int last;                        // Last line added
+    private int [ ] skipLines = NO_SKIPS;    // Line before entry SKIP_INTERVAL * ( k + 1 )
+    private int [ ] skipOffsets = NO_SKIPS;  // Byte offset of that entry
+    private int [ ] pending = NO_SKIPS;      // Lines inserted out of order, unsorted
+    private int pendingCount;                // Lines parked in pending
+}
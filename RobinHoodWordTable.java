@@ -0,0 +1,312 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Linear probing hash table with Robin Hood displacement.
+ * Each slot keeps the word's full hash next to it. A word being inserted
+ * takes the slot of any resident that is closer to its own home slot,
+ * and the resident moves on instead, so probe lengths stay short and
+ * even. A lookup stops as soon as it passes a resident closer to home
+ * than it would be, compares hashes before strings, and calls equals
+ * only when the hashes match. Remove shifts the following run back one
+ * slot, so there are no tombstones, and growing the table reuses the
+ * stored hashes instead of rehashing the strings. A third array holds
+ * each word's frequency, moved along with it.
+ *
+ * That lets the table run at a load factor of 0.85 by default, against
+ * 0.5 for the quadratic probing of SpellCheckHashTable.
+ */
+public class RobinHoodWordTable implements WordTable
+{
+    /**
+     * Construct the hash table.
+     */
+    public RobinHoodWordTable( )
+    {
+        this( DEFAULT_TABLE_SIZE, DEFAULT_LOAD_FACTOR );
+    }
+
+    /**
+     * Construct the hash table.
+     * @param size the approximate initial size.
+     * @param loadFactor the share of slots that may be used before growing.
+     */
+    public RobinHoodWordTable( int size, double loadFactor )
+    {
+        if( loadFactor <= 0 || loadFactor >= 1 )
+            throw new IllegalArgumentException( "Load factor must be between 0 and 1" );
+        this.loadFactor = loadFactor;
+        allocateArrays( Integer.highestOneBit( Math.max( 2, size - 1 ) ) << 1 );
+    }
+
+    /**
+     * Insert into the hash table. If the item is
+     * already present, do nothing.
+     * @param x the item to insert.
+     * @return true if the item was added.
+     */
+    public boolean insert( String x )
+    {
+        int h = hash( x );
+        if( findPos( x, h ) >= 0 )
+            return false;
+
+        if( theSize + 1 > maxSize )
+            rehash( );
+        place( x, h, 0 );
+        theSize++;
+        return true;
+    }
+
+    /**
+     * Remove from the hash table.
+     * @param x the item to remove.
+     * @return true if item removed.
+     */
+    public boolean remove( String x )
+    {
+        int pos = findPos( x, hash( x ) );
+        if( pos < 0 )
+            return false;
+
+        // Shift the rest of the run back so no gap is left
+        int mask = keys.length - 1;
+        int next = ( pos + 1 ) & mask;
+        while( hashes[ next ] != 0 && distance( hashes[ next ], next ) > 0 )
+        {
+            hashes[ pos ] = hashes[ next ];
+            keys[ pos ] = keys[ next ];
+            frequencies[ pos ] = frequencies[ next ];
+            pos = next;
+            next = ( next + 1 ) & mask;
+        }
+        hashes[ pos ] = 0;
+        keys[ pos ] = null;
+        frequencies[ pos ] = 0;
+        theSize--;
+        return true;
+    }
+
+    /**
+     * Find an item in the hash table.
+     * @param x the item to search for.
+     * @return true if the item is present.
+     */
+    public boolean contains( CharSequence x )
+    {
+        return findPos( x, hash( x ) ) >= 0;
+    }
+
+    /**
+     * Find a word and its frequency, with one probe.
+     * @param x the item to search for.
+     * @return its frequency, 0 if none was set, or -1 if it is absent.
+     */
+    public int lookup( CharSequence x )
+    {
+        int pos = findPos( x, hash( x ) );
+        return pos < 0 ? -1 : frequencies[ pos ];
+    }
+
+    /**
+     * Store a word's frequency in the slot beside it.
+     * @param x a word in the table.
+     * @param frequency its count.
+     * @return false if the word is absent.
+     */
+    public boolean setFrequency( String x, int frequency )
+    {
+        int pos = findPos( x, hash( x ) );
+        if( pos < 0 )
+            return false;
+        frequencies[ pos ] = frequency;
+        return true;
+    }
+
+    /**
+     * Get current size.
+     * @return the size.
+     */
+    public int size( )
+    {
+        return theSize;
+    }
+
+    /**
+     * Get length of internal table.
+     * @return the size.
+     */
+    public int capacity( )
+    {
+        return keys.length;
+    }
+
+    /**
+     * Make the hash table logically empty.
+     */
+    public void makeEmpty( )
+    {
+        java.util.Arrays.fill( keys, null );
+        java.util.Arrays.fill( hashes, 0 );
+        java.util.Arrays.fill( frequencies, 0 );
+        theSize = 0;
+    }
+
+    /**
+     * Iterate over the words in the table, in slot order.
+     * @return an iterator over the words.
+     */
+    public Iterator<String> iterator( )
+    {
+        return new Iterator<String>( )
+        {
+            private int next = advance( 0 );
+
+            private int advance( int pos )
+            {
+                while( pos < keys.length && keys[ pos ] == null )
+                    pos++;
+                return pos;
+            }
+
+            public boolean hasNext( )
+            {
+                return next < keys.length;
+            }
+
+            public String next( )
+            {
+                if( !hasNext( ) )
+                    throw new NoSuchElementException( );
+                String x = keys[ next ];
+                next = advance( next + 1 );
+                return x;
+            }
+        };
+    }
+
+    /**
+     * Get the longest distance any word sits from its home slot.
+     * @return the largest probe length, less one.
+     */
+    public int maxDisplacement( )
+    {
+        int max = 0;
+        for( int pos = 0; pos < hashes.length; pos++ )
+            if( hashes[ pos ] != 0 )
+                max = Math.max( max, distance( hashes[ pos ], pos ) );
+        return max;
+    }
+
+    /**
+     * Search for x.
+     * @param x the item to search for.
+     * @param h its hash.
+     * @return its slot, or -1 if it is absent.
+     */
+    private int findPos( CharSequence x, int h )
+    {
+        int mask = keys.length - 1;
+        int pos = h & mask;
+        for( int dist = 0; ; dist++ )
+        {
+            int resident = hashes[ pos ];
+            if( resident == 0 || distance( resident, pos ) < dist )
+                return -1;   // x would have taken this slot
+            if( resident == h && keys[ pos ].contentEquals( x ) )
+                return pos;
+            pos = ( pos + 1 ) & mask;
+        }
+    }
+
+    /**
+     * Put a word known to be absent into the table, displacing residents
+     * that are closer to home.
+     */
+    private void place( String x, int h, int f )
+    {
+        int mask = keys.length - 1;
+        int pos = h & mask;
+        int dist = 0;
+        while( hashes[ pos ] != 0 )
+        {
+            int residentDist = distance( hashes[ pos ], pos );
+            if( residentDist < dist )
+            {
+                // Take the slot; carry the resident on
+                int th = hashes[ pos ];
+                String tx = keys[ pos ];
+                int tf = frequencies[ pos ];
+                hashes[ pos ] = h;
+                keys[ pos ] = x;
+                frequencies[ pos ] = f;
+                h = th;
+                x = tx;
+                f = tf;
+                dist = residentDist;
+            }
+            pos = ( pos + 1 ) & mask;
+            dist++;
+        }
+        hashes[ pos ] = h;
+        keys[ pos ] = x;
+        frequencies[ pos ] = f;
+    }
+
+    /**
+     * Double the table, placing every word by its stored hash.
+     */
+    private void rehash( )
+    {
+        String [ ] oldKeys = keys;
+        int [ ] oldHashes = hashes;
+        int [ ] oldFrequencies = frequencies;
+        allocateArrays( 2 * oldKeys.length );
+        for( int i = 0; i < oldKeys.length; i++ )
+            if( oldHashes[ i ] != 0 )
+                place( oldKeys[ i ], oldHashes[ i ], oldFrequencies[ i ] );
+    }
+
+    private void allocateArrays( int length )
+    {
+        keys = new String[ length ];
+        hashes = new int[ length ];
+        frequencies = new int[ length ];
+        maxSize = Math.min( length - 1, (int) ( length * loadFactor ) );
+    }
+
+    /**
+     * How far the word with hash h sits from its home slot when at pos.
+     */
+    private int distance( int h, int pos )
+    {
+        return ( pos - h ) & ( keys.length - 1 );
+    }
+
+    /**
+     * The table's 41-multiplier hash, mixed so the low bits are usable
+     * with a power-of-two table; never 0, which marks an empty slot.
+     */
+    private static int hash( CharSequence x )
+    {
+        int h = 0;
+        for( int i = 0; i < x.length( ); i++ )
+            h = 41 * h + x.charAt( i );
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h == 0 ? 1 : h;
+    }
+
+    private static final int DEFAULT_TABLE_SIZE = 16;
+    private static final double DEFAULT_LOAD_FACTOR = 0.85;
+
+    private String [ ] keys;       // The words; null if empty
+    private int [ ] hashes;        // Their hashes; 0 if empty
+    private int [ ] frequencies;   // Their frequencies
+    private int theSize;           // Current size
+    private int maxSize;           // Size at which the table grows
+    private final double loadFactor;
+}
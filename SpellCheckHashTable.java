@@ -1,383 +1,1253 @@
-import java.util.*;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import java.io.*;
-
-//Name: Benjamin Lerner
-/**
- * Probing table implementation of hash tables.
- * Note that all "matching" is based on the equals method.
- * @author Mark Allen Weiss
- */
-public class SpellCheckHashTable
-{
-    /**
-     * Construct the hash table.
-     */
-    public SpellCheckHashTable( )
-    {
-        this( DEFAULT_TABLE_SIZE );
-    }
-
-    /**
-     * Construct the hash table.
-     * @param size the approximate initial size.
-     */
-    public SpellCheckHashTable( int size )
-    {
-        allocateArray( size );
-        doClear( );
-    }
-
-    /**
-     * Insert into the hash table. If the item is
-     * already present, do nothing.
-     * @param x the item to insert.
-     */
-    public boolean insert( String x )
-    {
-        // Insert x as active
-        int currentPos = findPos( x );
-        if( isActive( currentPos ) )
-            return false;
-
-        array[ currentPos ] = new HashEntry( x, true );
-        theSize++;
-
-        // Rehash; see Section 5.5
-        if( ++occupied > array.length / 2 )
-            rehash( );
-
-        return true;
-    }
-
-    /**
-     * Expand the hash table.
-     */
-    private void rehash( )
-    {
-        HashEntry [ ] oldArray = array;
-
-        // Create a new double-sized, empty table
-        allocateArray( 2 * oldArray.length );
-        occupied = 0;
-        theSize = 0;
-
-        // Copy table over
-        for( HashEntry entry : oldArray )
-            if( entry != null && entry.isActive )
-                insert( entry.element );
-    }
-
-    /**
-     * Method that performs quadratic probing resolution.
-     * @param x the item to search for.
-     * @return the position where the search terminates.
-     */
-    private int findPos( String x )
-    {
-        int offset = 1;
-        int currentPos = myhash( x );
-
-        while( array[ currentPos ] != null &&
-                !array[ currentPos ].element.equals( x ) )
-        {
-            currentPos += offset;  // Compute ith probe
-            offset += 2;
-            if( currentPos >= array.length )
-                currentPos -= array.length;
-        }
-
-        return currentPos;
-    }
-
-
-
-    /**
-     * Remove from the hash table.
-     * @param x the item to remove.
-     * @return true if item removed
-     */
-    public boolean remove( String x )
-    {
-        int currentPos = findPos( x );
-        if( isActive( currentPos ) )
-        {
-            array[ currentPos ].isActive = false;
-            theSize--;
-            return true;
-        }
-        else
-            return false;
-    }
-
-    /**
-     * Get current size.
-     * @return the size.
-     */
-    public int size( )
-    {
-        return theSize;
-    }
-
-    /**
-     * Get length of internal table.
-     * @return the size.
-     */
-    public int capacity( )
-    {
-        return array.length;
-    }
-
-    /**
-     * Find an item in the hash table.
-     * @param x the item to search for.
-     * @return the matching item.
-     */
-    public boolean contains( String x )
-    {
-        int currentPos = findPos( x );
-        return isActive( currentPos );
-    }
-
-    /**
-     * Return true if currentPos exists and is active.
-     * @param currentPos the result of a call to findPos.
-     * @return true if currentPos is active.
-     */
-    private boolean isActive( int currentPos )
-    {
-        return array[ currentPos ] != null && array[ currentPos ].isActive;
-    }
-
-    /**
-     * Make the hash table logically empty.
-     */
-    public void makeEmpty( )
-    {
-        doClear( );
-    }
-
-    private void doClear( )
-    {
-        occupied = 0;
-        for( int i = 0; i < array.length; i++ )
-            array[ i ] = null;
-    }
-
-    private int myhash( String x )
-    {
-        int hashVal = hashing(x, array.length);
-
-        hashVal %= array.length;
-        if( hashVal < 0 )
-            hashVal += array.length;
-
-        return hashVal;
-    }
-
-
-
-    private static class HashEntry
-    {
-        public String  element;   // the element
-        public boolean isActive;  // false if marked deleted
-
-        public HashEntry( String e )
-        {
-            this( e, true );
-        }
-
-        public HashEntry( String e, boolean i )
-        {
-            element  = e;
-            isActive = i;
-        }
-    }
-
-    //uses a hash function featuring a prime number to generate keys and tokens
-    public int hashing (String key, int tableSize) {
-        int hashVal = 0;
-        for (int i = 0; i < key.length(); i++) {
-            hashVal = 41 * hashVal + key.charAt(i);
-        }
-        hashVal %= tableSize;
-        if (hashVal < 0) {
-            hashVal += tableSize;
-        }
-        return hashVal;
-    }
-
-    //the size of the initial table
-    private static final int DEFAULT_TABLE_SIZE = 17;
-
-    private HashEntry [ ] array; 		  // The array of elements
-    private int occupied;                 // The number of occupied cells
-    private int theSize;                  // Current size
-
-    /**
-     * Internal method to allocate array.
-     * @param arraySize the size of the array.
-     */
-    private void allocateArray( int arraySize )
-    {
-        array = new HashEntry[ nextPrime( arraySize ) ];
-    }
-
-    /**
-     * Internal method to find a prime number at least as large as n.
-     * @param n the starting number (must be positive).
-     * @return a prime number larger than or equal to n.
-     */
-    private static int nextPrime( int n )
-    {
-        if( n % 2 == 0 )
-            n++;
-
-        for( ; !isPrime( n ); n += 2 )
-            ;
-
-        return n;
-    }
-
-    /**
-     * Internal method to test if a number is prime.
-     * Not an efficient algorithm.
-     * @param n the number to test.
-     * @return the result of the test.
-     */
-    private static boolean isPrime( int n )
-    {
-        if( n == 2 || n == 3 )
-            return true;
-
-        if( n == 1 || n % 2 == 0 )
-            return false;
-
-        for( int i = 3; i * i <= n; i += 2 )
-            if( n % i == 0 )
-                return false;
-
-        return true;
-    }
-
-    public static void main(String[] args) throws IOException
-    {
-
-        // Takes three parameters: a dictionary, a dictionary, and then text that is to be spellchecked
-        SpellCheckHashTable H = new SpellCheckHashTable( );
-        FileInputStream fis = null;
-        BufferedReader reader = null;
-        FileInputStream fisDict = null;
-        BufferedReader readDict = null;
-        FileInputStream fisDict2 = null;
-        BufferedReader readDict2 = null;
-
-        //http://www.avajava.com/tutorials/lessons/how-do-i-read-a-string-from-a-file-line-by-line.html
-        //reads in line-by-line, tests if each line in the document is a palindrome, prints if it is or not
-        try {
-            //first argument is the first dictionary
-            fisDict = new FileInputStream(args[0]);
-            readDict = new BufferedReader(new InputStreamReader(fisDict));
-            String dictLine = readDict.readLine();
-            while (dictLine != null) {
-                H.insert(dictLine);
-                dictLine = readDict.readLine();
-            }
-
-            //second argument is the second dictionary
-            fisDict2 = new FileInputStream(args[1]);
-            readDict2 = new BufferedReader(new InputStreamReader(fisDict2));
-            String dictLine2 = readDict2.readLine();
-            while (dictLine2 != null) {
-                H.insert(dictLine2);
-                dictLine2 = readDict2.readLine();
-            };
-
-            //third argument is the input to be tested
-            fis = new FileInputStream(args[2]);
-            reader = new BufferedReader(new InputStreamReader(fis));
-            String line = reader.readLine();
-            int counter = 1;
-            while (line != null) {
-                //splits the line up
-                String[] salt = line.split(" ");
-                for (String skull : salt) {
-                    //makes sure it's only letters and apostrophes
-                    String s = skull.replaceAll(("[^(a-zA-Z||')]" ),  "");
-                    if (!H.contains(s) && !s.equals(" ") && !s.equals("")) {
-                        System.out.println("Misspelling in line: " + counter + ""
-                                + ". Misspelled word: '" + s + "'. Possible corrections include: ");
-                        //outputs possible correctly spelled words ONLY if the word is misspelled
-                        H.spellCheck(s);
-                    }
-                }
-                line = reader.readLine();
-                //keeps track of the lines
-                ++counter;
-            }
-
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
-        } finally {
-            try {
-                //readers for the files
-                readDict.close();
-                fisDict.close();
-                readDict2.close();
-                fisDict.close();
-                reader.close();
-                fis.close();
-            } catch (IOException ex) {
-                ex.printStackTrace();
-            }
-        }
-    }
-
-    private void spellCheck(String s) {
-        ArrayList<String> gutArrList = new ArrayList<>();
-        String[] alphabetPlus = {"a","b","c","d","e","f","g","h","i","j","k","l","m","n",
-            "o","p","q","r","s","t","u","v","w","x","y","z","A","B","C","D","E","F",
-            "G","H","I","J","K","L","M","N","O","P","Q","R","S","T","U","V","W","X","Y","Z","'"};
-
-
-        //checks if you can add a letter and make a word
-        for (int i = 0; i <= s.length(); ++i) {
-            for (int j = 0; j < alphabetPlus.length; ++j) {
-                String addTest = s.substring(0, i) + alphabetPlus[j] + s.substring(i, s.length());
-                if (this.contains(addTest) && !gutArrList.contains(addTest)) {
-                    gutArrList.add(addTest);
-                }
-            }
-        }
-
-        //checks if you can remove a letter and make a word
-        for (int i = 0; i < s.length(); ++i) {
-            String removeTest = s.substring(0, i) + s.substring((i + 1), s.length());
-            if (this.contains(removeTest) && !gutArrList.contains(removeTest)) {
-                gutArrList.add(removeTest);
-            }
-        }
-
-        //checks if you can swap adjacent letters
-        for (int i = 0; i <= s.length(); ++i) {
-            if (i + 2 < s.length()) {
-                String swap1 = s.substring(0, i) + s.substring(i+1, i+2) + s.substring(i, i+1) + s.substring(i+2, s.length());
-                if (this.contains(swap1) && !gutArrList.contains(swap1)) {
-                    gutArrList.add(swap1);
-                }
-            }
-            if (i == s.length() - 1) {
-                String swap2 = s.substring(0, i - 1) + s.substring(i, i + 1) + s.substring(i - 1, i);
-                if (this.contains(swap2) && !gutArrList.contains(swap2)) {
-                    gutArrList.add(swap2);
-                }
-            }
-        }
-
-        //prints possible properly spelled words
-        for (int i = 0; i < gutArrList.size(); ++i) {
-            System.out.println(gutArrList.get(i));
-        }
-    }
-}
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.io.*;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+//Name: Benjamin Lerner
+/**
+ * Probing table implementation of hash tables.
+ * Note that all "matching" is based on the equals method.
+ * @author Mark Allen Weiss
+ */
+public class SpellCheckHashTable implements WordTable
+{
+    /**
+     * Construct the hash table.
+     */
+    public SpellCheckHashTable( )
+    {
+        this( DEFAULT_TABLE_SIZE );
+    }
+
+    /**
+     * Construct the hash table.
+     * @param size the approximate initial size.
+     */
+    public SpellCheckHashTable( int size )
+    {
+        allocateArray( size );
+        doClear( );
+    }
+
+    /**
+     * Construct a table that keeps its words in another storage engine.
+     * @param store the engine that holds the words.
+     */
+    public SpellCheckHashTable( WordTable store )
+    {
+        view = new View( store, null );
+    }
+
+    /**
+     * Insert into the hash table. If the item is
+     * already present, do nothing.
+     * @param x the item to insert.
+     */
+    public boolean insert( String x )
+    {
+        View v = view;
+        boolean added = v.store != null ? v.store.insert( x ) : insertEntry( x );
+        if( added && v.bloom != null )
+            v.bloom.add( x );
+        if( added )
+            clearCache( );
+        return added;
+    }
+
+    private boolean insertEntry( String x )
+    {
+        // A word still waiting in the old table is already present
+        int cells = 0;
+        if( oldArray != null )
+        {
+            long old = probe( oldArray, x );
+            cells = cells( old );
+            if( isActive( oldArray, (int) old ) )
+            {
+                recordProbe( cells );
+                return false;
+            }
+        }
+
+        // Insert x as active
+        long found = probe( array, x );
+        recordProbe( cells + cells( found ) );
+        int currentPos = (int) found;
+        if( isActive( currentPos ) )
+            return false;
+
+        array[ currentPos ] = new HashEntry( x, true );
+        theSize++;
+
+        // Rehash; see Section 5.5
+        if( ++occupied > array.length / 2 )
+            rehash( );
+        else if( oldArray != null )
+            migrate( migrationStep );
+
+        return true;
+    }
+
+    /**
+     * Spread rehashing over later operations instead of copying the whole
+     * table at once. When the table grows, the old array is kept and each
+     * insert or remove moves the next slotsPerOperation of its slots into
+     * the new one; until it is empty, lookups check both. Removes also
+     * start a same-size rebuild, done the same way, once deleted words
+     * fill a quarter of the table, so tombstones do not pile up.
+     * @param slotsPerOperation old slots moved per insert or remove, at
+     * least 4; or 0 to go back to copying at once.
+     */
+    public void setIncrementalRehash( int slotsPerOperation )
+    {
+        if( slotsPerOperation != 0 && slotsPerOperation < MIN_MIGRATION_STEP )
+            throw new IllegalArgumentException( "Move at least " + MIN_MIGRATION_STEP + " slots per operation" );
+        if( slotsPerOperation == 0 && oldArray != null )
+            migrate( oldArray.length );
+        migrationStep = slotsPerOperation;
+    }
+
+    /**
+     * Expand the hash table.
+     */
+    private void rehash( )
+    {
+        resize( 2 * array.length );
+    }
+
+    /**
+     * Move the words to a new array.
+     * In incremental mode the move is only started here.
+     * @param newSize the approximate size of the new array.
+     */
+    private void resize( int newSize )
+    {
+        long start = stats != null ? System.nanoTime( ) : 0;
+
+        // Only one old table at a time; finish the last move first
+        if( oldArray != null )
+            migrate( oldArray.length );
+
+        HashEntry [ ] previous = array;
+        allocateArray( newSize );
+        occupied = 0;
+
+        if( migrationStep > 0 )
+        {
+            oldArray = previous;
+            migratePos = 0;
+            oldLive = theSize;
+        }
+        else
+        {
+            // Copy table over
+            rehashing = true;
+            for( HashEntry entry : previous )
+                if( entry != null && entry.isActive )
+                    place( entry );
+            rehashing = false;
+        }
+
+        if( stats != null )
+            stats.recordRehash( System.nanoTime( ) - start );
+    }
+
+    /**
+     * Move the next slots of the old array into the current one.
+     * Moved entries are shared, not copied, so a later remove that marks
+     * one deleted is seen through both arrays.
+     * @param slots the most old slots to move.
+     */
+    private void migrate( int slots )
+    {
+        rehashing = true;
+        for( int moved = 0; oldArray != null && moved < slots; moved++ )
+        {
+            HashEntry entry = oldArray[ migratePos ];
+            if( entry != null && entry.isActive )
+            {
+                place( entry );
+                oldLive--;
+            }
+            if( ++migratePos == oldArray.length )
+                oldArray = null;
+        }
+        rehashing = false;
+    }
+
+    /**
+     * Put an entry known to be absent into the current array.
+     */
+    private void place( HashEntry entry )
+    {
+        array[ findPos( entry.element ) ] = entry;
+        occupied++;
+    }
+
+    /**
+     * Method that performs quadratic probing resolution.
+     * @param x the item to search for.
+     * @return the position where the search terminates.
+     */
+    private int findPos( CharSequence x )
+    {
+        return (int) probe( array, x );
+    }
+
+    /**
+     * Quadratic probing over either the current or the old array.
+     * Records nothing: while an incremental rehash is running, one
+     * operation may probe both arrays, and the statistics count one
+     * sequence per operation, so callers add the cells up and record them.
+     * @param table the array to search.
+     * @param x the item to search for.
+     * @return the position where the search terminates in the low 32
+     * bits, and the number of cells looked at in the high 32.
+     */
+    private long probe( HashEntry [ ] table, CharSequence x )
+    {
+        int offset = 1;
+        int currentPos = myhash( x, table.length );
+
+        while( table[ currentPos ] != null &&
+                !table[ currentPos ].element.contentEquals( x ) )
+        {
+            currentPos += offset;  // Compute ith probe
+            offset += 2;
+            if( currentPos >= table.length )
+                currentPos -= table.length;
+        }
+
+        return (long) ( ( offset + 1 ) / 2 ) << 32 | currentPos;
+    }
+
+    private static int cells( long probe )
+    {
+        return (int) ( probe >>> 32 );
+    }
+
+    /**
+     * Count one operation's probe sequence, across both arrays if it
+     * looked in both.
+     */
+    private void recordProbe( int cells )
+    {
+        if( stats != null && !rehashing )
+            stats.recordProbe( cells );
+    }
+
+
+
+    /**
+     * Remove from the hash table.
+     * @param x the item to remove.
+     * @return true if item removed
+     */
+    public boolean remove( String x )
+    {
+        WordTable store = view.store;
+        boolean removed = store != null ? store.remove( x ) : removeEntry( x );
+        if( removed )
+            clearCache( );
+        return removed;
+    }
+
+    private boolean removeEntry( String x )
+    {
+        long found = probe( array, x );
+        int cells = cells( found );
+        HashEntry [ ] table = array;
+        if( !isActive( table, (int) found ) && oldArray != null )
+        {
+            table = oldArray;
+            found = probe( table, x );
+            cells += cells( found );
+        }
+        recordProbe( cells );
+
+        int currentPos = (int) found;
+        if( !isActive( table, currentPos ) )
+            return false;
+        table[ currentPos ].isActive = false;
+        if( table == oldArray )
+            oldLive--;
+        theSize--;
+
+        if( oldArray != null )
+            migrate( migrationStep );
+        else if( migrationStep > 0 && tombstones( ) > array.length / 4 )
+            resize( array.length );
+        return true;
+    }
+
+    /**
+     * Get current size.
+     * @return the size.
+     */
+    public int size( )
+    {
+        WordTable store = view.store;
+        if( store != null )
+            return store.size( );
+        return theSize;
+    }
+
+    /**
+     * Get length of internal table.
+     * @return the size.
+     */
+    public int capacity( )
+    {
+        WordTable store = view.store;
+        if( store != null )
+            return store.capacity( );
+        return array.length;
+    }
+
+    /**
+     * Find an item in the hash table.
+     * @param x the item to search for; any run of characters, such as a WordTokenizer.
+     * @return the matching item.
+     */
+    public boolean contains( CharSequence x )
+    {
+        return lookup( x ) >= 0;
+    }
+
+    /**
+     * Find an item and its frequency with one search.
+     * @param x the item to search for; any run of characters.
+     * @return its frequency, 0 if none was set, or -1 if it is absent.
+     */
+    public int lookup( CharSequence x )
+    {
+        View v = view;      // One read, so the filter always matches the words
+        if( v.bloom != null && !v.bloom.mightContain( x ) )
+        {
+            bloomRejects.increment( );
+            if( stats != null )
+                stats.recordBloomReject( );
+            return -1;
+        }
+
+        int found;
+        if( v.store == null )
+        {
+            HashEntry entry = findEntry( x );
+            found = entry == null ? -1 : entry.frequency;
+        }
+        else
+        {
+            found = v.store.lookup( x );
+            if( found >= 0 && frequencies != null )
+                found = frequencies.value( x );   // The store keeps none of its own
+        }
+        if( v.bloom != null && found < 0 )
+            bloomFalsePositives.increment( );
+        if( stats != null )
+            stats.recordContains( found >= 0 );
+        return found;
+    }
+
+    /**
+     * Find the active entry for x, in the old array too while a rehash
+     * is in progress.
+     * @return the entry, or null if x is absent.
+     */
+    private HashEntry findEntry( CharSequence x )
+    {
+        long found = probe( array, x );
+        int cells = cells( found );
+        HashEntry [ ] table = array;
+        if( !isActive( table, (int) found ) && oldArray != null )
+        {
+            table = oldArray;
+            found = probe( table, x );
+            cells += cells( found );
+        }
+        recordProbe( cells );
+        return isActive( table, (int) found ) ? table[ (int) found ] : null;
+    }
+
+    /**
+     * Start collecting statistics: probe lengths, rehashes, load and
+     * contains hits and misses. Until this is called none are kept.
+     * @return the statistics, which stay live as the table is used.
+     */
+    public HashTableStats enableStats( )
+    {
+        if( stats == null )
+            stats = new HashTableStats( this );
+        return stats;
+    }
+
+    /**
+     * Get the statistics.
+     * @return the statistics, or null if they are not being collected.
+     */
+    public HashTableStats stats( )
+    {
+        return stats;
+    }
+
+    /**
+     * Get the number of cells holding deleted words.
+     * @return the count, or -1 if the storage engine does not track it.
+     */
+    int tombstones( )
+    {
+        return view.store != null ? -1 : occupied - ( theSize - oldLive );
+    }
+
+    /**
+     * Put a Bloom filter in front of contains, so most words that are not
+     * in the table are turned away before it is probed. The filter is
+     * filled from the current words and then kept up by insert; removed
+     * words stay in it, which only costs a probe.
+     * @param expectedWords how many words the table will hold.
+     * @param falsePositiveRate the wanted chance that an absent word gets through.
+     */
+    public void enableBloomFilter( int expectedWords, double falsePositiveRate )
+    {
+        BloomFilter filter = new BloomFilter( expectedWords, falsePositiveRate );
+        bloomExpected = expectedWords;
+        bloomRate = falsePositiveRate;
+        for( String x : this )
+            filter.add( x );
+        bloomRejects.reset( );
+        bloomFalsePositives.reset( );
+        view = new View( view.store, filter );
+    }
+
+    /**
+     * Get the Bloom filter in front of contains.
+     * @return the filter, or null if there is none.
+     */
+    public BloomFilter bloomFilter( )
+    {
+        return view.bloom;
+    }
+
+    /**
+     * Get the number of lookups the Bloom filter answered on its own.
+     * @return the count since the filter was enabled.
+     */
+    public long bloomRejects( )
+    {
+        return bloomRejects.sum( );
+    }
+
+    /**
+     * Get the number of absent words the Bloom filter let through.
+     * @return the count since the filter was enabled.
+     */
+    public long bloomFalsePositives( )
+    {
+        return bloomFalsePositives.sum( );
+    }
+
+    /**
+     * Get the measured false positive rate: of the lookups for words not in
+     * the table, the share the Bloom filter let through.
+     * @return the rate, or 0 if there have been no such lookups.
+     */
+    public double bloomFalsePositiveRate( )
+    {
+        long passed = bloomFalsePositives.sum( );
+        long misses = passed + bloomRejects.sum( );
+        return misses == 0 ? 0 : (double) passed / misses;
+    }
+
+    /**
+     * Iterate over the words in the table, in slot order.
+     * @return an iterator over the active words.
+     */
+    public Iterator<String> iterator( )
+    {
+        WordTable store = view.store;
+        if( store != null )
+            return store.iterator( );
+
+        // The current array, then the old slots not yet moved out of it
+        final HashEntry [ ] current = array;
+        final HashEntry [ ] old = oldArray;
+        final int oldStart = migratePos;
+        return new Iterator<String>( )
+        {
+            private HashEntry [ ] table = current;
+            private int next = advance( 0 );
+
+            private int advance( int pos )
+            {
+                while( true )
+                {
+                    while( pos < table.length && !isActive( table, pos ) )
+                        pos++;
+                    if( pos < table.length || table != current || old == null )
+                        return pos;
+                    table = old;
+                    pos = oldStart;
+                }
+            }
+
+            public boolean hasNext( )
+            {
+                return next < table.length;
+            }
+
+            public String next( )
+            {
+                if( !hasNext( ) )
+                    throw new NoSuchElementException( );
+                String x = table[ next ].element;
+                next = advance( next + 1 );
+                return x;
+            }
+        };
+    }
+
+    /**
+     * Return true if currentPos exists and is active.
+     * @param currentPos the result of a call to findPos.
+     * @return true if currentPos is active.
+     */
+    private boolean isActive( int currentPos )
+    {
+        return isActive( array, currentPos );
+    }
+
+    private static boolean isActive( HashEntry [ ] table, int currentPos )
+    {
+        return table[ currentPos ] != null && table[ currentPos ].isActive;
+    }
+
+    /**
+     * Make the hash table logically empty.
+     */
+    public void makeEmpty( )
+    {
+        View v = view;
+        if( v.store != null )
+            v.store.makeEmpty( );
+        else
+            doClear( );
+        if( v.bloom != null )
+            enableBloomFilter( bloomExpected, bloomRate );
+        clearCache( );
+    }
+
+    /**
+     * Swap in a whole new dictionary. If the words are kept in a
+     * ConcurrentWordTable, a new one and a new Bloom filter are filled off
+     * to the side and published together in one write, so readers see
+     * either the old words and filter or the new ones, never a mix; an
+     * insert racing the swap may be lost with the old words. Otherwise
+     * this is makeEmpty followed by an insert of each word. Either way the
+     * suggestion cache is emptied, and a suggestion still being worked
+     * out from the old words is not cached. A suggestion engine is a
+     * snapshot of the words it was built from; set a new one to match.
+     * @param words the words of the new dictionary.
+     */
+    public void replaceAll( Iterable<String> words )
+    {
+        View v = view;
+        if( !( v.store instanceof ConcurrentWordTable ) )
+        {
+            makeEmpty( );
+            for( String x : words )
+                insert( x );
+            return;
+        }
+
+        ConcurrentWordTable fresh = new ConcurrentWordTable( );
+        BloomFilter filter = v.bloom == null ? null : new BloomFilter( bloomExpected, bloomRate );
+        for( String x : words )
+            if( fresh.insert( x ) && filter != null )
+                filter.add( x );
+        view = new View( fresh, filter );   // Publish
+        clearCache( );
+    }
+
+    /**
+     * Empty the suggestion cache after the dictionary or the way
+     * suggestions are found changes.
+     */
+    private void clearCache( )
+    {
+        SuggestionCache c = cache;
+        if( c != null )
+            c.clear( );
+    }
+
+    private void doClear( )
+    {
+        oldArray = null;
+        oldLive = 0;
+        occupied = 0;
+        theSize = 0;
+        for( int i = 0; i < array.length; i++ )
+            array[ i ] = null;
+    }
+
+    private int myhash( CharSequence x, int tableSize )
+    {
+        int hashVal = hash(x, tableSize);
+
+        hashVal %= tableSize;
+        if( hashVal < 0 )
+            hashVal += tableSize;
+
+        return hashVal;
+    }
+
+
+
+    /**
+     * The storage engine and the Bloom filter over its words, swapped as one.
+     */
+    private static final class View
+    {
+        View( WordTable s, BloomFilter b )
+        {
+            store = s;
+            bloom = b;
+        }
+
+        final WordTable store;      // Other storage engine, or null to use array
+        final BloomFilter bloom;    // Filter in front of contains, or null
+    }
+
+    private static class HashEntry
+    {
+        public String  element;   // the element
+        public boolean isActive;  // false if marked deleted
+        public int     frequency; // how common the word is
+
+        public HashEntry( String e )
+        {
+            this( e, true );
+        }
+
+        public HashEntry( String e, boolean i )
+        {
+            element  = e;
+            isActive = i;
+        }
+    }
+
+    //uses a hash function featuring a prime number to generate keys and tokens
+    public int hashing (String key, int tableSize) {
+        return hash(key, tableSize);
+    }
+
+    //the same function over any run of characters, shared with the other storage engines
+    static int hash (CharSequence key, int tableSize) {
+        int hashVal = 0;
+        for (int i = 0; i < key.length(); i++) {
+            hashVal = 41 * hashVal + key.charAt(i);
+        }
+        hashVal %= tableSize;
+        if (hashVal < 0) {
+            hashVal += tableSize;
+        }
+        return hashVal;
+    }
+
+    //the size of the initial table
+    private static final int DEFAULT_TABLE_SIZE = 17;
+    //the fewest old slots an incremental rehash may move per operation
+    private static final int MIN_MIGRATION_STEP = 4;
+
+    private HashEntry [ ] array; 		  // The array of elements
+    private int occupied;                 // The number of occupied cells
+    private int theSize;                  // Current size
+    private HashEntry [ ] oldArray;       // Table being moved out of, or null
+    private int migratePos;               // Next slot of oldArray to move
+    private int oldLive;                  // Active entries of oldArray not yet moved
+    private int migrationStep;            // Old slots moved per operation, 0 to rehash at once
+    private volatile View view = new View( null, null );  // The words and their filter
+    private volatile SuggestionEngine suggestionEngine;  // Other suggestion engine, or null to generate edits
+    private volatile SuggestionCache cache;  // Corrections already found, or null
+    private HashTableStats stats;         // Statistics, or null when not collected
+    private CompactWordTable frequencies; // Frequencies for a store that keeps none, or null
+    private int maxFrequency;             // Highest frequency ever set
+    private int suggestionLimit;          // Corrections returned by suggestions, 0 for all
+    private boolean rehashing;            // True while rehash reinserts
+    private int bloomExpected;            // Words the filter was sized for
+    private double bloomRate;             // False positive rate the filter was sized for
+    private final java.util.concurrent.atomic.LongAdder bloomRejects = new java.util.concurrent.atomic.LongAdder( );
+    private final java.util.concurrent.atomic.LongAdder bloomFalsePositives = new java.util.concurrent.atomic.LongAdder( );
+
+    /**
+     * Internal method to allocate array.
+     * @param arraySize the size of the array.
+     */
+    private void allocateArray( int arraySize )
+    {
+        array = new HashEntry[ nextPrime( arraySize ) ];
+    }
+
+    /**
+     * Internal method to find a prime number at least as large as n.
+     * @param n the starting number (must be positive).
+     * @return a prime number larger than or equal to n.
+     */
+    static int nextPrime( int n )
+    {
+        if( n % 2 == 0 )
+            n++;
+
+        for( ; !isPrime( n ); n += 2 )
+            ;
+
+        return n;
+    }
+
+    /**
+     * Internal method to test if a number is prime.
+     * Not an efficient algorithm.
+     * @param n the number to test.
+     * @return the result of the test.
+     */
+    static boolean isPrime( int n )
+    {
+        if( n == 2 || n == 3 )
+            return true;
+
+        if( n == 1 || n % 2 == 0 )
+            return false;
+
+        for( int i = 3; i * i <= n; i += 2 )
+            if( n % i == 0 )
+                return false;
+
+        return true;
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+
+        // Takes three parameters: a dictionary, a dictionary, and then text that is to be spellchecked
+        // Options of the form --name=value may come before them:
+        //   --dict=file      load a compiled dictionary instead of the two word lists
+        //   --compile=file   write the loaded dictionary in compiled form
+        //   --storage=name   engine holding the dictionary, see newTable
+        //   --suggest=name   "generate" (default), "deletion" for the deletion index or "dawg"
+        //   --max-distance=n edit distance the deletion index or dawg searches (default 2)
+        //   --parallel[=n]   check the text on n threads (default: one per core)
+        //   --chunk-lines=n  lines of text per parallel task (default 4096)
+        //   --pipeline[=n]   check in stages on separate threads, reporting each stage on stderr;
+        //                    n sizes the suggestion pool when there are no virtual threads (default: one per core)
+        //   --bloom[=rate]   put a Bloom filter in front of the table (default rate 0.01)
+        //   --cache=n        remember the corrections for up to n misspellings
+        //   --cache-policy=p "lru" (default) or "tinylfu"
+        //   --freq=file      word frequencies, one "word count" line each (the count is the last column)
+        //   --top=k          print only the k best corrections, nearest and most frequent first
+        //   --incremental=n  rehash incrementally, moving n slots per insert or remove
+        //   --stats          collect table statistics, publish them over JMX and print them at the end
+        List<String> files = new ArrayList<>();
+        Map<String, String> options = parseOptions(args, files);
+        args = files.toArray(new String[0]);
+        SpellCheckHashTable H;
+        int textArg;
+        if (options.containsKey("dict")) {
+            H = new SpellCheckHashTable(CompiledDictionary.open(new File(options.get("dict")).toPath()));
+            textArg = 0;
+        } else if (options.getOrDefault("storage", "table").equals("dawg")) {
+            //the graph is built once from all the words, so read both lists first
+            List<String> words = new ArrayList<>();
+            loadDictionary(args[0], words::add);
+            loadDictionary(args[1], words::add);
+            H = new SpellCheckHashTable(Dawg.build(words));
+            textArg = 2;
+        } else {
+            H = newTable(options);
+            if (options.containsKey("stats")) {
+                H.enableStats();
+            }
+            if (options.containsKey("incremental")) {
+                H.setIncrementalRehash(Integer.parseInt(options.get("incremental")));
+            }
+            //first and second arguments are the dictionaries
+            loadDictionary(args[0], H::insert);
+            loadDictionary(args[1], H::insert);
+            textArg = 2;
+        }
+        if (options.containsKey("compile")) {
+            CompiledDictionary.write(H, new File(options.get("compile")).toPath());
+        }
+        if (args.length <= textArg) {
+            return;
+        }
+        H.setSuggestionEngine(newSuggestionEngine(H, options));
+        if (options.containsKey("freq")) {
+            loadFrequencies(options.get("freq"), H);
+        }
+        if (options.containsKey("top")) {
+            H.setSuggestionLimit(Integer.parseInt(options.get("top")));
+        }
+        if (options.containsKey("cache")) {
+            H.enableSuggestionCache(Integer.parseInt(options.get("cache")), cachePolicy(options));
+        }
+        if (options.containsKey("stats")) {
+            try {
+                H.enableStats().register(args[textArg]);
+            } catch (javax.management.JMException e) {
+                e.printStackTrace();
+            }
+        }
+        if (options.containsKey("bloom")) {
+            String rate = options.get("bloom");
+            H.enableBloomFilter(H.size(), rate.equals("true") ? 0.01 : Double.parseDouble(rate));
+        }
+
+        //http://www.avajava.com/tutorials/lessons/how-do-i-read-a-string-from-a-file-line-by-line.html
+        //reads in line-by-line, tests if each word in the document is in the dictionary
+        //the last argument is the input to be tested
+        //everything printed goes through one buffered writer
+        MisspellingWriter out = new MisspellingWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(args[textArg])))) {
+            CheckPipeline pipeline = null;
+            if (options.containsKey("pipeline")) {
+                String threads = options.get("pipeline");
+                pipeline = new CheckPipeline(H,
+                        threads.equals("true") ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(threads));
+                pipeline.check(reader, out);
+            } else if (options.containsKey("parallel")) {
+                String threads = options.get("parallel");
+                int chunkLines = Integer.parseInt(options.getOrDefault("chunk-lines", "4096"));
+                ParallelChecker.check(H, reader, out,
+                        threads.equals("true") ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(threads),
+                        chunkLines);
+            } else {
+                H.check(reader, out);
+            }
+            out.flush();
+            //the reports go to stderr so the corrections can still be piped
+            if (pipeline != null) {
+                System.err.print(pipeline.report());
+            }
+            if (H.bloomFilter() != null) {
+                System.err.printf("Bloom filter: %d rejected, %d false positives, measured rate %.4f, expected %.4f%n",
+                        H.bloomRejects(), H.bloomFalsePositives(),
+                        H.bloomFalsePositiveRate(), H.bloomFilter().expectedFalsePositiveRate());
+            }
+            if (H.stats() != null) {
+                System.err.println("Table: " + H.stats());
+            }
+            if (H.suggestionCache() != null) {
+                SuggestionCache cache = H.suggestionCache();
+                System.err.printf("Suggestion cache: %d hits, %d misses, hit rate %.4f, %d evictions, %d rejected%n",
+                        cache.hits(), cache.misses(), cache.hitRate(), cache.evictions(), cache.rejections());
+            }
+        } catch (FileNotFoundException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Check every word of a text.
+     * @param text the text; it is read to the end but not closed.
+     * @param action called with each misspelling, in text order.
+     * @throws IOException if the text cannot be read.
+     */
+    public void check( Reader text, Consumer<? super Misspelling> action ) throws IOException
+    {
+        BufferedReader reader = text instanceof BufferedReader ? (BufferedReader) text : new BufferedReader( text );
+        WordTokenizer words = new WordTokenizer( );
+        int counter = 1;
+        for( String line = reader.readLine( ); line != null; line = reader.readLine( ) )
+            checkLine( line, counter++, words, action );
+    }
+
+    /**
+     * Check every word of a file.
+     * @param file the file, in the platform's default charset.
+     * @param action called with each misspelling, in text order.
+     * @throws IOException if the file cannot be read.
+     */
+    public void check( Path file, Consumer<? super Misspelling> action ) throws IOException
+    {
+        try( Reader text = Files.newBufferedReader( file, Charset.defaultCharset( ) ) )
+        {
+            check( text, action );
+        }
+    }
+
+    /**
+     * Check every word of some lines of text.
+     * @param lines the lines; the first is line 1.
+     * @param action called with each misspelling, in text order.
+     */
+    public void check( Iterable<String> lines, Consumer<? super Misspelling> action )
+    {
+        WordTokenizer words = new WordTokenizer( );
+        int counter = 1;
+        for( String line : lines )
+            checkLine( line, counter++, words, action );
+    }
+
+    /**
+     * Check every word of some lines of text.
+     * @param lines the lines; the first is line 1.
+     * @return the misspellings, in text order.
+     */
+    public List<Misspelling> check( Iterable<String> lines )
+    {
+        List<Misspelling> found = new ArrayList<>( );
+        check( lines, found::add );
+        return found;
+    }
+
+    //reports every misspelled word of one line of text
+    void checkLine(String line, int counter, WordTokenizer words, Consumer<? super Misspelling> action) {
+        //splits the line up into words of only letters and apostrophes
+        words.reset(line);
+        while (words.next()) {
+            if (!contains(words)) {
+                String s = words.toString();
+                //finds possible correctly spelled words ONLY if the word is misspelled
+                action.accept(new Misspelling(counter, words.start() + 1, s, suggestions(s)));
+            }
+        }
+    }
+
+    //hands on every line of a word list
+    private static void loadDictionary(String file, Consumer<String> words) throws IOException {
+        try (BufferedReader readDict = new BufferedReader(new InputStreamReader(new FileInputStream(file)))) {
+            String dictLine = readDict.readLine();
+            while (dictLine != null) {
+                words.accept(dictLine);
+                dictLine = readDict.readLine();
+            }
+        }
+    }
+
+    //reads "word count" lines; the count is the last column, so "word tag count" works too
+    private static void loadFrequencies(String file, SpellCheckHashTable H) throws IOException {
+        try (BufferedReader readFreq = new BufferedReader(new InputStreamReader(new FileInputStream(file)))) {
+            String freqLine = readFreq.readLine();
+            while (freqLine != null) {
+                String[] columns = freqLine.trim().split("\\s+");
+                if (columns.length >= 2) {
+                    H.setFrequency(columns[0], Integer.parseInt(columns[columns.length - 1]));
+                }
+                freqLine = readFreq.readLine();
+            }
+        }
+    }
+
+    //splits "--name=value" options away from the file arguments
+    static Map<String, String> parseOptions(String[] args, List<String> files) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                int eq = arg.indexOf('=');
+                if (eq < 0) {
+                    options.put(arg.substring(2), "true");
+                } else {
+                    options.put(arg.substring(2, eq), arg.substring(eq + 1));
+                }
+            } else {
+                files.add(arg);
+            }
+        }
+        return options;
+    }
+
+    //--storage picks the engine that holds the dictionary: "table" (default), "compact", "concurrent",
+    //"robinhood" or "symbol"; "dawg" is built in main, since it needs all the words at once
+    private static SpellCheckHashTable newTable(Map<String, String> options) {
+        String storage = options.getOrDefault("storage", "table");
+        switch (storage) {
+            case "table":
+                return new SpellCheckHashTable( );
+            case "compact":
+                return new SpellCheckHashTable(new CompactWordTable( ));
+            case "concurrent":
+                return new SpellCheckHashTable(new ConcurrentWordTable( ));
+            case "robinhood":
+                return new SpellCheckHashTable(new RobinHoodWordTable( ));
+            case "symbol":
+                return new SpellCheckHashTable(new SymbolDictionary( ));
+            default:
+                throw new IllegalArgumentException("Unknown storage: " + storage);
+        }
+    }
+
+    /**
+     * Use another engine for suggestions instead of the edit generator.
+     * @param engine the engine, or null to go back to the generator.
+     */
+    public void setSuggestionEngine( SuggestionEngine engine )
+    {
+        suggestionEngine = engine;
+        clearCache( );
+    }
+
+    /**
+     * Remember the corrections found for misspellings, so a word that
+     * repeats is only worked out once. The cache is emptied whenever
+     * insert or remove changes the dictionary.
+     * @param maximumSize the most misspellings to remember.
+     * @param policy how a full cache chooses what to keep.
+     */
+    public void enableSuggestionCache( int maximumSize, SuggestionCache.Policy policy )
+    {
+        cache = new SuggestionCache( maximumSize, policy );
+    }
+
+    /**
+     * Get the suggestion cache.
+     * @return the cache, or null if there is none.
+     */
+    public SuggestionCache suggestionCache( )
+    {
+        return cache;
+    }
+
+    /**
+     * Find the dictionary words a misspelling could have been meant as.
+     * @param s the misspelled word.
+     * @return the possible corrections.
+     */
+    public List<String> suggestions( String s )
+    {
+        SuggestionCache c = cache;
+        if( c == null )
+            return findSuggestions( s );
+
+        long generation = c.generation( );  // Before the words are read
+        List<String> found = c.get( s );
+        if( found == null )
+            found = c.put( s, findSuggestions( s ), generation );
+        return found;
+    }
+
+    private List<String> findSuggestions( String s )
+    {
+        if( suggestionLimit > 0 )
+            return suggestions( s, suggestionLimit );
+        if( suggestionEngine != null )
+            return suggestionEngine.suggest( s );
+        return generateSuggestions( s );
+    }
+
+    /**
+     * Find the k best corrections for a misspelling: the fewest edits
+     * away, then the most frequent. Generated edits come with their
+     * frequency from the same probe that finds them, and only those that
+     * would make the list are built as Strings. An engine is told after
+     * each correction how far the list still reaches, so it can skip the
+     * distances that could not. Not cached.
+     * @param s the misspelled word.
+     * @param k the most corrections to return.
+     * @return the corrections, best first.
+     */
+    public List<String> suggestions( String s, int k )
+    {
+        TopSuggestions top = new TopSuggestions( k );
+        if( suggestionEngine == null )
+        {
+            // Every generated edit is one away
+            generateSuggestions( s, ( edit, frequency ) -> {
+                if( top.canImprove( 1, frequency ) )
+                    top.offer( edit.toString( ), 1, frequency );
+                return top.canImprove( 1, maxFrequency );
+            } );
+            return top.result( );
+        }
+
+        // Engines hand corrections over nearest first, with their distance
+        suggestionEngine.suggest( s, ( w, distance ) -> {
+            if( top.canImprove( distance, maxFrequency ) )
+                top.offer( w, distance, frequency( w ) );
+            return top.bound( maxFrequency );
+        } );
+        return top.result( );
+    }
+
+    /**
+     * Return only the best few corrections from suggestions( String ),
+     * ranked as by suggestions( String, int ).
+     * @param k the most corrections to return, or 0 for all of them
+     *        in the order they are found.
+     */
+    public void setSuggestionLimit( int k )
+    {
+        if( k < 0 )
+            throw new IllegalArgumentException( "Negative suggestion limit: " + k );
+        suggestionLimit = k;
+        clearCache( );
+    }
+
+    /**
+     * Record how common a word is, for ranking corrections. It is kept
+     * beside the word in the table, or in the store if the store keeps
+     * frequencies; a read-only store that does not gets a side table.
+     * Only words in the dictionary can be given one; removing a word
+     * forgets its frequency.
+     * @param x the word.
+     * @param frequency its count, at least 0.
+     * @return false if the word is not in the dictionary.
+     */
+    public boolean setFrequency( String x, int frequency )
+    {
+        if( frequency < 0 )
+            throw new IllegalArgumentException( "Negative frequency for " + x );
+
+        boolean kept;
+        WordTable store = view.store;
+        if( store == null )
+        {
+            HashEntry entry = findEntry( x );
+            kept = entry != null;
+            if( kept )
+                entry.frequency = frequency;
+        }
+        else
+        {
+            kept = store.setFrequency( x, frequency );
+            if( !kept && store.contains( x ) )
+            {
+                if( frequencies == null )
+                    frequencies = new CompactWordTable( );
+                frequencies.setValue( x, frequency );
+                kept = true;
+            }
+        }
+
+        if( kept )
+        {
+            maxFrequency = Math.max( maxFrequency, frequency );
+            clearCache( );
+        }
+        return kept;
+    }
+
+    /**
+     * Get how common a word is.
+     * @param x the word.
+     * @return its frequency, or 0 if none was recorded or it is absent.
+     */
+    public int frequency( CharSequence x )
+    {
+        return Math.max( 0, lookup( x ) );
+    }
+
+    private static int maxDistance(Map<String, String> options) {
+        return Integer.parseInt(options.getOrDefault("max-distance", "2"));
+    }
+
+    //--suggest picks how corrections are found: "generate" (default), "deletion" or "dawg"
+    private static SuggestionEngine newSuggestionEngine(SpellCheckHashTable H, Map<String, String> options) {
+        String engine = options.getOrDefault("suggest", "generate");
+        switch (engine) {
+            case "generate":
+                return null;
+            case "deletion":
+                return new DeletionIndex(H, maxDistance(options));
+            case "dawg":
+                Dawg dawg = H.view.store instanceof Dawg ? (Dawg) H.view.store : Dawg.build(H);
+                dawg.setMaxDistance(maxDistance(options));
+                return dawg;
+            default:
+                throw new IllegalArgumentException("Unknown suggestion engine: " + engine);
+        }
+    }
+
+    //--cache-policy picks how a full suggestion cache chooses: "lru" (default) or "tinylfu"
+    private static SuggestionCache.Policy cachePolicy(Map<String, String> options) {
+        String policy = options.getOrDefault("cache-policy", "lru");
+        switch (policy) {
+            case "lru":
+                return SuggestionCache.Policy.LRU;
+            case "tinylfu":
+                return SuggestionCache.Policy.TINY_LFU;
+            default:
+                throw new IllegalArgumentException("Unknown cache policy: " + policy);
+        }
+    }
+
+    //tries every single insertion, deletion and adjacent swap against the table
+    private List<String> generateSuggestions(String s) {
+        //the set drops repeats in constant time and keeps the order they were found in
+        Set<String> gutSet = new LinkedHashSet<>();
+        generateSuggestions(s, (edit, frequency) -> {
+            gutSet.add(edit.toString());
+            return true;
+        });
+        return new ArrayList<>(gutSet);
+    }
+
+    //what the generator hands each edit that is in the table to, with the frequency found with it;
+    //the edit is only valid during the call, and returning false stops the generator
+    private interface EditSink {
+        boolean found(CharSequence edit, int frequency);
+    }
+
+    //the letters an insertion can add
+    private static final char[] ALPHABET_PLUS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ'".toCharArray();
+
+    //hands each edit that is in the table to found, stopping early once found returns false;
+    //the same word can be handed on more than once. Every edit is built in one reused char array
+    //and looked up through a view of it, so only the edits found ever become Strings
+    private void generateSuggestions(String s, EditSink found) {
+        int n = s.length();
+        char[] edit = new char[n + 1];
+        CharBuffer view = CharBuffer.wrap(edit);
+
+        //checks if you can add a letter and make a word; edit is s with a gap at i
+        s.getChars(0, n, edit, 1);
+        view.limit(n + 1);
+        for (int i = 0; i <= n; ++i) {
+            for (int j = 0; j < ALPHABET_PLUS.length; ++j) {
+                edit[i] = ALPHABET_PLUS[j];
+                if (!tryEdit(view, found)) {
+                    return;
+                }
+            }
+            if (i < n) {
+                edit[i] = s.charAt(i);
+            }
+        }
+
+        //checks if you can remove a letter and make a word; edit is s without letter i
+        if (n > 0) {
+            s.getChars(1, n, edit, 0);
+            view.limit(n - 1);
+            for (int i = 0; i < n; ++i) {
+                if (i > 0) {
+                    edit[i - 1] = s.charAt(i - 1);
+                }
+                if (!tryEdit(view, found)) {
+                    return;
+                }
+            }
+        }
+
+        //checks if you can swap adjacent letters
+        s.getChars(0, n, edit, 0);
+        view.limit(n);
+        for (int i = 0; i + 1 < n; ++i) {
+            edit[i] = s.charAt(i + 1);
+            edit[i + 1] = s.charAt(i);
+            if (!tryEdit(view, found)) {
+                return;
+            }
+            edit[i] = s.charAt(i);
+            edit[i + 1] = s.charAt(i + 1);
+        }
+    }
+
+    //one lookup gives both whether the edit is a word and how common it is
+    private boolean tryEdit(CharSequence edit, EditSink found) {
+        int frequency = lookup(edit);
+        return frequency < 0 || found.found(edit, frequency);
+    }
+}
@@ -0,0 +1,304 @@
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of the corrections found for misspelled words.
+ * Entries are kept in least-recently-used order. With the LRU policy the
+ * oldest entry simply makes room for a new one; with TINY_LFU a new word
+ * only replaces the oldest entry if it has been looked up more often,
+ * judged by a small count-min sketch that is halved periodically so old
+ * popularity fades. That keeps one-off typos from pushing out the
+ * misspellings a text repeats all the time.
+ *
+ * A large cache is split by word hash into up to 16 shards, each with its
+ * own share of the room, its own order and sketch, and its own lock, so
+ * threads looking up different words seldom wait for each other. The
+ * order and the policy then hold within each shard; a cache of fewer than
+ * 128 entries is one shard and keeps them exactly.
+ */
+public class SuggestionCache
+{
+    /**
+     * How a full cache chooses what to keep.
+     */
+    public enum Policy
+    {
+        LRU,
+        TINY_LFU
+    }
+
+    /**
+     * Construct the cache.
+     * @param maximumSize the most entries to keep.
+     * @param policy how a full cache chooses what to keep.
+     */
+    public SuggestionCache( int maximumSize, Policy policy )
+    {
+        if( maximumSize < 1 )
+            throw new IllegalArgumentException( "Cache needs room for at least one entry" );
+        int count = Math.min( MAX_SHARDS, Integer.highestOneBit( Math.max( 1, maximumSize / MIN_SHARD_SIZE ) ) );
+        shards = new Shard[ count ];
+        for( int i = 0; i < count; i++ )
+            shards[ i ] = new Shard( maximumSize / count + ( i < maximumSize % count ? 1 : 0 ), policy );
+    }
+
+    /**
+     * Look up the corrections for a word.
+     * @param word the misspelled word.
+     * @return the cached corrections, or null if there are none.
+     */
+    public List<String> get( String word )
+    {
+        List<String> found = shard( word ).get( word );
+        if( found == null )
+            misses.increment( );
+        else
+            hits.increment( );
+        return found;
+    }
+
+    /**
+     * Store the corrections for a word, if the policy lets it in.
+     * @param word the misspelled word.
+     * @param suggestions its corrections.
+     * @return the list as stored; callers must not change it.
+     */
+    public List<String> put( String word, List<String> suggestions )
+    {
+        return put( word, suggestions, generation( ) );
+    }
+
+    /**
+     * Store the corrections for a word, unless the cache was cleared
+     * since they started being worked out.
+     * @param word the misspelled word.
+     * @param suggestions its corrections.
+     * @param startGeneration generation( ) from before the dictionary was read.
+     * @return the list, unmodifiable; callers must not change it.
+     */
+    public List<String> put( String word, List<String> suggestions, long startGeneration )
+    {
+        return shard( word ).put( word, Collections.unmodifiableList( suggestions ), startGeneration );
+    }
+
+    /**
+     * Drop every entry, for when the dictionary changes, and start a new
+     * generation. The counters are kept.
+     */
+    public void clear( )
+    {
+        generation.incrementAndGet( );     // First, so puts from now on are turned away
+        for( Shard s : shards )
+            s.clear( );
+    }
+
+    /**
+     * Get the number of times the cache has been cleared. A lookup reads
+     * it before it starts, so its result can be turned away by put if
+     * the dictionary changes meanwhile.
+     * @return the generation.
+     */
+    public long generation( )
+    {
+        return generation.get( );
+    }
+
+    /**
+     * Get the number of entries.
+     * @return the size.
+     */
+    public int size( )
+    {
+        int size = 0;
+        for( Shard s : shards )
+            size += s.size( );
+        return size;
+    }
+
+    /**
+     * Get the number of lookups that found an entry.
+     * @return the hit count.
+     */
+    public long hits( )
+    {
+        return hits.sum( );
+    }
+
+    /**
+     * Get the number of lookups that found nothing.
+     * @return the miss count.
+     */
+    public long misses( )
+    {
+        return misses.sum( );
+    }
+
+    /**
+     * Get the number of entries pushed out to make room.
+     * @return the eviction count.
+     */
+    public long evictions( )
+    {
+        return evictions.sum( );
+    }
+
+    /**
+     * Get the number of new words TinyLFU refused to let in.
+     * @return the rejection count.
+     */
+    public long rejections( )
+    {
+        return rejections.sum( );
+    }
+
+    /**
+     * Get the share of lookups that found an entry.
+     * @return the hit rate, or 0 if there have been no lookups.
+     */
+    public double hitRate( )
+    {
+        long h = hits.sum( );
+        long lookups = h + misses.sum( );
+        return lookups == 0 ? 0 : (double) h / lookups;
+    }
+
+    /**
+     * Get the number of shards the cache is split into.
+     * @return the shard count.
+     */
+    public int shardCount( )
+    {
+        return shards.length;
+    }
+
+    private Shard shard( String word )
+    {
+        return shards[ spread( word.hashCode( ) * 0x9e3779b9 ) & ( shards.length - 1 ) ];
+    }
+
+    /**
+     * One part of the cache, with its own lock.
+     */
+    private final class Shard
+    {
+        Shard( int maximumSize, Policy policy )
+        {
+            this.maximumSize = maximumSize;
+            this.policy = policy;
+            entries = new LinkedHashMap<>( 16, 0.75f, true );
+            if( policy == Policy.TINY_LFU )
+            {
+                int width = Integer.highestOneBit( Math.max( 16, maximumSize ) * 2 - 1 );
+                sketch = new int[ SKETCH_DEPTH * width ];
+                sketchMask = width - 1;
+                sampleSize = 10L * maximumSize;
+            }
+        }
+
+        synchronized List<String> get( String word )
+        {
+            if( sketch != null )
+                recordAccess( word );
+            return entries.get( word );
+        }
+
+        synchronized List<String> put( String word, List<String> stored, long startGeneration )
+        {
+            if( startGeneration != generation.get( ) )
+                return stored;      // Found in a dictionary that has since changed
+            if( entries.containsKey( word ) || entries.size( ) < maximumSize )
+            {
+                entries.put( word, stored );
+                return stored;
+            }
+
+            Iterator<Map.Entry<String, List<String>>> oldest = entries.entrySet( ).iterator( );
+            String victim = oldest.next( ).getKey( );
+            if( policy == Policy.TINY_LFU && frequency( word ) <= frequency( victim ) )
+            {
+                rejections.increment( );
+                return stored;
+            }
+            oldest.remove( );
+            evictions.increment( );
+            entries.put( word, stored );
+            return stored;
+        }
+
+        synchronized void clear( )
+        {
+            entries.clear( );
+        }
+
+        synchronized int size( )
+        {
+            return entries.size( );
+        }
+
+        private void recordAccess( String word )
+        {
+            int h = spread( word.hashCode( ) );
+            for( int row = 0; row < SKETCH_DEPTH; row++ )
+            {
+                int i = index( h, row );
+                if( sketch[ i ] < MAX_COUNT )
+                    sketch[ i ]++;
+            }
+            if( ++additions >= sampleSize )
+            {
+                for( int i = 0; i < sketch.length; i++ )
+                    sketch[ i ] >>>= 1;
+                additions /= 2;
+            }
+        }
+
+        private int frequency( String word )
+        {
+            int h = spread( word.hashCode( ) );
+            int min = Integer.MAX_VALUE;
+            for( int row = 0; row < SKETCH_DEPTH; row++ )
+                min = Math.min( min, sketch[ index( h, row ) ] );
+            return min;
+        }
+
+        private int index( int h, int row )
+        {
+            int rowHash = spread( h + ROW_SEEDS[ row ] );
+            return row * ( sketchMask + 1 ) + ( rowHash & sketchMask );
+        }
+
+        private final int maximumSize;                        // Most entries kept
+        private final Policy policy;                          // How a full shard chooses
+        private final LinkedHashMap<String, List<String>> entries;  // Word -> corrections, oldest first
+        private int [ ] sketch;                               // Count-min rows, TINY_LFU only
+        private int sketchMask;                               // Row width - 1
+        private long sampleSize;                              // Accesses between halvings
+        private long additions;                               // Accesses since the last halving
+    }
+
+    private static int spread( int h )
+    {
+        h ^= h >>> 16;
+        h *= 0x45d9f3b;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int [ ] ROW_SEEDS = { 0x9e3779b9, 0x7f4a7c15, 0x632be59b, 0x2545f491 };
+    private static final int MAX_SHARDS = 16;
+    private static final int MIN_SHARD_SIZE = 64;         // Smaller caches are not split
+
+    private final Shard [ ] shards;                       // By word hash
+    private final AtomicLong generation = new AtomicLong( );  // Clears so far
+    private final LongAdder hits = new LongAdder( );
+    private final LongAdder misses = new LongAdder( );
+    private final LongAdder evictions = new LongAdder( );
+    private final LongAdder rejections = new LongAdder( );
+}
@@ -0,0 +1,49 @@
+import java.util.List;
+
+/**
+ * A way of finding corrections for a misspelled word.
+ * SpellCheckHashTable generates single edits itself unless it is given one.
+ */
+public interface SuggestionEngine
+{
+    /**
+     * Find the dictionary words a misspelling could have been meant as.
+     * @param word the misspelled word.
+     * @return the possible corrections, best first.
+     */
+    List<String> suggest( String word );
+
+    /**
+     * Hand corrections to a sink, nearest first, with the distance the
+     * engine found for each. The sink answers with the farthest distance
+     * it still wants, and the engine stops before going past it. The
+     * default lists every correction and measures each one.
+     * @param word the misspelled word.
+     * @param found the sink.
+     */
+    default void suggest( String word, Corrections found )
+    {
+        int bound = Integer.MAX_VALUE;
+        for( String w : suggest( word ) )
+        {
+            int distance = DeletionIndex.editDistance( word, w, word.length( ) + w.length( ) );
+            if( distance > bound )
+                return;
+            bound = found.accept( w, distance );
+        }
+    }
+
+    /**
+     * Takes corrections as an engine finds them.
+     */
+    interface Corrections
+    {
+        /**
+         * Take one correction.
+         * @param word the correction.
+         * @param distance its edit distance from the misspelling.
+         * @return the farthest distance still worth finding.
+         */
+        int accept( String word, int distance );
+    }
+}
@@ -0,0 +1,191 @@
+import java.util.BitSet;
+
+/**
+ * Dictionary kept as a set of symbol IDs. The words themselves live in a
+ * SymbolTable, which may be shared with a concordance or another
+ * dictionary, so the vocabulary is stored once however many structures
+ * use it; this table only holds one bit per ID, and an int per ID once
+ * frequencies are set. A removed word keeps its ID, so adding it back
+ * costs nothing.
+ */
+public class SymbolDictionary implements WordTable
+{
+    /**
+     * Construct a dictionary over a symbol table of its own.
+     */
+    public SymbolDictionary( )
+    {
+        this( new SymbolTable( ) );
+    }
+
+    /**
+     * Construct a dictionary over a shared symbol table.
+     * @param symbols the table that holds the words.
+     */
+    public SymbolDictionary( SymbolTable symbols )
+    {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Insert a word. If it is already present, do nothing.
+     * @param x the word to insert.
+     * @return true if the word was added.
+     */
+    public boolean insert( String x )
+    {
+        return insert( symbols.intern( x ) );
+    }
+
+    /**
+     * Insert a word by its ID in the symbol table.
+     * @param id the ID, as given by the symbol table.
+     * @return true if the word was added.
+     * @throws IllegalArgumentException if the symbol table has no such ID.
+     */
+    public boolean insert( int id )
+    {
+        if( id < 0 || id >= symbols.size( ) )
+            throw new IllegalArgumentException( "No symbol " + id + " in a table of " + symbols.size( ) );
+        if( members.get( id ) )
+            return false;
+        members.set( id );
+        if( id < frequencies.length )
+            frequencies[ id ] = 0;
+        theSize++;
+        return true;
+    }
+
+    /**
+     * Remove a word.
+     * @param x the word to remove.
+     * @return true if the word was removed.
+     */
+    public boolean remove( String x )
+    {
+        int id = symbols.find( x );
+        if( id < 0 || !members.get( id ) )
+            return false;
+        members.clear( id );
+        theSize--;
+        return true;
+    }
+
+    /**
+     * Find a word.
+     * @param x the characters of the word to search for.
+     * @return true if the word is present.
+     */
+    public boolean contains( CharSequence x )
+    {
+        return contains( symbols.find( x ) );
+    }
+
+    /**
+     * Find a word by its ID in the symbol table.
+     * @param id the ID, or -1 for a word the table does not know.
+     * @return true if the word is present.
+     */
+    public boolean contains( int id )
+    {
+        return id >= 0 && members.get( id );
+    }
+
+    /**
+     * Find a word and its frequency.
+     * @param x the characters of the word to search for.
+     * @return its frequency, 0 if none was set, or -1 if it is absent.
+     */
+    public int lookup( CharSequence x )
+    {
+        int id = symbols.find( x );
+        if( !contains( id ) )
+            return -1;
+        return id < frequencies.length ? frequencies[ id ] : 0;
+    }
+
+    /**
+     * Store a word's frequency under its ID.
+     * @param x a word in the dictionary.
+     * @param frequency its count.
+     * @return false if the word is absent.
+     */
+    public boolean setFrequency( String x, int frequency )
+    {
+        int id = symbols.find( x );
+        if( !contains( id ) )
+            return false;
+        if( id >= frequencies.length )
+            frequencies = java.util.Arrays.copyOf( frequencies, Math.max( id + 1, 2 * frequencies.length ) );
+        frequencies[ id ] = frequency;
+        return true;
+    }
+
+    /**
+     * Get the symbol table that holds the words.
+     * @return the symbol table.
+     */
+    public SymbolTable symbols( )
+    {
+        return symbols;
+    }
+
+    /**
+     * Get the number of words.
+     * @return the size.
+     */
+    public int size( )
+    {
+        return theSize;
+    }
+
+    /**
+     * Get the number of slots in the underlying symbol table.
+     * @return the capacity.
+     */
+    public int capacity( )
+    {
+        return symbols.capacity( );
+    }
+
+    /**
+     * Make the dictionary logically empty. The symbol table is left alone.
+     */
+    public void makeEmpty( )
+    {
+        members.clear( );
+        frequencies = new int[ 0 ];
+        theSize = 0;
+    }
+
+    /**
+     * Iterate over the words, in ID order.
+     * @return an iterator that builds each word as a String.
+     */
+    public java.util.Iterator<String> iterator( )
+    {
+        return new java.util.Iterator<String>( )
+        {
+            private int next = members.nextSetBit( 0 );
+
+            public boolean hasNext( )
+            {
+                return next >= 0;
+            }
+
+            public String next( )
+            {
+                if( !hasNext( ) )
+                    throw new java.util.NoSuchElementException( );
+                int id = next;
+                next = members.nextSetBit( id + 1 );
+                return symbols.word( id );
+            }
+        };
+    }
+
+    private final SymbolTable symbols;           // Where the words are kept
+    private final BitSet members = new BitSet( );  // IDs of the words present
+    private int [ ] frequencies = new int[ 0 ];    // Frequency by ID, grown on first use
+    private int theSize;
+}
@@ -0,0 +1,326 @@
+import java.util.Arrays;
+
+/**
+ * Interns words as dense int IDs: the first word added is 0, the next 1,
+ * and so on. The characters of every word are kept once, length-prefixed
+ * in a char arena, and a linear probing table of IDs finds them by hash.
+ * The hash of each word is kept by ID, so probes compare ints before
+ * chars and growing the table never rehashes a word.
+ *
+ * Lookups take any CharSequence, or a span of a char array, so a word
+ * that is already known costs no allocation. One table can back both a
+ * SymbolDictionary and an ArrayAvlConcordance, so the two tools share a
+ * single copy of the vocabulary and compare words by ID.
+ * Not safe for concurrent use.
+ */
+public class SymbolTable
+{
+    /**
+     * Construct an empty table.
+     */
+    public SymbolTable( )
+    {
+        this( DEFAULT_CAPACITY );
+    }
+
+    /**
+     * Construct an empty table.
+     * @param capacity the number of words to make room for.
+     */
+    public SymbolTable( int capacity )
+    {
+        capacity = Math.max( 1, capacity );
+        slots = new int[ Integer.highestOneBit( 2 * capacity - 1 ) << 1 ];
+        offsets = new int[ capacity ];
+        hashes = new int[ capacity ];
+        arena = new char[ 8 * capacity ];
+    }
+
+    /**
+     * Get the ID of a word, adding it if it is new.
+     * @param x the word.
+     * @return its ID.
+     */
+    public int intern( CharSequence x )
+    {
+        int h = hash( x );
+        int pos = findSlot( x, h );
+        if( slots[ pos ] != 0 )
+            return slots[ pos ] - 1;
+        return add( x, h, pos );
+    }
+
+    /**
+     * Get the ID of a word given as part of a char array, adding it if it is new.
+     * @param chars the array.
+     * @param start where the word starts.
+     * @param length its length.
+     * @return its ID.
+     */
+    public int intern( char [ ] chars, int start, int length )
+    {
+        int h = hash( chars, start, length );
+        int pos = findSlot( chars, start, length, h );
+        if( slots[ pos ] != 0 )
+            return slots[ pos ] - 1;
+        int id = newId( length, h, pos );
+        System.arraycopy( chars, start, arena, offsets[ id ] + 1, length );
+        return id;
+    }
+
+    /**
+     * Get the ID of a word.
+     * @param x the word.
+     * @return its ID, or -1 if it was never added.
+     */
+    public int find( CharSequence x )
+    {
+        return slots[ findSlot( x, hash( x ) ) ] - 1;
+    }
+
+    /**
+     * Get the ID of a word given as part of a char array.
+     * @param chars the array.
+     * @param start where the word starts.
+     * @param length its length.
+     * @return its ID, or -1 if it was never added.
+     */
+    public int find( char [ ] chars, int start, int length )
+    {
+        return slots[ findSlot( chars, start, length, hash( chars, start, length ) ) ] - 1;
+    }
+
+    /**
+     * Get the number of words.
+     * @return the size.
+     */
+    public int size( )
+    {
+        return theSize;
+    }
+
+    /**
+     * Get the number of slots in the hash table.
+     * @return the capacity.
+     */
+    public int capacity( )
+    {
+        return slots.length;
+    }
+
+    /**
+     * Get a word.
+     * @param id its ID.
+     * @return the word, as a new String.
+     */
+    public String word( int id )
+    {
+        int offset = offsets[ checkId( id ) ];
+        return new String( arena, offset + 1, arena[ offset ] );
+    }
+
+    /**
+     * Get the length of a word.
+     * @param id its ID.
+     * @return its length.
+     */
+    public int length( int id )
+    {
+        return arena[ offsets[ checkId( id ) ] ];
+    }
+
+    /**
+     * Compare a run of characters with a word, as String.compareTo would.
+     * @param x the characters.
+     * @param id the word's ID.
+     * @return negative, zero or positive as x is before, equal to or after the word.
+     */
+    public int compare( CharSequence x, int id )
+    {
+        int offset = offsets[ checkId( id ) ];
+        int length = arena[ offset ];
+        int n = Math.min( length, x.length( ) );
+        for( int i = 0; i < n; i++ )
+        {
+            char c = arena[ offset + 1 + i ];
+            if( x.charAt( i ) != c )
+                return x.charAt( i ) - c;
+        }
+        return x.length( ) - length;
+    }
+
+    /**
+     * Compare two words, as String.compareTo would.
+     * @param a one ID.
+     * @param b the other.
+     * @return negative, zero or positive as a is before, equal to or after b.
+     */
+    public int compare( int a, int b )
+    {
+        if( a == b )
+            return 0;
+        int offsetA = offsets[ checkId( a ) ];
+        int offsetB = offsets[ checkId( b ) ];
+        return Arrays.compare( arena, offsetA + 1, offsetA + 1 + arena[ offsetA ],
+                               arena, offsetB + 1, offsetB + 1 + arena[ offsetB ] );
+    }
+
+    private int checkId( int id )
+    {
+        if( id < 0 || id >= theSize )
+            throw new IndexOutOfBoundsException( "No symbol " + id );
+        return id;
+    }
+
+    /**
+     * Probe for x.
+     * @return the slot holding its ID, or the empty slot where it would go.
+     */
+    private int findSlot( CharSequence x, int h )
+    {
+        int mask = slots.length - 1;
+        int pos = h & mask;
+        while( slots[ pos ] != 0 )
+        {
+            int id = slots[ pos ] - 1;
+            if( hashes[ id ] == h && matches( id, x ) )
+                break;
+            pos = ( pos + 1 ) & mask;
+        }
+        return pos;
+    }
+
+    /**
+     * Probe for a span of a char array.
+     * @return the slot holding its ID, or the empty slot where it would go.
+     */
+    private int findSlot( char [ ] chars, int start, int length, int h )
+    {
+        int mask = slots.length - 1;
+        int pos = h & mask;
+        while( slots[ pos ] != 0 )
+        {
+            int id = slots[ pos ] - 1;
+            if( hashes[ id ] == h && length == arena[ offsets[ id ] ]
+                    && Arrays.equals( arena, offsets[ id ] + 1, offsets[ id ] + 1 + length,
+                                      chars, start, start + length ) )
+                break;
+            pos = ( pos + 1 ) & mask;
+        }
+        return pos;
+    }
+
+    private boolean matches( int id, CharSequence x )
+    {
+        int offset = offsets[ id ];
+        int length = arena[ offset ];
+        if( length != x.length( ) )
+            return false;
+        for( int i = 0; i < length; i++ )
+            if( arena[ offset + 1 + i ] != x.charAt( i ) )
+                return false;
+        return true;
+    }
+
+    /**
+     * Store a new word in the empty slot pos.
+     * @return its ID.
+     */
+    private int add( CharSequence x, int h, int pos )
+    {
+        int id = newId( x.length( ), h, pos );
+        int offset = offsets[ id ] + 1;
+        for( int i = 0; i < x.length( ); i++ )
+            arena[ offset + i ] = x.charAt( i );
+        return id;
+    }
+
+    /**
+     * Give a new word of some length an ID in the empty slot pos and room
+     * in the arena; the caller copies its characters in after the length.
+     * @return its ID.
+     */
+    private int newId( int length, int h, int pos )
+    {
+        if( length > Character.MAX_VALUE )
+            throw new IllegalArgumentException( "Word too long: " + length );
+        int id = theSize;
+        if( id == offsets.length )
+        {
+            offsets = Arrays.copyOf( offsets, 2 * id );
+            hashes = Arrays.copyOf( hashes, 2 * id );
+        }
+        int needed = arenaSize + length + 1;
+        if( needed < 0 )
+            throw new IllegalStateException( "Symbol arena is full" );
+        if( needed > arena.length )
+            arena = Arrays.copyOf( arena, Math.max( needed, 2 * arena.length ) );
+
+        offsets[ id ] = arenaSize;
+        arena[ arenaSize ] = (char) length;
+        arenaSize += length + 1;
+        hashes[ id ] = h;
+        slots[ pos ] = id + 1;
+        theSize++;
+
+        if( 2 * theSize > slots.length )
+            rehash( );
+        return id;
+    }
+
+    /**
+     * Double the table, placing every ID by its stored hash.
+     */
+    private void rehash( )
+    {
+        slots = new int[ 2 * slots.length ];
+        int mask = slots.length - 1;
+        for( int id = 0; id < theSize; id++ )
+        {
+            int pos = hashes[ id ] & mask;
+            while( slots[ pos ] != 0 )
+                pos = ( pos + 1 ) & mask;
+            slots[ pos ] = id + 1;
+        }
+    }
+
+    /**
+     * String's hash of x, mixed so the low bits are usable with a
+     * power-of-two table.
+     */
+    private static int hash( CharSequence x )
+    {
+        int h = 0;
+        for( int i = 0; i < x.length( ); i++ )
+            h = 31 * h + x.charAt( i );
+        return mix( h );
+    }
+
+    /**
+     * The same hash over a span of a char array.
+     */
+    private static int hash( char [ ] chars, int start, int length )
+    {
+        int h = 0;
+        for( int i = 0; i < length; i++ )
+            h = 31 * h + chars[ start + i ];
+        return mix( h );
+    }
+
+    private static int mix( int h )
+    {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private int [ ] slots;      // ID + 1 per slot, 0 if empty
+    private int [ ] offsets;    // Arena offset of each word, by ID
+    private int [ ] hashes;     // Hash of each word, by ID
+    private char [ ] arena;     // Length-prefixed words, back to back
+    private int arenaSize;      // Chars of the arena in use
+    private int theSize;        // Words interned
+}
@@ -0,0 +1,125 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * The k best corrections seen so far, held in a bounded heap.
+ * A correction ranks above another if it is fewer edits away, then if its
+ * word is more frequent, then if it was offered first. The worst of the k
+ * sits at the top of the heap, so each offer costs O(log k), and
+ * canImprove and bound tell a search when nothing it could still find
+ * would make the list.
+ */
+public class TopSuggestions
+{
+    /**
+     * Construct an empty list.
+     * @param k the most corrections to keep.
+     */
+    public TopSuggestions( int k )
+    {
+        if( k < 1 )
+            throw new IllegalArgumentException( "Need room for at least one suggestion" );
+        this.k = k;
+        heap = new PriorityQueue<>( k, TopSuggestions::compareWorstFirst );
+    }
+
+    /**
+     * Offer a correction; duplicates are ignored.
+     * @param word the correction.
+     * @param distance its edit distance from the misspelling.
+     * @param frequency how common the word is.
+     */
+    public void offer( String word, int distance, int frequency )
+    {
+        if( !seen.add( word ) )
+            return;
+        Candidate c = new Candidate( word, distance, frequency, offered++ );
+        if( heap.size( ) < k )
+            heap.add( c );
+        else if( compareWorstFirst( c, heap.peek( ) ) > 0 )
+        {
+            heap.poll( );
+            heap.add( c );
+        }
+    }
+
+    /**
+     * Find out if a correction could still make the list.
+     * @param distance the least distance any further correction can have.
+     * @param maxFrequency the greatest frequency any further correction can have.
+     * @return false if the list is full and no such correction would beat its worst.
+     */
+    public boolean canImprove( int distance, int maxFrequency )
+    {
+        if( heap.size( ) < k )
+            return true;
+        Candidate worst = heap.peek( );
+        if( distance != worst.distance )
+            return distance < worst.distance;
+        return maxFrequency > worst.frequency;
+    }
+
+    /**
+     * Find how far away a correction can be and still make the list.
+     * @param maxFrequency the greatest frequency any correction can have.
+     * @return Integer.MAX_VALUE while the list has room; otherwise the
+     * distance of its worst, or one less if no frequency could beat it.
+     */
+    public int bound( int maxFrequency )
+    {
+        if( heap.size( ) < k )
+            return Integer.MAX_VALUE;
+        Candidate worst = heap.peek( );
+        return maxFrequency > worst.frequency ? worst.distance : worst.distance - 1;
+    }
+
+    /**
+     * Get the corrections kept, best first.
+     * @return a new list of at most k words.
+     */
+    public List<String> result( )
+    {
+        List<Candidate> sorted = new ArrayList<>( heap );
+        sorted.sort( ( a, b ) -> compareWorstFirst( b, a ) );
+        List<String> words = new ArrayList<>( sorted.size( ) );
+        for( Candidate c : sorted )
+            words.add( c.word );
+        return words;
+    }
+
+    /**
+     * Order candidates from worst to best.
+     */
+    private static int compareWorstFirst( Candidate a, Candidate b )
+    {
+        if( a.distance != b.distance )
+            return Integer.compare( b.distance, a.distance );
+        if( a.frequency != b.frequency )
+            return Integer.compare( a.frequency, b.frequency );
+        return Long.compare( b.order, a.order );
+    }
+
+    private static final class Candidate
+    {
+        Candidate( String w, int d, int f, long o )
+        {
+            word      = w;
+            distance  = d;
+            frequency = f;
+            order     = o;
+        }
+
+        final String word;
+        final int    distance;
+        final int    frequency;
+        final long   order;
+    }
+
+    private final int k;                          // Most corrections kept
+    private final PriorityQueue<Candidate> heap;  // The best so far, worst on top
+    private final Set<String> seen = new HashSet<>( );  // Every word offered
+    private long offered;                         // Offers so far, for ties
+}
@@ -1,7 +1,22 @@
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.util.LinkedList;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
 import java.util.Scanner;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 //Name: Benjamin Lerner
 
@@ -17,12 +32,32 @@ public class TwoParamObj<AnyType extends Comparable<? super AnyType>>
 	}
 
 	/**
-	 * Insert into the tree; duplicates are ignored.
+	 * Insert into the tree; a duplicate only gets the line added.
 	 * @param x the item to insert.
+	 * @param line the line it appears on. Lines may come in any order,
+	 *        but one lower than the item's last line costs rewriting
+	 *        its posting list.
 	 */
 	public void insert( AnyType x, int line)
 	{
-		root = insert( x, line, root );
+		int depth = 0;
+		int compareResult = 0;
+		MyNode<AnyType> t = root;
+		while( t != null )
+		{
+			compareResult = x.compareTo( t.element );
+			if( compareResult == 0 ) {
+				clearPath( depth );
+				addLine(line, t);
+				return;     // Shape unchanged, nothing to rebalance
+			}
+			depth = push( t, depth );
+			t = compareResult < 0 ? t.left : t.right;
+		}
+
+		MyNode<AnyType> aNode = new MyNode<> (x, null, null);
+		addLine(line, aNode);
+		attach( aNode, depth, compareResult < 0 );
 	}
 
 	/**
@@ -31,42 +66,150 @@ public class TwoParamObj<AnyType extends Comparable<? super AnyType>>
 	 */
 
 	/**
-	 * Internal method to insert into a subtree.
-	 * @param x the item to insert.
-	 * @param t the node that roots the subtree.
-	 * @return the new root of the subtree.
+	 * Insert a word given as characters, for a TwoParamObj<String>.
+	 * The characters are only copied into a String when the word is new,
+	 * so they may come from a reused buffer such as a WordTokenizer.
+	 * @param x the word to insert.
+	 * @param line the line it appears on, in any order as for insert.
+	 * @return about how many bytes of heap the tree grew by: a new node,
+	 *         String and posting list, or the growth of the word's list.
 	 */
-
-	//note how it takes a "line" int as well
-	private MyNode<AnyType> insert( AnyType x, int line, MyNode<AnyType> t )
+	@SuppressWarnings( "unchecked" )
+	public long insertWord( CharSequence x, int line )
 	{
-		if( t == null ) {
-			MyNode<AnyType> aNode = new MyNode<> (x, null, null);
-			addLine(line, aNode);
-			return aNode;
+		int depth = 0;
+		int compareResult = 0;
+		MyNode<AnyType> t = root;
+		while( t != null )
+		{
+			compareResult = WordTokenizer.compare( x, (CharSequence) t.element );
+			if( compareResult == 0 ) {
+				clearPath( depth );
+				long before = t.lines.footprint( );
+				addLine(line, t);
+				return t.lines.footprint( ) - before;
+			}
+			depth = push( t, depth );
+			t = compareResult < 0 ? t.left : t.right;
 		}
 
-		int compareResult = x.compareTo( t.element );
+		MyNode<AnyType> aNode = new MyNode<> ((AnyType) x.toString( ), null, null);
+		addLine(line, aNode);
+		attach( aNode, depth, compareResult < 0 );
+		return NODE_BYTES + STRING_BYTES + PostingList.arrayBytes( 2L * x.length( ) ) + aNode.lines.footprint( );
+	}
 
-		if( compareResult < 0 )
-			t.left = insert( x, line, t.left );
-		else if( compareResult > 0 )
-			t.right = insert( x, line, t.right );
-		else {
-			addLine(line, t);
+	/**
+	 * Replace the contents of the tree with sorted items, building a
+	 * perfectly balanced tree in O(n) with no comparisons or rotations.
+	 * @param items the items, in strictly ascending order.
+	 * @param lines the posting list of each item; the lists become the tree's.
+	 * @throws IllegalArgumentException if the items are out of order
+	 *         or the lists do not match them.
+	 */
+	public void bulkLoad( List<? extends AnyType> items, List<PostingList> lines )
+	{
+		if( items.size( ) != lines.size( ) )
+			throw new IllegalArgumentException( items.size( ) + " items but " + lines.size( ) + " posting lists" );
+		for( int i = 1; i < items.size( ); i++ )
+			if( items.get( i - 1 ).compareTo( items.get( i ) ) >= 0 )
+				throw new IllegalArgumentException( "Items out of order at " + i );
+
+		root = build( items, lines, 0, items.size( ) - 1 );
+		theSize = items.size( );
+	}
+
+	/**
+	 * Internal method to build a balanced subtree from sorted items.
+	 * @return the root of the subtree of items low..high.
+	 */
+	private MyNode<AnyType> build( List<? extends AnyType> items, List<PostingList> lines,
+			int low, int high )
+	{
+		if( low > high )
+			return null;
+
+		int mid = ( low + high ) >>> 1;
+		MyNode<AnyType> t = new MyNode<>( items.get( mid ), build( items, lines, low, mid - 1 ),
+				build( items, lines, mid + 1, high ) );
+		t.lines = lines.get( mid );
+		t.height = Math.max( height( t.left ), height( t.right ) ) + 1;
+		return t;
+	}
+
+	/**
+	 * Record a node on the insertion path.
+	 * @return the new path depth.
+	 */
+	private int push( MyNode<AnyType> t, int depth )
+	{
+		if( depth == path.length )
+			path = Arrays.copyOf( path, 2 * depth );
+		path[ depth ] = t;
+		return depth + 1;
+	}
+
+	/**
+	 * Hang a new leaf under the last node of the insertion path, then
+	 * rebalance back up the path. Once a subtree ends up as tall as it
+	 * was before the insert, nothing above it can change, so stop.
+	 * @param aNode the new leaf.
+	 * @param depth the length of the path.
+	 * @param left true to make it a left child.
+	 */
+	private void attach( MyNode<AnyType> aNode, int depth, boolean left )
+	{
+		theSize++;
+		if( depth == 0 ) {
+			root = aNode;
+			return;
 		}
-		return balance( t );
+		if( left )
+			path[ depth - 1 ].left = aNode;
+		else
+			path[ depth - 1 ].right = aNode;
+
+		for( int i = depth - 1; i >= 0; i-- )
+		{
+			MyNode<AnyType> t = path[ i ];
+			int oldHeight = t.height;
+			MyNode<AnyType> b = balance( t );
+			if( b != t ) {
+				if( i == 0 )
+					root = b;
+				else if( path[ i - 1 ].left == t )
+					path[ i - 1 ].left = b;
+				else
+					path[ i - 1 ].right = b;
+			}
+			if( b.height == oldHeight )
+				break;
+		}
+		clearPath( depth );
+	}
 
+	/**
+	 * Drop the node references of an insertion path, so the reused
+	 * array keeps no removed nodes alive.
+	 * @param depth the length of the path.
+	 */
+	private void clearPath( int depth )
+	{
+		Arrays.fill( path, 0, depth, null );
 	}
 
-	//adds a line int a node's linkedlist
+	//adds a line to a node's posting list; lines usually come in order, and one that doesn't is put in its place
 	public void addLine(int line, MyNode<AnyType> t) {
-		t.lineList.add(line);
+		t.lines.insert(line);
 	}
 
 	public void remove( AnyType x )
 	{
-		root = remove( x, root );
+		if( contains( x ) )
+		{
+			root = remove( x, root );
+			theSize--;
+		}
 	}
 
 
@@ -89,7 +232,9 @@ public class TwoParamObj<AnyType extends Comparable<? super AnyType>>
 			t.right = remove( x, t.right );
 		else if( t.left != null && t.right != null ) // Two children
 		{
-			t.element = findMin( t.right ).element;
+			MyNode<AnyType> min = findMin( t.right );
+			t.element = min.element;
+			t.lines = min.lines;     // The lines go with the item
 			t.right = remove( t.element, t.right );
 		}
 		else
@@ -129,12 +274,69 @@ public class TwoParamObj<AnyType extends Comparable<? super AnyType>>
 		return contains( x, root );
 	}
 
+	/**
+	 * Find out if an item appears on a line.
+	 * @param x the item to search for.
+	 * @param line the line.
+	 * @return true if x was inserted with that line.
+	 */
+	public boolean appearsOn( AnyType x, int line )
+	{
+		MyNode<AnyType> t = find( x, root );
+		return t != null && t.lines.contains( line );
+	}
+
+	/**
+	 * Get the lines an item appears on.
+	 * @param x the item to search for.
+	 * @return its posting list, or null if x is not found.
+	 *         It is the tree's own list, so do not add to it.
+	 */
+	public PostingList lines( AnyType x )
+	{
+		MyNode<AnyType> t = find( x, root );
+		return t == null ? null : t.lines;
+	}
+
+	/**
+	 * Find a word given as characters, in a TwoParamObj<String>.
+	 * @param x the word to search for.
+	 * @return true if x is found.
+	 */
+	public boolean containsWord( CharSequence x )
+	{
+		MyNode<AnyType> t = root;
+		while( t != null )
+		{
+			int compareResult = WordTokenizer.compare( x, (CharSequence) t.element );
+
+			if( compareResult < 0 )
+				t = t.left;
+			else if( compareResult > 0 )
+				t = t.right;
+			else
+				return true;    // Match
+		}
+
+		return false;   // No match
+	}
+
 	/**
 	 * Make the tree logically empty.
 	 */
 	public void makeEmpty( )
 	{
 		root = null;
+		theSize = 0;
+	}
+
+	/**
+	 * Get the number of items in the tree.
+	 * @return the size.
+	 */
+	public int size( )
+	{
+		return theSize;
 	}
 
 	/**
@@ -154,10 +356,287 @@ public class TwoParamObj<AnyType extends Comparable<? super AnyType>>
 		if( isEmpty( ) )
 			System.out.println( "Empty tree" );
 		else
-			printTree( root );
+		{
+			Writer out = new BufferedWriter( new OutputStreamWriter( System.out ), 1 << 16 );
+			try
+			{
+				export( out );
+				out.flush( );
+			}
+			catch( IOException e )
+			{
+				throw new UncheckedIOException( e );
+			}
+		}
+	}
+
+	/**
+	 * Write the tree contents in sorted order, in the format of printTree.
+	 * @param out where to write; pass a buffered writer.
+	 * @throws IOException if out fails.
+	 */
+	public void export( Writer out ) throws IOException
+	{
+		for( Cursor c = cursor( ); c.next( ); )
+			writeEntry( out, c.element( ), c.lines( ) );
+	}
+
+	/**
+	 * Hand every item and its posting list to an action, in sorted order.
+	 * @param action the action; it must not change the tree.
+	 */
+	public void forEachEntry( java.util.function.BiConsumer<? super AnyType, PostingList> action )
+	{
+		for( Cursor c = cursor( ); c.next( ); )
+			action.accept( c.element( ), c.lines( ) );
+	}
+
+	/**
+	 * A position in the tree that moves forward in sorted order, keeping
+	 * the path back up on a stack so it allocates nothing per step.
+	 * Changing the tree invalidates it.
+	 */
+	public class Cursor
+	{
+		private Cursor( )
+		{
+			stack = newNodes( height( root ) + 2 );
+		}
+
+		/**
+		 * Move to the next item.
+		 * @return true if there is one; false at the end of the range.
+		 */
+		public boolean next( )
+		{
+			if( depth == 0 )
+			{
+				current = null;
+				return false;
+			}
+			current = stack[ --depth ];
+			pushLeft( current.right );
+			if( !inRange( current ) )
+			{
+				depth = 0;
+				current = null;
+				return false;
+			}
+			return true;
+		}
+
+		/**
+		 * Get the current item.
+		 * @return the item.
+		 */
+		public AnyType element( )
+		{
+			return current( ).element;
+		}
+
+		/**
+		 * Get the lines the current item appears on.
+		 * @return the tree's own posting list; do not add to it.
+		 */
+		public PostingList lines( )
+		{
+			return current( ).lines;
+		}
+
+		/**
+		 * Write the current item in the format of printTree.
+		 * @param out where to write.
+		 * @throws IOException if out fails.
+		 */
+		public void writeTo( Writer out ) throws IOException
+		{
+			writeEntry( out, element( ), lines( ) );
+		}
+
+		/**
+		 * Test if an item is before the end of the range.
+		 */
+		boolean inRange( MyNode<AnyType> t )
+		{
+			return true;
+		}
+
+		/**
+		 * Start at the first item no less than from, or the smallest if null.
+		 */
+		void seek( AnyType from )
+		{
+			MyNode<AnyType> t = root;
+			while( t != null )
+			{
+				if( from == null || from.compareTo( t.element ) <= 0 ) {
+					stack[ depth++ ] = t;
+					t = t.left;
+				} else
+					t = t.right;
+			}
+		}
+
+		/**
+		 * Start at the first word no less than from, in a TwoParamObj<String>.
+		 */
+		void seekWord( CharSequence from )
+		{
+			MyNode<AnyType> t = root;
+			while( t != null )
+			{
+				if( WordTokenizer.compare( from, (CharSequence) t.element ) <= 0 ) {
+					stack[ depth++ ] = t;
+					t = t.left;
+				} else
+					t = t.right;
+			}
+		}
+
+		private void pushLeft( MyNode<AnyType> t )
+		{
+			for( ; t != null; t = t.left )
+				stack[ depth++ ] = t;
+		}
+
+		private MyNode<AnyType> current( )
+		{
+			if( current == null )
+				throw new NoSuchElementException( );
+			return current;
+		}
+
+		private final MyNode<AnyType> [ ] stack;    // Nodes still to visit, nearest last
+		private int depth;                          // Nodes on the stack
+		private MyNode<AnyType> current;            // The current node, or null
+	}
+
+	/**
+	 * Start before the smallest item.
+	 * @return a cursor; call next to reach the first item.
+	 */
+	public Cursor cursor( )
+	{
+		Cursor c = new Cursor( );
+		c.seek( null );
+		return c;
+	}
+
+	/**
+	 * Start before the items in a range.
+	 * @param from the least item to visit, or null to start at the smallest.
+	 * @param to the item to stop before, or null to go to the end.
+	 * @return a cursor; call next to reach the first item.
+	 */
+	public Cursor range( AnyType from, AnyType to )
+	{
+		Cursor c = new Cursor( ) {
+			boolean inRange( MyNode<AnyType> t )
+			{
+				return to == null || t.element.compareTo( to ) < 0;
+			}
+		};
+		c.seek( from );
+		return c;
+	}
+
+	/**
+	 * Start before the words with a prefix, in a TwoParamObj<String>.
+	 * @param prefix the prefix.
+	 * @return a cursor; call next to reach the first word.
+	 */
+	public Cursor prefix( CharSequence prefix )
+	{
+		Cursor c = new Cursor( ) {
+			boolean inRange( MyNode<AnyType> t )
+			{
+				CharSequence word = (CharSequence) t.element;
+				if( word.length( ) < prefix.length( ) )
+					return false;
+				for( int i = 0; i < prefix.length( ); i++ )
+					if( word.charAt( i ) != prefix.charAt( i ) )
+						return false;
+				return true;
+			}
+		};
+		c.seekWord( prefix );
+		return c;
+	}
+
+	/**
+	 * Get the items in sorted order as a stream.
+	 * @return a lazy, sequential stream of the items.
+	 */
+	public Stream<AnyType> stream( )
+	{
+		return stream( cursor( ) );
+	}
+
+	/**
+	 * Get the items in a range as a stream.
+	 * @param from the least item, or null to start at the smallest.
+	 * @param to the item to stop before, or null to go to the end.
+	 * @return a lazy, sequential stream of the items.
+	 */
+	public Stream<AnyType> stream( AnyType from, AnyType to )
+	{
+		return stream( range( from, to ) );
+	}
+
+	private Stream<AnyType> stream( Cursor c )
+	{
+		Iterator<AnyType> items = new Iterator<AnyType>( )
+		{
+			private boolean ready;      // True if c is on an item not yet returned
+			private boolean more = true;
+
+			public boolean hasNext( )
+			{
+				if( !ready && more ) {
+					more = c.next( );
+					ready = more;
+				}
+				return ready;
+			}
+
+			public AnyType next( )
+			{
+				if( !hasNext( ) )
+					throw new NoSuchElementException( );
+				ready = false;
+				return c.element( );
+			}
+		};
+		return StreamSupport.stream( Spliterators.spliteratorUnknownSize( items,
+				Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL ), false );
+	}
+
+	//writes a word and then each line it is on, one per line, like printTree used to
+	static void writeEntry(Writer out, Object word, PostingList lineList) throws IOException {
+		String newline = System.lineSeparator();
+		out.write("The word '");
+		out.write(String.valueOf(word));
+		out.write("' appears on lines: ");
+		out.write(newline);
+		char[] digits = new char[11];
+		PrimitiveIterator.OfInt lines = lineList.iterator();
+		while (lines.hasNext()) {
+			//formats the number without making a String for it
+			int n = lines.nextInt();
+			int pos = digits.length;
+			do {
+				digits[--pos] = (char) ('0' + n % 10);
+				n /= 10;
+			} while (n > 0);
+			out.write(digits, pos, digits.length - pos);
+			out.write(newline);
+		}
 	}
 
 	private static final int ALLOWED_IMBALANCE = 1;
+	//heap sizes on a 64-bit JVM with compressed references, as in PostingList.footprint
+	private static final long NODE_BYTES = 32;			// Header and five fields
+	private static final long STRING_BYTES = 24;		// The String itself; its array is added for UTF-16
 
 	// Assume t is either balanced or within one of being balanced
 	private MyNode<AnyType> balance( MyNode<AnyType> t )
@@ -241,6 +720,17 @@ public class TwoParamObj<AnyType extends Comparable<? super AnyType>>
 	 * @return true if x is found in subtree.
 	 */
 	private boolean contains( AnyType x, MyNode<AnyType> t )
+	{
+		return find( x, t ) != null;
+	}
+
+	/**
+	 * Internal method to find an item in a subtree.
+	 * @param x is item to search for.
+	 * @param t the node that roots the tree.
+	 * @return the node holding x, or null if it is not found.
+	 */
+	private MyNode<AnyType> find( AnyType x, MyNode<AnyType> t )
 	{
 		while( t != null )
 		{
@@ -251,31 +741,10 @@ public class TwoParamObj<AnyType extends Comparable<? super AnyType>>
 			else if( compareResult > 0 )
 				t = t.right;
 			else
-				return true;    // Match
+				return t;    // Match
 		}
 
-		return false;   // No match
-	}
-
-	/**
-	 * Internal method to print a subtree in sorted order.
-	 * @param t the node that roots the tree.
-	 */
-	private void printTree( MyNode<AnyType> t )
-	{
-		if( t != null )
-		{
-			printTree( t.left );
-			System.out.println("The word '" + t.element + "' appears on lines: ");
-			printLines(t);
-			printTree( t.right );
-		}
-	}
-
-	private void printLines(MyNode<AnyType> t) {
-		for (int i = 0; i < t.lineList.size(); ++i) {
-			System.out.println(t.lineList.get(i));
-		}
+		return null;   // No match
 	}
 
 	/**
@@ -360,34 +829,37 @@ public class TwoParamObj<AnyType extends Comparable<? super AnyType>>
 		MyNode<AnyType>  left;     							    // Left child
 		MyNode<AnyType>  right;    							    // Right child
 		int               height;       						// Height
-		LinkedList<Integer> lineList = new LinkedList<>();		// list of the lines in which the word shows up
+		PostingList       lines = new PostingList();			// the lines in which the word shows up, in order
 	}
 
-	private MyNode<AnyType> root;
-
-	public static void main( String [ ] args )
+	/**
+	 * Make an array of nodes; Java cannot create one of a generic type.
+	 * @param length the array length.
+	 * @return a new array of nulls.
+	 */
+	@SuppressWarnings( "unchecked" )
+	private static <T> MyNode<T> [ ] newNodes( int length )
 	{
-		TwoParamObj<String> s = new TwoParamObj();
-		//takes in a file of words on different lines as its arguments
-		File file = new File(args[0]);
-		Scanner scanner = null;
-		try {
-			scanner = new Scanner(file);
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
-		}
+		return (MyNode<T> [ ]) new MyNode<?>[ length ];
+	}
+
+	private MyNode<AnyType> root;
+	private int theSize;												// Number of items
+	private MyNode<AnyType> [ ] path = newNodes( 32 );		// Insertion path, root first
 
+	//hands every word of the text, lower-cased, to index with its line number; lines are split
+	//by Scanner.nextLine, and ParallelConcordance splits them by the same rule
+	static void indexLines(Scanner scanner, java.util.function.ObjIntConsumer<CharSequence> index) {
 		String line = scanner.nextLine();
 		int lineCount = 1;
+		WordTokenizer words = new WordTokenizer(true);
 		while (true) {
 			//splits the line up into its constituent words
-			String[] words = line.toLowerCase().split(" ");
+			words.reset(line);
 			//for every word in a line
-			for (int i = 0; i < words.length; ++i) {
-				if (!words[i].replaceAll(("[^(a-zA-Z||')]" ),  "").equals("")) {
-					//insert it in lower case without punctuation into the AVL tree along with its linecount
-					s.insert(words[i].replaceAll(("[^(a-zA-Z||')]" ),  ""), lineCount);
-				}
+			while (words.next()) {
+				//insert it in lower case without punctuation into the AVL tree along with its linecount
+				index.accept(words, lineCount);
 			}
 			if (!scanner.hasNext()) {
 				break;
@@ -397,6 +869,104 @@ public class TwoParamObj<AnyType extends Comparable<? super AnyType>>
 			//increase the line count with every loop
 			lineCount++;
 		}
-		s.printTree();
+	}
+
+	//writes entries through out, for the callbacks that cannot throw IOException
+	private static java.util.function.BiConsumer<Object, PostingList> printer(Writer out) {
+		return (word, lines) -> {
+			try {
+				writeEntry(out, word, lines);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		};
+	}
+
+	public static void main( String [ ] args ) throws IOException
+	{
+		//--parallel[=n] indexes the file on n threads (default: one per core)
+		//--save=file    writes the concordance to a file instead of printing it
+		//--index=file   answers from a saved concordance instead; the arguments are the words
+		//               to look up, and a word ending in '*' matches every word with that prefix
+		//--budget=size  keeps at most about size bytes (with k, m or g) of index in memory,
+		//               spilling sorted runs to disk and merging them at the end
+		List<String> files = new ArrayList<>();
+		Map<String, String> options = SpellCheckHashTable.parseOptions(args, files);
+		args = files.toArray(new String[0]);
+		//everything printed from a saved concordance goes through one buffered writer
+		Writer stdout = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+		if (options.containsKey("index")) {
+			ConcordanceFile index = ConcordanceFile.open(new File(options.get("index")).toPath());
+			for (String query : args) {
+				if (query.endsWith("*")) {
+					index.forEachWithPrefix(query.substring(0, query.length() - 1), printer(stdout));
+				} else {
+					PostingList lines = index.lines(query);
+					if (lines != null) {
+						writeEntry(stdout, query, lines);
+					}
+				}
+			}
+			stdout.flush();
+			return;
+		}
+
+		if (options.containsKey("budget")) {
+			long budget = ExternalConcordanceBuilder.parseSize(options.get("budget"));
+			boolean save = options.containsKey("save");
+			java.nio.file.Path out = save ? new File(options.get("save")).toPath()
+					: java.nio.file.Files.createTempFile("concordance", ".idx");
+			try (ExternalConcordanceBuilder builder = new ExternalConcordanceBuilder(out, budget);
+					java.io.BufferedReader text = java.nio.file.Files.newBufferedReader(new File(args[0]).toPath(),
+							java.nio.charset.Charset.defaultCharset())) {
+				builder.index(text);
+			}
+			if (!save) {
+				ConcordanceFile.open(out).forEachWithPrefix("", printer(stdout));
+				stdout.flush();
+				java.nio.file.Files.delete(out);
+			}
+			return;
+		}
+
+		TwoParamObj<String> s = new TwoParamObj<>();
+		//--layout=array keeps the tree in parallel arrays instead of node objects (not with --parallel)
+		String layout = options.getOrDefault("layout", "nodes");
+		if (!layout.equals("nodes") && !layout.equals("array")) {
+			throw new IllegalArgumentException("Unknown layout: " + layout);
+		}
+		ArrayAvlConcordance array = layout.equals("array") ? new ArrayAvlConcordance() : null;
+		if (options.containsKey("parallel")) {
+			String threads = options.get("parallel");
+			s = ParallelConcordance.build(new File(args[0]).toPath(),
+					threads.equals("true") ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(threads));
+			array = null;
+		} else {
+			java.util.function.ObjIntConsumer<CharSequence> index = array != null ? array::insert : s::insertWord;
+			//takes in a file of words on different lines as its arguments
+			File file = new File(args[0]);
+			Scanner scanner = null;
+			try {
+				scanner = new Scanner(file);
+			} catch (FileNotFoundException e) {
+				e.printStackTrace();
+			}
+
+			indexLines(scanner, index);
+		}
+		if (array != null) {
+			if (options.containsKey("save")) {
+				ConcordanceFile.write(array::forEachEntry, new File(options.get("save")).toPath());
+			} else if (array.isEmpty()) {
+				System.out.println("Empty tree");
+			} else {
+				array.export(stdout);
+				stdout.flush();
+			}
+		} else if (options.containsKey("save")) {
+			ConcordanceFile.write(s, new File(options.get("save")).toPath());
+		} else {
+			s.printTree();
+		}
 	}
 }
@@ -0,0 +1,69 @@
+/**
+ * A set of dictionary words with the surface of the probing hash table.
+ * SpellCheckHashTable is one implementation; the others are storage
+ * engines it can delegate to.
+ */
+public interface WordTable extends Iterable<String>
+{
+    /**
+     * Insert a word. If it is already present, do nothing.
+     * @param x the word to insert.
+     * @return true if the word was added.
+     */
+    boolean insert( String x );
+
+    /**
+     * Remove a word.
+     * @param x the word to remove.
+     * @return true if the word was removed.
+     */
+    boolean remove( String x );
+
+    /**
+     * Find a word.
+     * @param x the characters of the word to search for.
+     * @return true if the word is present.
+     */
+    boolean contains( CharSequence x );
+
+    /**
+     * Find a word and how common it is, with one search.
+     * @param x the characters of the word to search for.
+     * @return the frequency stored with the word, 0 if none was set,
+     * or -1 if the word is absent.
+     */
+    default int lookup( CharSequence x )
+    {
+        return contains( x ) ? 0 : -1;
+    }
+
+    /**
+     * Store how common a word is, next to the word itself. Removing
+     * the word forgets it.
+     * @param x a word already in the table.
+     * @param frequency its count, at least 0.
+     * @return true if it was stored; false if the word is absent or
+     * this table keeps no frequencies.
+     */
+    default boolean setFrequency( String x, int frequency )
+    {
+        return false;
+    }
+
+    /**
+     * Get the number of words.
+     * @return the size.
+     */
+    int size( );
+
+    /**
+     * Get the number of slots in the underlying table.
+     * @return the capacity.
+     */
+    int capacity( );
+
+    /**
+     * Make the table logically empty.
+     */
+    void makeEmpty( );
+}
@@ -0,0 +1,191 @@
+/**
+ * Splits lines of text into words without creating objects per word.
+ * A line is split at spaces and each piece keeps only letters, apostrophes
+ * and the characters ( ) | -- the same set the old [^(a-zA-Z||')] pattern
+ * kept -- so pieces like "it's," become "it's". Pieces that keep nothing
+ * are skipped.
+ *
+ * The tokenizer is itself the current word: after next() returns true it
+ * reads as that word through the CharSequence methods. The characters live
+ * in a reused buffer and change on the next call, so call toString() to
+ * keep a word. One tokenizer per thread.
+ */
+public class WordTokenizer implements CharSequence
+{
+    /**
+     * Construct a tokenizer that keeps case.
+     */
+    public WordTokenizer( )
+    {
+        this( false );
+    }
+
+    /**
+     * Construct a tokenizer.
+     * @param lowerCase true to lower-case words as String.toLowerCase would.
+     */
+    public WordTokenizer( boolean lowerCase )
+    {
+        this.lowerCase = lowerCase;
+    }
+
+    /**
+     * Start on a new line.
+     * @param line the text to split.
+     * @return this tokenizer.
+     */
+    public WordTokenizer reset( CharSequence line )
+    {
+        return reset( line, 0, line.length( ) );
+    }
+
+    /**
+     * Start on a line that is part of a larger text, without copying it.
+     * @param text the text.
+     * @param from the index where the line starts.
+     * @param to the index just past its end.
+     * @return this tokenizer.
+     */
+    public WordTokenizer reset( CharSequence text, int from, int to )
+    {
+        if( from < 0 || to > text.length( ) || from > to )
+            throw new IndexOutOfBoundsException( "from " + from + ", to " + to + ", length " + text.length( ) );
+        this.line = text;
+        lineStart = from;
+        end = to;
+        pos = from;
+        length = 0;
+        start = -1;
+        return this;
+    }
+
+    /**
+     * Move to the next word of the line.
+     * @return true if there is one; false at the end of the line.
+     */
+    public boolean next( )
+    {
+        while( pos <= end )
+        {
+            int wordStart = -1;
+            length = 0;
+            for( ; pos < end && line.charAt( pos ) != ' '; pos++ )
+            {
+                char c = line.charAt( pos );
+                if( lowerCase )
+                    c = toLowerCase( c );
+                if( !isWordChar( c ) )
+                    continue;
+                if( length == 0 )
+                    wordStart = pos;
+                if( length == buffer.length )
+                    buffer = java.util.Arrays.copyOf( buffer, 2 * length );
+                buffer[ length++ ] = c;
+            }
+            pos++;  // Step over the space
+            if( length > 0 )
+            {
+                start = wordStart - lineStart;
+                return true;
+            }
+        }
+        start = -1;
+        return false;
+    }
+
+    /**
+     * Get where the current word starts in the line: the first character
+     * it keeps, so for "Foo," that is the F, not the quote.
+     * @return the index of that character, counting from 0.
+     */
+    public int start( )
+    {
+        return start;
+    }
+
+    /**
+     * Get the buffer holding the current word.
+     * @return the buffer; the word is its first length() characters.
+     */
+    public char [ ] buffer( )
+    {
+        return buffer;
+    }
+
+    public int length( )
+    {
+        return length;
+    }
+
+    public char charAt( int index )
+    {
+        if( index < 0 || index >= length )
+            throw new IndexOutOfBoundsException( "index " + index + ", length " + length );
+        return buffer[ index ];
+    }
+
+    public CharSequence subSequence( int from, int to )
+    {
+        if( from < 0 || to > length || from > to )
+            throw new IndexOutOfBoundsException( "from " + from + ", to " + to + ", length " + length );
+        return new String( buffer, from, to - from );
+    }
+
+    public String toString( )
+    {
+        return new String( buffer, 0, length );
+    }
+
+    /**
+     * Test whether a character is kept in words.
+     * @param c the character.
+     * @return true for letters a-z and A-Z, apostrophes, ( ) and |.
+     */
+    public static boolean isWordChar( char c )
+    {
+        return ( c >= 'a' && c <= 'z' ) || ( c >= 'A' && c <= 'Z' )
+                || c == '\'' || c == '(' || c == ')' || c == '|';
+    }
+
+    /**
+     * Lower-case one character: A-Z directly, anything else through
+     * Character.toLowerCase, so that characters such as the Kelvin sign
+     * fold into a-z as they did under String.toLowerCase.
+     * @param c the character.
+     * @return its lower case.
+     */
+    static char toLowerCase( char c )
+    {
+        if( c < 0x80 )
+            return c >= 'A' && c <= 'Z' ? (char) ( c + ( 'a' - 'A' ) ) : c;
+        return Character.toLowerCase( c );
+    }
+
+    /**
+     * Compare two runs of characters the way String.compareTo does.
+     * @param a one run.
+     * @param b the other run.
+     * @return negative, zero or positive as a is before, equal to or after b.
+     */
+    public static int compare( CharSequence a, CharSequence b )
+    {
+        int n = Math.min( a.length( ), b.length( ) );
+        for( int i = 0; i < n; i++ )
+        {
+            char ca = a.charAt( i );
+            char cb = b.charAt( i );
+            if( ca != cb )
+                return ca - cb;
+        }
+        return a.length( ) - b.length( );
+    }
+
+    private final boolean lowerCase;          // Lower-case each word
+    private char [ ] buffer = new char[ 32 ]; // The current word
+    private int length;                       // Its length
+    private int start = -1;                   // Where its first kept character is in the line
+    private CharSequence line = "";           // The text holding the line being split
+    private int lineStart;                    // Where the line starts in it
+    private int end;                          // Where the line ends in it
+    private int pos;                          // Where the next piece starts
+}
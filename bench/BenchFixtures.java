@@ -0,0 +1,385 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Builds what the JMH benchmarks measure. JMH will not generate code for
+ * classes in the default package, and a class in a package cannot name
+ * one that is not, so the benchmarks (in package benchmarks) look these
+ * methods up by reflection once, during setup, and call the results
+ * through java.util.function interfaces; the calls are monomorphic, so
+ * the JIT inlines them.
+ * All inputs come from SyntheticText with fixed seeds, so runs compare.
+ */
+public class BenchFixtures
+{
+    /**
+     * Build a dictionary.
+     * @param storage "table", "compact", "robinhood", "concurrent" or "symbol".
+     * @param size the number of words.
+     * @return its contains method.
+     */
+    public static Predicate<CharSequence> dictionary( String storage, int size )
+    {
+        SpellCheckHashTable h = newTable( storage );
+        for( String w : WORDS.subList( 0, size ) )
+            h.insert( w );
+        return h::contains;
+    }
+
+    /**
+     * Pick dictionary words to look up.
+     * @param size the dictionary size.
+     * @return 1024 words, some repeated.
+     */
+    public static String [ ] hits( int size )
+    {
+        return sample( WORDS.subList( 0, size ), 1024, 1 );
+    }
+
+    /**
+     * Misspell dictionary words to look up.
+     * @param size the dictionary size.
+     * @return 1024 words, nearly all absent.
+     */
+    public static String [ ] misses( int size )
+    {
+        String [ ] misses = hits( size );
+        SyntheticText gen = new SyntheticText( 7 );
+        for( int i = 0; i < misses.length; i++ )
+            misses[ i ] = gen.misspell( misses[ i ] );
+        return misses;
+    }
+
+    /**
+     * Build a suggestion path over a dictionary of 100,000 words with
+     * Zipf-like frequencies.
+     * @param engine "generate", "deletion" or "dawg".
+     * @param k the number of corrections to keep, or 0 for all of them.
+     * @return the suggestions method.
+     */
+    public static Function<String, List<String>> suggester( String engine, int k )
+    {
+        SpellCheckHashTable h = suggestionTable( engine );
+        if( k == 0 )
+            return h::suggestions;
+        return s -> h.suggestions( s, k );
+    }
+
+    /**
+     * Misspell dictionary words of one length.
+     * @param length the length of the misspellings.
+     * @return 64 misspellings.
+     */
+    public static String [ ] typos( int length )
+    {
+        SyntheticText gen = new SyntheticText( 11 );
+        List<String> typos = new ArrayList<>( );
+        for( String w : WORDS )
+            if( w.length( ) == length + 1 && typos.size( ) < 64 )
+                typos.add( gen.misspell( w ) );
+        return typos.toArray( new String[ 0 ] );
+    }
+
+    /**
+     * Build a check of TEXT_LINES lines of text.
+     * @param mode "sequential", "parallel" or "pipeline".
+     * @return a run of the check, returning the number of misspellings.
+     */
+    public static Supplier<Object> checker( String mode )
+    {
+        SpellCheckHashTable h = suggestionTable( "generate" );
+        String text = String.join( "\n", TEXT );
+        int threads = Runtime.getRuntime( ).availableProcessors( );
+        return ( ) -> {
+            long [ ] found = new long[ 1 ];
+            try
+            {
+                BufferedReader in = new BufferedReader( new StringReader( text ) );
+                switch( mode )
+                {
+                    case "sequential":
+                        h.check( in, m -> found[ 0 ]++ );
+                        break;
+                    case "parallel":
+                        ParallelChecker.check( h, in, m -> found[ 0 ]++, threads, 256 );
+                        break;
+                    case "pipeline":
+                        new CheckPipeline( h, threads ).check( in, m -> found[ 0 ]++ );
+                        break;
+                    default:
+                        throw new IllegalArgumentException( "Unknown mode: " + mode );
+                }
+            }
+            catch( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+            return found[ 0 ];
+        };
+    }
+
+    /**
+     * Build a concordance construction over TEXT_LINES lines of text.
+     * @param method "insertWord" (TwoParamObj), "array" (ArrayAvlConcordance),
+     * "concurrent" (ConcurrentConcordance), "bulkLoad" (from sorted postings)
+     * or "parallel" (ParallelConcordance, one thread per core).
+     * @return a build, returning the structure.
+     */
+    public static Supplier<Object> concordanceBuilder( String method )
+    {
+        switch( method )
+        {
+            case "insertWord":
+                return ( ) -> {
+                    TwoParamObj<String> tree = new TwoParamObj<>( );
+                    index( tree::insertWord );
+                    return tree;
+                };
+            case "array":
+                return ( ) -> {
+                    ArrayAvlConcordance tree = new ArrayAvlConcordance( );
+                    index( tree::insert );
+                    return tree;
+                };
+            case "concurrent":
+                return ( ) -> {
+                    ConcurrentConcordance tree = new ConcurrentConcordance( );
+                    index( tree::insert );
+                    return tree;
+                };
+            case "bulkLoad":
+            {
+                List<String> keys = new ArrayList<>( );
+                List<PostingList> lines = new ArrayList<>( );
+                sortedTree( ).forEachEntry( ( w, l ) -> {
+                    keys.add( w );
+                    lines.add( l );
+                } );
+                return ( ) -> {
+                    TwoParamObj<String> tree = new TwoParamObj<>( );
+                    tree.bulkLoad( keys, lines );
+                    return tree;
+                };
+            }
+            case "parallel":
+            {
+                Path file = textFile( );
+                int threads = Runtime.getRuntime( ).availableProcessors( );
+                return ( ) -> {
+                    try
+                    {
+                        return ParallelConcordance.build( file, threads );
+                    }
+                    catch( IOException e )
+                    {
+                        throw new UncheckedIOException( e );
+                    }
+                };
+            }
+            default:
+                throw new IllegalArgumentException( "Unknown method: " + method );
+        }
+    }
+
+    /**
+     * Build a word lookup into a finished concordance.
+     * @param kind "tree" (TwoParamObj) or "file" (ConcordanceFile).
+     * @return the lookup, returning the word's lines.
+     */
+    public static Function<String, Object> concordanceLookup( String kind )
+    {
+        switch( kind )
+        {
+            case "tree":
+                return sortedTree( )::lines;
+            case "file":
+                return concordanceFile( )::lines;
+            default:
+                throw new IllegalArgumentException( "Unknown kind: " + kind );
+        }
+    }
+
+    /**
+     * Build a prefix query on a finished concordance.
+     * @param kind "tree" (TwoParamObj cursor) or "file" (ConcordanceFile).
+     * @return the query, returning the number of lines under the prefix.
+     */
+    public static Function<String, Object> concordancePrefix( String kind )
+    {
+        switch( kind )
+        {
+            case "tree":
+            {
+                TwoParamObj<String> tree = sortedTree( );
+                return p -> {
+                    long found = 0;
+                    for( TwoParamObj<String>.Cursor c = tree.prefix( p ); c.next( ); )
+                        found += c.lines( ).size( );
+                    return found;
+                };
+            }
+            case "file":
+            {
+                ConcordanceFile file = concordanceFile( );
+                return p -> {
+                    long [ ] found = new long[ 1 ];
+                    file.forEachWithPrefix( p, ( w, l ) -> found[ 0 ] += l.size( ) );
+                    return found[ 0 ];
+                };
+            }
+            default:
+                throw new IllegalArgumentException( "Unknown kind: " + kind );
+        }
+    }
+
+    /**
+     * Pick words of the text to look up.
+     * @return 1024 words, some repeated.
+     */
+    public static String [ ] concordanceWords( )
+    {
+        List<String> words = new ArrayList<>( );
+        sortedTree( ).forEachEntry( ( w, l ) -> words.add( w ) );
+        return sample( words, 1024, 3 );
+    }
+
+    /**
+     * Pick prefixes of words of the text.
+     * @return 1024 prefixes of up to three letters.
+     */
+    public static String [ ] prefixes( )
+    {
+        String [ ] prefixes = concordanceWords( );
+        for( int i = 0; i < prefixes.length; i++ )
+            prefixes[ i ] = prefixes[ i ].substring( 0, Math.min( 3, prefixes[ i ].length( ) ) );
+        return prefixes;
+    }
+
+    private static SpellCheckHashTable newTable( String storage )
+    {
+        switch( storage )
+        {
+            case "table":
+                return new SpellCheckHashTable( );
+            case "compact":
+                return new SpellCheckHashTable( new CompactWordTable( ) );
+            case "robinhood":
+                return new SpellCheckHashTable( new RobinHoodWordTable( ) );
+            case "concurrent":
+                return new SpellCheckHashTable( new ConcurrentWordTable( ) );
+            case "symbol":
+                return new SpellCheckHashTable( new SymbolDictionary( ) );
+            default:
+                throw new IllegalArgumentException( "Unknown storage: " + storage );
+        }
+    }
+
+    private static SpellCheckHashTable suggestionTable( String engine )
+    {
+        List<String> words = WORDS.subList( 0, SUGGESTION_WORDS );
+        SpellCheckHashTable h = new SpellCheckHashTable( );
+        for( String w : words )
+            h.insert( w );
+        switch( engine )
+        {
+            case "generate":
+                break;
+            case "deletion":
+                h.setSuggestionEngine( new DeletionIndex( h, 2 ) );
+                break;
+            case "dawg":
+                Dawg dawg = Dawg.build( h );
+                dawg.setMaxDistance( 2 );
+                h.setSuggestionEngine( dawg );
+                break;
+            default:
+                throw new IllegalArgumentException( "Unknown engine: " + engine );
+        }
+        Random counts = new Random( 5 );
+        for( String w : words )
+            h.setFrequency( w, 1000 / ( 1 + counts.nextInt( 1000 ) ) );   // Zipf-like
+        return h;
+    }
+
+    /**
+     * Hand every word of the text, lower-cased, to an index with its line.
+     */
+    private static void index( java.util.function.ObjIntConsumer<CharSequence> index )
+    {
+        WordTokenizer t = new WordTokenizer( true );
+        for( int l = 0; l < TEXT.size( ); l++ )
+        {
+            t.reset( TEXT.get( l ) );
+            while( t.next( ) )
+                index.accept( t, l + 1 );
+        }
+    }
+
+    private static TwoParamObj<String> sortedTree( )
+    {
+        TwoParamObj<String> tree = new TwoParamObj<>( );
+        index( tree::insertWord );
+        return tree;
+    }
+
+    private static ConcordanceFile concordanceFile( )
+    {
+        try
+        {
+            Path file = Files.createTempFile( "bench", ".idx" );
+            file.toFile( ).deleteOnExit( );
+            ConcordanceFile.write( sortedTree( ), file );
+            return ConcordanceFile.open( file );
+        }
+        catch( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private static Path textFile( )
+    {
+        try
+        {
+            Path file = Files.createTempFile( "bench", ".txt" );
+            file.toFile( ).deleteOnExit( );
+            Files.write( file, TEXT );
+            return file;
+        }
+        catch( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private static String [ ] sample( List<String> words, int n, long seed )
+    {
+        Random random = new Random( seed );
+        String [ ] picked = new String[ n ];
+        for( int i = 0; i < n; i++ )
+            picked[ i ] = words.get( random.nextInt( words.size( ) ) );
+        return picked;
+    }
+
+    private static final int SUGGESTION_WORDS = 100_000;
+    private static final int TEXT_LINES = 10_000;
+
+    private static final List<String> WORDS;    // Dictionary words, most common first
+    private static final List<String> TEXT;     // Lines drawn from the first 50,000 words
+    static
+    {
+        SyntheticText gen = new SyntheticText( 42 );
+        WORDS = gen.dictionary( SUGGESTION_WORDS );
+        TEXT = gen.text( WORDS.subList( 0, 50_000 ), TEXT_LINES, 10, 0.05 );
+    }
+}
@@ -0,0 +1,163 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Seeded generators for benchmark dictionaries and texts.
+ * Letters follow English letter frequencies and word lengths cluster
+ * around 7, so probe chains and suggestion counts look like a real
+ * dictionary's. Texts draw words with a Zipf distribution, as real
+ * prose does, and misspell a share of them with one random edit.
+ */
+public class SyntheticText
+{
+    /**
+     * Construct a generator.
+     * @param seed the random seed; equal seeds give equal output.
+     */
+    public SyntheticText( long seed )
+    {
+        random = new Random( seed );
+    }
+
+    /**
+     * Make a dictionary of distinct words.
+     * @param size the number of words.
+     * @return the words, in generation order.
+     */
+    public List<String> dictionary( int size )
+    {
+        Set<String> seen = new HashSet<>( );
+        List<String> words = new ArrayList<>( size );
+        while( words.size( ) < size )
+        {
+            String w = word( wordLength( ) );
+            if( seen.add( w ) )
+                words.add( w );
+        }
+        return words;
+    }
+
+    /**
+     * Make a word of the given length.
+     * @param length the number of letters.
+     * @return the word.
+     */
+    public String word( int length )
+    {
+        char [ ] w = new char[ length ];
+        for( int i = 0; i < length; i++ )
+            w[ i ] = letter( );
+        return new String( w );
+    }
+
+    /**
+     * Make lines of text from a dictionary.
+     * @param dictionary the words to draw from; earlier words are more common.
+     * @param lines the number of lines.
+     * @param wordsPerLine the average number of words per line.
+     * @param typoRate the share of words given one random edit.
+     * @return the lines.
+     */
+    public List<String> text( List<String> dictionary, int lines, int wordsPerLine, double typoRate )
+    {
+        double [ ] cumulative = zipf( dictionary.size( ) );
+        List<String> text = new ArrayList<>( lines );
+        StringBuilder line = new StringBuilder( );
+        for( int l = 0; l < lines; l++ )
+        {
+            line.setLength( 0 );
+            int count = 1 + random.nextInt( 2 * wordsPerLine );
+            for( int i = 0; i < count; i++ )
+            {
+                String w = dictionary.get( pick( cumulative ) );
+                if( random.nextDouble( ) < typoRate )
+                    w = misspell( w );
+                if( i > 0 )
+                    line.append( ' ' );
+                line.append( w );
+                if( random.nextInt( 12 ) == 0 )
+                    line.append( ',' );
+            }
+            text.add( line.toString( ) );
+        }
+        return text;
+    }
+
+    /**
+     * Apply one random insertion, substitution, adjacent swap or deletion.
+     * Two-letter words are never shortened, so every typo has at least two letters.
+     * @param w the word; at least two letters.
+     * @return the changed word.
+     */
+    public String misspell( String w )
+    {
+        int i = random.nextInt( w.length( ) - 1 );
+        switch( random.nextInt( w.length( ) > 2 ? 4 : 3 ) )
+        {
+            case 0:
+                return w.substring( 0, i ) + letter( ) + w.substring( i );
+            case 1:
+                return w.substring( 0, i ) + letter( ) + w.substring( i + 1 );
+            case 2:
+                return w.substring( 0, i ) + w.charAt( i + 1 ) + w.charAt( i ) + w.substring( i + 2 );
+            default:
+                return w.substring( 0, i ) + w.substring( i + 1 );
+        }
+    }
+
+    private int wordLength( )
+    {
+        int length = (int) Math.round( 7 + 2.5 * random.nextGaussian( ) );
+        return Math.max( 2, Math.min( 20, length ) );
+    }
+
+    private char letter( )
+    {
+        double r = random.nextDouble( ) * LETTER_TOTAL;
+        for( int i = 0; i < LETTER_WEIGHTS.length; i++ )
+        {
+            r -= LETTER_WEIGHTS[ i ];
+            if( r < 0 )
+                return (char) ( 'a' + i );
+        }
+        return 'e';
+    }
+
+    private double [ ] zipf( int n )
+    {
+        double [ ] cumulative = new double[ n ];
+        double sum = 0;
+        for( int i = 0; i < n; i++ )
+        {
+            sum += 1.0 / ( i + 1 );
+            cumulative[ i ] = sum;
+        }
+        for( int i = 0; i < n; i++ )
+            cumulative[ i ] /= sum;
+        return cumulative;
+    }
+
+    private int pick( double [ ] cumulative )
+    {
+        int i = java.util.Arrays.binarySearch( cumulative, random.nextDouble( ) );
+        return Math.min( cumulative.length - 1, i < 0 ? -i - 1 : i );
+    }
+
+    // English letter frequencies, a to z, in percent
+    private static final double [ ] LETTER_WEIGHTS = {
+        8.2, 1.5, 2.8, 4.3, 12.7, 2.2, 2.0, 6.1, 7.0, 0.15, 0.77, 4.0, 2.4,
+        6.7, 7.5, 1.9, 0.095, 6.0, 6.3, 9.1, 2.8, 0.98, 2.4, 0.15, 2.0, 0.074 };
+    private static final double LETTER_TOTAL;
+    static
+    {
+        double total = 0;
+        for( double w : LETTER_WEIGHTS )
+            total += w;
+        LETTER_TOTAL = total;
+    }
+
+    private final Random random;   // Source of every choice
+}
@@ -0,0 +1,46 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A whole check of 10,000 lines of text, with suggestions for every
+ * misspelling, on one thread, in parallel chunks or through the pipeline.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class CheckBenchmark
+{
+    @Param( { "sequential", "parallel", "pipeline" } )
+    public String mode;
+
+    @Setup
+    public void setup( )
+    {
+        checker = Fixtures.get( "checker", mode );
+    }
+
+    @Benchmark
+    public Object check( )
+    {
+        return checker.get( );
+    }
+
+    private Supplier<Object> checker;
+}
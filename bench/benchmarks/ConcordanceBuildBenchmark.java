@@ -0,0 +1,46 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building a concordance of 10,000 lines of text, about 100,000 words,
+ * with each of the tree layouts and construction paths.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ConcordanceBuildBenchmark
+{
+    @Param( { "insertWord", "array", "concurrent", "bulkLoad", "parallel" } )
+    public String method;
+
+    @Setup
+    public void setup( )
+    {
+        builder = Fixtures.get( "concordanceBuilder", method );
+    }
+
+    @Benchmark
+    public Object build( )
+    {
+        return builder.get( );
+    }
+
+    private Supplier<Object> builder;
+}
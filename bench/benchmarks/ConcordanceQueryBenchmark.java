@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Queries on a finished concordance: the lines of one word, and every
+ * word under a prefix of up to three letters, in the in-memory tree and
+ * in a concordance file.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ConcordanceQueryBenchmark
+{
+    @Param( { "tree", "file" } )
+    public String kind;
+
+    @Setup
+    public void setup( )
+    {
+        lookup = Fixtures.get( "concordanceLookup", kind );
+        prefix = Fixtures.get( "concordancePrefix", kind );
+        words = Fixtures.get( "concordanceWords" );
+        prefixes = Fixtures.get( "prefixes" );
+    }
+
+    @Benchmark
+    public Object lookup( )
+    {
+        return lookup.apply( words[ next++ & MASK ] );
+    }
+
+    @Benchmark
+    public Object prefix( )
+    {
+        return prefix.apply( prefixes[ next++ & MASK ] );
+    }
+
+    private static final int MASK = 1023;   // The fixtures hand out 1024 words
+
+    private Function<String, Object> lookup;
+    private Function<String, Object> prefix;
+    private String [ ] words;
+    private String [ ] prefixes;
+    private int next;
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Reaches BenchFixtures, which is in the default package with the code it
+ * builds and so cannot be named from here.
+ */
+final class Fixtures
+{
+    /**
+     * Call a static method of BenchFixtures.
+     * @param name the method name; the first with that many parameters is called.
+     * @param args its arguments.
+     * @return its result.
+     */
+    @SuppressWarnings( "unchecked" )
+    static <T> T get( String name, Object... args )
+    {
+        try
+        {
+            for( Method m : Class.forName( "BenchFixtures" ).getMethods( ) )
+                if( m.getName( ).equals( name ) && m.getParameterCount( ) == args.length )
+                    return (T) m.invoke( null, args );
+            throw new IllegalArgumentException( "No fixture " + name );
+        }
+        catch( InvocationTargetException e )
+        {
+            if( e.getCause( ) instanceof RuntimeException )
+                throw (RuntimeException) e.getCause( );
+            throw new IllegalStateException( e.getCause( ) );
+        }
+        catch( ReflectiveOperationException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private Fixtures( )
+    {
+    }
+}
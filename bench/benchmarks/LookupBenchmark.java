@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Dictionary lookups through SpellCheckHashTable.contains, for each
+ * storage engine, of words that are present and of misspellings.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class LookupBenchmark
+{
+    @Param( { "table", "compact", "robinhood", "concurrent", "symbol" } )
+    public String storage;
+
+    @Param( { "10000", "100000" } )
+    public int size;
+
+    @Setup
+    public void setup( )
+    {
+        dictionary = Fixtures.get( "dictionary", storage, size );
+        hits = Fixtures.get( "hits", size );
+        misses = Fixtures.get( "misses", size );
+    }
+
+    @Benchmark
+    public boolean containsHit( )
+    {
+        return dictionary.test( hits[ next++ & MASK ] );
+    }
+
+    @Benchmark
+    public boolean containsMiss( )
+    {
+        return dictionary.test( misses[ next++ & MASK ] );
+    }
+
+    private static final int MASK = 1023;   // The fixtures hand out 1024 words
+
+    private Predicate<CharSequence> dictionary;
+    private String [ ] hits;
+    private String [ ] misses;
+    private int next;
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Corrections for one misspelling, from each suggestion engine over a
+ * dictionary of 100,000 words, either all of them or only the best k.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class SuggestionBenchmark
+{
+    @Param( { "generate", "deletion", "dawg" } )
+    public String engine;
+
+    @Param( { "0", "3" } )
+    public int k;
+
+    @Param( { "4", "8", "12" } )
+    public int length;
+
+    @Setup
+    public void setup( )
+    {
+        suggester = Fixtures.get( "suggester", engine, k );
+        typos = Fixtures.get( "typos", length );
+    }
+
+    @Benchmark
+    public List<String> suggest( )
+    {
+        return suggester.apply( typos[ next++ % typos.length ] );
+    }
+
+    private Function<String, List<String>> suggester;
+    private String [ ] typos;
+    private int next;
+}
@@ -0,0 +1,89 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+class ArrayAvlConcordanceTest
+{
+    @Test
+    void answersAsTheNodeTree( ) throws IOException
+    {
+        // Few words with long lists and many with short ones, so slices move and grow in place
+        List<String> words = TestText.words( 4000, 60 );
+        Random random = new Random( 61 );
+        TwoParamObj<String> expected = new TwoParamObj<>( );
+        ArrayAvlConcordance array = new ArrayAvlConcordance( 1 );
+        for( int line = 0; line < 40_000; line += 1 + random.nextInt( 3 ) )
+            for( int i = 0; i < 3; i++ )
+            {
+                String w = words.get( i == 0 ? random.nextInt( 20 ) : random.nextInt( words.size( ) ) );
+                expected.insert( w, line );
+                array.insert( new StringBuilder( w ), line );
+            }
+        array.insert( "far", 1 << 28 );     // A gap of several varint bytes
+        expected.insert( "far", 1 << 28 );
+
+        Map<String, List<Integer>> want = TwoParamObjTest.contents( expected );
+        assertEquals( want.size( ), array.size( ) );
+        Map<String, List<Integer>> found = new TreeMap<>( );
+        List<String> order = new ArrayList<>( );
+        array.forEachEntry( ( w, l ) -> {
+            order.add( w );
+            List<Integer> lines = new ArrayList<>( );
+            l.forEach( lines::add );
+            found.put( w, lines );
+        } );
+        assertEquals( want, found );
+        assertEquals( new ArrayList<>( want.keySet( ) ), order );
+
+        for( String w : want.keySet( ) )
+        {
+            int [ ] lines = expected.lines( w ).toArray( );
+            assertArrayEquals( lines, array.lines( w ).toArray( ), w );
+            assertTrue( array.appearsOn( w, lines[ lines.length - 1 ] ), w );
+            assertEquals( expected.lines( w ).contains( lines[ 0 ] + 1 ), array.appearsOn( w, lines[ 0 ] + 1 ), w );
+        }
+        assertFalse( array.contains( "~" ) );
+        assertNull( array.lines( "~" ) );
+        assertFalse( array.appearsOn( "far", -1 ) );
+
+        StringWriter tree = new StringWriter( );
+        StringWriter arrays = new StringWriter( );
+        expected.forEachEntry( ( w, l ) -> {
+            try
+            {
+                TwoParamObj.writeEntry( tree, w, l );
+            }
+            catch( IOException e )
+            {
+                throw new AssertionError( e );
+            }
+        } );
+        array.export( arrays );
+        assertEquals( tree.toString( ), arrays.toString( ) );
+    }
+
+    @Test
+    void rejectsLinesOutOfOrderWithoutChangingTheTree( )
+    {
+        ArrayAvlConcordance array = new ArrayAvlConcordance( );
+        array.insert( "cat", 5 );
+        assertThrows( IllegalArgumentException.class, ( ) -> array.insert( "cat", 4 ) );
+        assertThrows( IllegalArgumentException.class, ( ) -> array.insert( "dog", -1 ) );
+        assertEquals( 1, array.size( ) );
+        assertFalse( array.contains( "dog" ) );
+        assertArrayEquals( new int [ ] { 5 }, array.lines( "cat" ).toArray( ) );
+    }
+}
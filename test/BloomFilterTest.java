@@ -0,0 +1,66 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest
+{
+    @Test
+    void neverRejectsAnAddedWord( )
+    {
+        BloomFilter filter = new BloomFilter( 10_000, 0.01 );
+        for( int i = 0; i < 10_000; i++ )
+            filter.add( "w" + i );
+        for( int i = 0; i < 10_000; i++ )
+            assertTrue( filter.mightContain( new StringBuilder( "w" ).append( i ) ) );
+        int passed = 0;
+        for( int i = 0; i < 10_000; i++ )
+            if( filter.mightContain( "x" + i ) )
+                passed++;
+        assertTrue( passed < 300, passed + " false positives" );
+    }
+
+    @Test
+    void keepsCloseToTheConfiguredFalsePositiveRate( )
+    {
+        for( double target : new double [ ] { 0.01, 0.001 } )
+        {
+            BloomFilter filter = new BloomFilter( 100_000, target );
+            for( String w : TestText.words( 100_000, 90 ) )
+                filter.add( w );
+            int passed = 0;
+            int tries = 1_000_000;
+            for( int i = 0; i < tries; i++ )
+                if( filter.mightContain( "#" + i ) )
+                    passed++;
+            double rate = (double) passed / tries;
+            assertTrue( rate < 1.25 * target, "rate " + rate + " for target " + target );
+        }
+    }
+
+    @Test
+    void concurrentAddsKeepEveryBit( ) throws InterruptedException
+    {
+        BloomFilter filter = new BloomFilter( 40_000, 0.01 );
+        List<Thread> threads = new ArrayList<>( );
+        for( int t = 0; t < 4; t++ )
+        {
+            int first = t * 10_000;
+            threads.add( new Thread( ( ) -> {
+                for( int i = first; i < first + 10_000; i++ )
+                    filter.add( "w" + i );
+            } ) );
+        }
+        for( Thread t : threads )
+            t.start( );
+        for( Thread t : threads )
+            t.join( );
+
+        assertEquals( 40_000, filter.count( ) );
+        for( int i = 0; i < 40_000; i++ )
+            assertTrue( filter.mightContain( "w" + i ), "w" + i );
+    }
+}
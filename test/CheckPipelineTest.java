@@ -0,0 +1,76 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CheckPipelineTest
+{
+    @Test
+    void reportsWhatTheSequentialCheckReports( ) throws IOException
+    {
+        List<String> words = TestText.words( 2000, 80 );
+        SpellCheckHashTable h = new SpellCheckHashTable( );
+        for( String w : words )
+            h.insert( w );
+        String text = String.join( "\n", TestText.lines( words, 5000, 81 ) );
+
+        List<String> expected = new ArrayList<>( );
+        h.check( new BufferedReader( new StringReader( text ) ), m -> expected.add( m.toString( ) ) );
+        assertFalse( expected.isEmpty( ) );
+
+        for( int threads : new int[ ] { 1, 4 } )
+        {
+            CheckPipeline pipeline = new CheckPipeline( h, threads );
+            List<String> found = new ArrayList<>( );
+            pipeline.check( new BufferedReader( new StringReader( text ) ), m -> found.add( m.toString( ) ) );
+            assertEquals( expected, found, threads + " threads" );
+            assertTrue( pipeline.report( ).contains( "suggestions on" ) );
+        }
+
+        h.enableSuggestionCache( 1000, SuggestionCache.Policy.LRU );
+        CheckPipeline cached = new CheckPipeline( h, 4 );
+        List<String> found = new ArrayList<>( );
+        cached.check( new BufferedReader( new StringReader( text ) ), m -> found.add( m.toString( ) ) );
+        assertEquals( expected, found, "with a cache" );
+        assertTrue( h.suggestionCache( ).hits( ) > 0 );
+        assertTrue( cached.report( ).contains( "in 8 shards" ), cached.report( ) );
+
+        List<String> none = new ArrayList<>( );
+        new CheckPipeline( h, 2 ).check( new BufferedReader( new StringReader( "" ) ), m -> none.add( m.toString( ) ) );
+        assertEquals( List.of( ), none );
+    }
+
+    @Test
+    void passesOnTheReadersFailure( )
+    {
+        SpellCheckHashTable h = SpellCheckHashTableTest.dictionary( "cat" );
+        Reader failing = new Reader( )
+        {
+            private int calls;
+
+            public int read( char [ ] buf, int off, int len ) throws IOException
+            {
+                if( calls++ > 0 )
+                    throw new IOException( "disk gone" );
+                "cat hat\n".getChars( 0, 8, buf, off );
+                return 8;
+            }
+
+            public void close( )
+            {
+            }
+        };
+        IOException e = assertThrows( IOException.class,
+                ( ) -> new CheckPipeline( h, 2 ).check( new BufferedReader( failing ), m -> { } ) );
+        assertEquals( "disk gone", e.getMessage( ) );
+    }
+}
@@ -0,0 +1,53 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CompactWordTableTest extends WordTableContract
+{
+    WordTable newTable( )
+    {
+        return new CompactWordTable( );
+    }
+
+    @Test
+    void churnDoesNotGrowTheTable( )
+    {
+        WordTable table = newTable( );
+        for( int i = 0; i < 100; i++ )
+            table.insert( "live" + i );
+        int capacity = -1;
+        for( int round = 0; round < 200; round++ )
+        {
+            for( int i = 0; i < 100; i++ )
+                assertTrue( table.insert( "churn" + round + "x" + i ) );
+            for( int i = 0; i < 100; i++ )
+                assertTrue( table.remove( "churn" + round + "x" + i ) );
+            if( round == 20 )
+                capacity = table.capacity( );
+        }
+        assertEquals( 100, table.size( ) );
+        assertTrue( table.capacity( ) <= 2 * capacity, "capacity " + table.capacity( ) );
+        for( int i = 0; i < 100; i++ )
+            assertTrue( table.contains( "live" + i ) );
+        assertFalse( table.contains( "churn0x0" ) );
+    }
+
+    @Test
+    void valuesFollowTheirWordsThroughRehash( )
+    {
+        CompactWordTable table = new CompactWordTable( );
+        for( int i = 0; i < 1000; i++ )
+            table.setValue( "w" + i, i );
+        for( int i = 0; i < 1000; i += 2 )
+            table.remove( "w" + i );
+        for( int i = 1000; i < 3000; i++ )
+            table.insert( "w" + i );
+        for( int i = 1; i < 1000; i += 2 )
+            assertEquals( i, table.value( "w" + i ) );
+        assertEquals( 0, table.value( "w0" ) );
+        assertTrue( table.insert( "w0" ) );
+        assertEquals( 0, table.value( "w0" ) );
+    }
+}
@@ -0,0 +1,104 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CompiledDictionaryTest
+{
+    @Test
+    void answersLikeTheTableItWasWrittenFrom( ) throws IOException
+    {
+        SpellCheckHashTable table = new SpellCheckHashTable( );
+        Set<String> expected = new HashSet<>( );
+        for( int i = 0; i < 5000; i++ )
+            if( i % 3 != 0 )
+            {
+                table.insert( "w" + i );
+                expected.add( "w" + i );
+            }
+        table.insert( "" );
+        expected.add( "" );
+
+        Path file = dir.resolve( "dict.bin" );
+        CompiledDictionary.write( table, file );
+        CompiledDictionary dict = CompiledDictionary.open( file );
+
+        assertEquals( expected.size( ), dict.size( ) );
+        assertEquals( expected, WordTableContract.contents( dict ) );
+        for( int i = 0; i < 6000; i++ )
+            assertEquals( expected.contains( "w" + i ), dict.contains( new StringBuilder( "w" ).append( i ) ) );
+        assertTrue( dict.contains( "" ) );
+        assertThrows( UnsupportedOperationException.class, ( ) -> dict.insert( "x" ) );
+    }
+
+    @Test
+    void rejectsOtherFiles( ) throws IOException
+    {
+        Path file = dir.resolve( "junk.bin" );
+        Files.write( file, new byte[ 64 ] );
+        assertThrows( IOException.class, ( ) -> CompiledDictionary.open( file ) );
+
+        Path empty = dir.resolve( "empty.bin" );
+        Files.write( empty, new byte[ 0 ] );
+        assertThrows( IOException.class, ( ) -> CompiledDictionary.open( empty ) );
+    }
+
+    @Test
+    void rejectsDamagedFilesWhenOpened( ) throws IOException
+    {
+        SpellCheckHashTable table = new SpellCheckHashTable( );
+        for( int i = 0; i < 100; i++ )
+            table.insert( "w" + i );
+        Path file = dir.resolve( "dict.bin" );
+        CompiledDictionary.write( table, file );
+        byte [ ] good = Files.readAllBytes( file );
+        ByteBuffer header = ByteBuffer.wrap( good ).order( ByteOrder.LITTLE_ENDIAN );
+        int slots = header.getInt( 8 );
+        int arenaLength = header.getInt( 16 );
+        int firstUsed = 0;
+        while( header.getInt( 20 + 4 * firstUsed ) == 0 )
+            firstUsed++;
+
+        // A slot pointing past the arena
+        byte [ ] bad = good.clone( );
+        ByteBuffer.wrap( bad ).order( ByteOrder.LITTLE_ENDIAN ).putInt( 20 + 4 * firstUsed, arenaLength + 5 );
+        assertOpenFails( bad );
+
+        // A word whose length runs past the arena
+        bad = good.clone( );
+        int offset = header.getInt( 20 + 4 * firstUsed ) - 1;
+        ByteBuffer.wrap( bad ).order( ByteOrder.LITTLE_ENDIAN ).putChar( 20 + 4 * slots + 2 * offset, (char) 60000 );
+        assertOpenFails( bad );
+
+        // The arena cut short, with the header to match
+        bad = Arrays.copyOf( good, good.length - 20 );
+        ByteBuffer.wrap( bad ).order( ByteOrder.LITTLE_ENDIAN ).putInt( 16, arenaLength - 10 );
+        assertOpenFails( bad );
+
+        // A word count that disagrees with the slots
+        bad = good.clone( );
+        ByteBuffer.wrap( bad ).order( ByteOrder.LITTLE_ENDIAN ).putInt( 12, 101 );
+        assertOpenFails( bad );
+    }
+
+    private void assertOpenFails( byte [ ] contents ) throws IOException
+    {
+        Path file = dir.resolve( "bad.bin" );
+        Files.write( file, contents );
+        assertThrows( IOException.class, ( ) -> CompiledDictionary.open( file ) );
+    }
+
+    @TempDir
+    Path dir;
+}
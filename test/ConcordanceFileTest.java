@@ -0,0 +1,129 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ConcordanceFileTest
+{
+    @TempDir
+    Path dir;
+
+    @Test
+    void answersAsTheTreeItWasWrittenFrom( ) throws IOException
+    {
+        List<String> words = TestText.words( 3000, 24 );
+        Random random = new Random( 25 );
+        TwoParamObj<String> tree = new TwoParamObj<>( );
+        for( int line = 1; line <= 30_000; line++ )
+            tree.insert( words.get( random.nextInt( words.size( ) ) ), line );
+        Map<String, List<Integer>> expected = TwoParamObjTest.contents( tree );
+
+        Path file = dir.resolve( "tree.idx" );
+        ConcordanceFile.write( tree, file );
+        ConcordanceFile index = ConcordanceFile.open( file );
+
+        assertEquals( expected.size( ), index.size( ) );
+        Map<String, List<Integer>> read = new TreeMap<>( );
+        for( ConcordanceFile.Cursor c = index.cursor( ); c.next( ); )
+            read.put( c.word( ), lines( c.lines( ) ) );
+        assertEquals( expected, read );
+
+        for( String w : expected.keySet( ) )
+        {
+            assertTrue( index.contains( new StringBuilder( w ) ) );
+            assertArrayEquals( tree.lines( w ).toArray( ), index.lines( w ).toArray( ) );
+        }
+        for( String w : TestText.words( 500, 26 ) )
+            assertEquals( expected.containsKey( w ), index.contains( w ), w );
+        assertNull( index.lines( "" ) );
+        assertNull( index.lines( "~" ) );
+
+        for( String prefix : List.of( "", "a", "qu", words.get( 0 ).substring( 0, 2 ), "zzzzzzzzzz" ) )
+        {
+            Map<String, List<Integer>> found = new TreeMap<>( );
+            index.forEachWithPrefix( prefix, ( w, l ) -> found.put( w, lines( l ) ) );
+            Map<String, List<Integer>> want = new TreeMap<>( );
+            expected.forEach( ( w, l ) -> {
+                if( w.startsWith( prefix ) )
+                    want.put( w, l );
+            } );
+            assertEquals( want, found, "prefix " + prefix );
+        }
+    }
+
+    @Test
+    void handlesAnEmptyConcordance( ) throws IOException
+    {
+        Path file = dir.resolve( "empty.idx" );
+        ConcordanceFile.write( new TwoParamObj<>( ), file );
+        ConcordanceFile index = ConcordanceFile.open( file );
+        assertEquals( 0, index.size( ) );
+        assertFalse( index.cursor( ).next( ) );
+        assertFalse( index.contains( "word" ) );
+    }
+
+    @Test
+    void rejectsWordsOutOfOrderAndFilesOfOtherKinds( ) throws IOException
+    {
+        try( ConcordanceFile.Writer out = new ConcordanceFile.Writer( dir.resolve( "order.idx" ) ) )
+        {
+            out.add( "b", new PostingList( ) );
+            assertThrows( IllegalArgumentException.class, ( ) -> out.add( "a", new PostingList( ) ) );
+            assertThrows( IllegalArgumentException.class, ( ) -> out.add( "b", new PostingList( ) ) );
+        }
+
+        Path other = Files.write( dir.resolve( "other.idx" ), "not a concordance file at all".getBytes( ) );
+        assertThrows( IOException.class, ( ) -> ConcordanceFile.open( other ) );
+    }
+
+    @Test
+    void leavesNoFileWhenTheEntriesFailHalfway( ) throws IOException
+    {
+        TwoParamObj<String> tree = new TwoParamObj<>( );
+        List<String> words = TestText.words( 1000, 27 );
+        for( int i = 0; i < words.size( ); i++ )
+            tree.insert( words.get( i ), i + 1 );
+
+        Path file = dir.resolve( "failed.idx" );
+        int [ ] handed = { 0 };
+        IllegalStateException e = assertThrows( IllegalStateException.class,
+                ( ) -> ConcordanceFile.write( action -> tree.forEachEntry( ( w, l ) -> {
+                    if( ++handed[ 0 ] == 500 )
+                        throw new IllegalStateException( "source gone" );
+                    action.accept( w, l );
+                } ), file ) );
+        assertEquals( "source gone", e.getMessage( ) );
+        assertFalse( Files.exists( file ) );
+
+        // Until finish, what is on disk does not open
+        Path partial = dir.resolve( "partial.idx" );
+        try( ConcordanceFile.Writer out = new ConcordanceFile.Writer( partial ) )
+        {
+            for( int i = 0; i < 200; i++ )
+                out.add( String.format( "w%04d", i ), new PostingList( ) );
+            assertThrows( IOException.class, ( ) -> ConcordanceFile.open( partial ) );
+        }
+        assertFalse( Files.exists( partial ) );
+    }
+
+    private static List<Integer> lines( PostingList list )
+    {
+        List<Integer> lines = new ArrayList<>( );
+        list.forEach( lines::add );
+        return lines;
+    }
+}
@@ -0,0 +1,127 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class ConcurrentConcordanceTest
+{
+    @Test
+    void matchesTheSequentialTreeWhateverOrderLinesArriveIn( ) throws Exception
+    {
+        List<String> words = TestText.words( 500, 50 );
+        Random random = new Random( 51 );
+        TwoParamObj<String> expected = new TwoParamObj<>( );
+        List<List<int [ ]>> work = new ArrayList<>( );
+        for( int t = 0; t < 4; t++ )
+            work.add( new ArrayList<>( ) );
+        for( int line = 0; line < 20_000; line++ )
+        {
+            // Every line has the hot word; the others are spread thin
+            int [ ] ids = { 0, 1 + random.nextInt( words.size( ) - 1 ), 1 + random.nextInt( words.size( ) - 1 ) };
+            for( int id : ids )
+                expected.insert( words.get( id ), line );
+            work.get( random.nextInt( work.size( ) ) ).add( new int [ ] { line, ids[ 0 ], ids[ 1 ], ids[ 2 ] } );
+        }
+        for( List<int [ ]> w : work )
+            Collections.shuffle( w.subList( 0, w.size( ) / 2 ), random );   // Half far out of order
+
+        ConcurrentConcordance c = new ConcurrentConcordance( );
+        ExecutorService pool = Executors.newFixedThreadPool( work.size( ) + 1 );
+        try
+        {
+            List<Future<?>> done = new ArrayList<>( );
+            for( List<int [ ]> w : work )
+                done.add( pool.submit( ( ) -> {
+                    for( int [ ] entry : w )
+                        for( int i = 1; i < entry.length; i++ )
+                            c.insert( new StringBuilder( words.get( entry[ i ] ) ), entry[ 0 ] );
+                } ) );
+            Future<?> reader = pool.submit( ( ) -> {
+                for( int i = 0; i < 20; i++ )
+                {
+                    TwoParamObjTest.assertBalanced( c.snapshot( ) );
+                    PostingList hot = c.lines( words.get( 0 ) );
+                    if( hot != null )
+                        assertArrayEquals( sorted( hot.toArray( ) ), hot.toArray( ) );
+                }
+            } );
+            for( Future<?> f : done )
+                f.get( );
+            reader.get( );
+        }
+        finally
+        {
+            pool.shutdown( );
+        }
+
+        Map<String, List<Integer>> want = TwoParamObjTest.contents( expected );
+        assertEquals( want, TwoParamObjTest.contents( c.snapshot( ) ) );
+        assertEquals( want.size( ), c.size( ) );
+        for( String w : want.keySet( ) )
+        {
+            assertTrue( c.contains( new StringBuilder( w ) ) );
+            assertArrayEquals( expected.lines( w ).toArray( ), c.lines( w ).toArray( ), w );
+        }
+        for( int line = 0; line < 20_000; line += 97 )
+            assertTrue( c.appearsOn( words.get( 0 ), line ) );
+        assertFalse( c.appearsOn( words.get( 0 ), 20_000 ) );
+        assertFalse( c.contains( "~" ) );
+        assertNull( c.lines( "~" ) );
+    }
+
+    @Test
+    void answersLookupsBeforeOutOfOrderLinesAreMerged( )
+    {
+        ConcurrentConcordance c = new ConcurrentConcordance( );
+        for( int line = 1000; line >= 0; line -= 2 )
+            c.insert( "word", line );
+        for( int line = 0; line <= 1000; line++ )
+            assertEquals( line % 2 == 0, c.appearsOn( "word", line ), "line " + line );
+        int [ ] lines = c.lines( "word" ).toArray( );
+        assertEquals( 501, lines.length );
+        assertArrayEquals( sorted( lines ), lines );
+    }
+
+    @Test
+    void keepsFewSegmentsWhenLinesArriveInReverse( )
+    {
+        ConcurrentConcordance c = new ConcurrentConcordance( );
+        int count = 200_000;
+        for( int line = count - 1; line >= 0; line-- )
+        {
+            c.insert( "word", line );
+            if( line % 256 == 0 )
+                assertTrue( c.segmentCount( "word" ) <= 32 - Integer.numberOfLeadingZeros( count - line ),
+                        c.segmentCount( "word" ) + " segments after " + ( count - line ) + " lines" );
+        }
+        for( int line = 0; line < count; line += 997 )
+            assertTrue( c.appearsOn( "word", line ) );
+        assertFalse( c.appearsOn( "word", count ) );
+
+        int [ ] lines = c.lines( "word" ).toArray( );
+        assertEquals( count, lines.length );
+        for( int i = 0; i < count; i++ )
+            assertEquals( i, lines[ i ] );
+        assertEquals( 1, c.segmentCount( "word" ) );
+    }
+
+    private static int [ ] sorted( int [ ] lines )
+    {
+        int [ ] copy = lines.clone( );
+        Arrays.sort( copy );
+        return copy;
+    }
+}
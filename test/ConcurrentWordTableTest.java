@@ -0,0 +1,168 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+class ConcurrentWordTableTest extends WordTableContract
+{
+    WordTable newTable( )
+    {
+        return new ConcurrentWordTable( );
+    }
+
+    @Test
+    void readersKeepFindingWordsWhileWritersGrowTheTable( ) throws InterruptedException
+    {
+        ConcurrentWordTable table = new ConcurrentWordTable( );
+        for( int i = 0; i < 100; i++ )
+            table.insert( "base" + i );
+
+        AtomicBoolean done = new AtomicBoolean( );
+        AtomicReference<String> failure = new AtomicReference<>( );
+        List<Thread> readers = new ArrayList<>( );
+        for( int r = 0; r < 2; r++ )
+            readers.add( new Thread( ( ) -> {
+                while( !done.get( ) )
+                    for( int i = 0; i < 100; i++ )
+                        if( !table.contains( "base" + i ) || table.contains( "absent" + i ) )
+                            failure.compareAndSet( null, "lookup of word " + i );
+            } ) );
+        for( Thread t : readers )
+            t.start( );
+        for( int i = 0; i < 50_000; i++ )
+            table.insert( "new" + i );
+        done.set( true );
+        for( Thread t : readers )
+            t.join( );
+
+        assertEquals( null, failure.get( ) );
+        assertEquals( 50_100, table.size( ) );
+    }
+
+    @Test
+    void writersOnManyThreadsLoseNothing( ) throws InterruptedException
+    {
+        ConcurrentWordTable table = new ConcurrentWordTable( );
+        List<Thread> writers = new ArrayList<>( );
+        for( int t = 0; t < 4; t++ )
+        {
+            int first = t * 20_000;
+            writers.add( new Thread( ( ) -> {
+                for( int i = first; i < first + 20_000; i++ )
+                    table.insert( "w" + i );
+                for( int i = first; i < first + 20_000; i += 2 )
+                    table.remove( "w" + i );
+                for( int i = first + 1; i < first + 20_000; i += 2 )
+                    table.setFrequency( "w" + i, i );
+            } ) );
+        }
+        for( Thread t : writers )
+            t.start( );
+        for( Thread t : writers )
+            t.join( );
+
+        assertEquals( 40_000, table.size( ) );
+        for( int i = 0; i < 80_000; i++ )
+            assertEquals( i % 2 == 0 ? -1 : i, table.lookup( "w" + i ), "w" + i );
+        int seen = 0;
+        for( String w : table )
+            seen++;
+        assertEquals( 40_000, seen );
+    }
+
+    @Test
+    void replaceAllRefreshesTheBloomFilterAndCache( )
+    {
+        SpellCheckHashTable h = new SpellCheckHashTable( new ConcurrentWordTable( ) );
+        h.insert( "cat" );
+        h.insert( "hat" );
+        h.enableBloomFilter( 100, 0.01 );
+        h.enableSuggestionCache( 10, SuggestionCache.Policy.LRU );
+        assertEquals( List.of( "cat", "hat" ), h.suggestions( "at" ) );
+
+        h.replaceAll( List.of( "mat", "bat" ) );
+
+        assertFalse( h.contains( "cat" ) );
+        assertTrue( h.contains( "mat" ) );
+        assertTrue( h.contains( "bat" ) );
+        assertEquals( 2, h.size( ) );
+        assertEquals( List.of( "bat", "mat" ), h.suggestions( "at" ) );
+    }
+
+    @Test
+    void readersSeeTheNewWordsWithTheNewFilter( ) throws InterruptedException
+    {
+        List<String> before = TestText.words( 20_000, 100 );
+        List<String> after = new ArrayList<>( );
+        for( String w : TestText.words( 20_000, 101 ) )
+            after.add( w + "#" );     // No old word looks like this
+        SpellCheckHashTable h = new SpellCheckHashTable( new ConcurrentWordTable( ) );
+        for( String w : before )
+            h.insert( w );
+        h.enableBloomFilter( 40_000, 0.01 );
+
+        // Once a reader finds one new word, every new word must be found
+        AtomicBoolean done = new AtomicBoolean( );
+        AtomicReference<String> failure = new AtomicReference<>( );
+        Thread reader = new Thread( ( ) -> {
+            boolean swapped = false;
+            for( int i = 0; !done.get( ) || i % after.size( ) != 0; i++ )
+            {
+                boolean found = h.contains( after.get( i % after.size( ) ) );
+                if( swapped && !found )
+                    failure.compareAndSet( null, after.get( i % after.size( ) ) + " lost after the swap" );
+                swapped |= found;
+            }
+        } );
+        reader.start( );
+        h.replaceAll( after );
+        done.set( true );
+        reader.join( );
+
+        assertEquals( null, failure.get( ) );
+        for( String w : after )
+            assertTrue( h.contains( w ), w );
+    }
+
+    @Test
+    void suggestionsFoundBeforeASwapAreNotCached( )
+    {
+        SpellCheckHashTable h = new SpellCheckHashTable( new ConcurrentWordTable( ) );
+        h.insert( "cat" );
+        h.enableSuggestionCache( 10, SuggestionCache.Policy.LRU );
+        AtomicBoolean swapped = new AtomicBoolean( );
+        h.setSuggestionEngine( word -> {
+            // The dictionary changes while these are worked out from the old one
+            List<String> found = new ArrayList<>( );
+            for( String w : h )
+                found.add( w );
+            if( swapped.compareAndSet( false, true ) )
+                h.replaceAll( List.of( "hat" ) );
+            return found;
+        } );
+
+        assertEquals( List.of( "cat" ), h.suggestions( "at" ) );
+        assertEquals( 0, h.suggestionCache( ).size( ) );
+        assertEquals( List.of( "hat" ), h.suggestions( "at" ) );
+        assertEquals( List.of( "hat" ), h.suggestions( "at" ) );
+        assertEquals( 1, h.suggestionCache( ).hits( ) );
+    }
+
+    @Test
+    void replaceAllWorksOnEveryStore( )
+    {
+        SpellCheckHashTable h = new SpellCheckHashTable( );
+        h.insert( "cat" );
+        h.enableBloomFilter( 100, 0.01 );
+        h.replaceAll( List.of( "dog" ) );
+        assertEquals( 1, h.size( ) );
+        assertFalse( h.contains( "cat" ) );
+        assertTrue( h.contains( "dog" ) );
+    }
+}
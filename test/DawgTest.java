@@ -0,0 +1,99 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class DawgTest
+{
+    @Test
+    void acceptsExactlyItsWords( )
+    {
+        List<String> words = TestText.words( 5000, 4 );
+        words.add( words.get( 0 ) );
+        Dawg dawg = Dawg.build( words );
+        Set<String> expected = new HashSet<>( words );
+
+        assertEquals( expected.size( ), dawg.size( ) );
+        List<String> iterated = new ArrayList<>( );
+        dawg.forEach( iterated::add );
+        List<String> sorted = new ArrayList<>( expected );
+        sorted.sort( null );
+        assertEquals( sorted, iterated );
+
+        for( String w : TestText.words( 5000, 5 ) )
+            assertEquals( expected.contains( w ), dawg.contains( w ), w );
+        for( String w : expected )
+            assertTrue( dawg.contains( new StringBuilder( w ) ) );
+        assertFalse( dawg.contains( "" ) );
+    }
+
+    @Test
+    void suggestsEveryWordWithinTheDistance( )
+    {
+        Random random = new Random( 6 );
+        List<String> words = new ArrayList<>( );
+        for( int i = 0; i < 2000; i++ )
+            words.add( randomWord( random ) );
+        Dawg dawg = Dawg.build( words );
+        Set<String> distinct = new HashSet<>( words );
+
+        for( int i = 0; i < 200; i++ )
+        {
+            String typo = randomWord( random );
+            assertEquals( bruteForce( distinct, typo, 2 ), dawg.suggest( typo ), typo );
+        }
+    }
+
+    @Test
+    void handsTheSameCorrectionsToASinkAndStopsAtItsBound( )
+    {
+        Random random = new Random( 9 );
+        List<String> words = new ArrayList<>( );
+        for( int i = 0; i < 2000; i++ )
+            words.add( randomWord( random ) );
+        Dawg dawg = Dawg.build( words );
+        Set<String> distinct = new HashSet<>( words );
+
+        for( int i = 0; i < 200; i++ )
+        {
+            String typo = randomWord( random );
+            List<String> listed = dawg.suggest( typo );
+            assertEquals( listed, SinkCollector.collect( dawg, typo, Integer.MAX_VALUE ), typo );
+
+            List<String> near = bruteForce( distinct, typo, 1 );
+            if( near.isEmpty( ) && !listed.isEmpty( ) )
+                near.add( listed.get( 0 ) );   // Handed over before the bound is known
+            assertEquals( near, SinkCollector.collect( dawg, typo, 1 ), typo );
+        }
+    }
+
+    private static List<String> bruteForce( Set<String> words, String typo, int max )
+    {
+        List<String> found = new ArrayList<>( );
+        for( int d = 1; d <= max; d++ )
+        {
+            List<String> atDistance = new ArrayList<>( );
+            for( String w : words )
+                if( DeletionIndex.editDistance( typo, w, max ) == d )
+                    atDistance.add( w );
+            atDistance.sort( null );
+            found.addAll( atDistance );
+        }
+        return found;
+    }
+
+    private static String randomWord( Random random )
+    {
+        char [ ] w = new char[ 1 + random.nextInt( 8 ) ];
+        for( int i = 0; i < w.length; i++ )
+            w[ i ] = (char) ( 'a' + random.nextInt( 4 ) );
+        return new String( w );
+    }
+}
@@ -0,0 +1,89 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class DeletionIndexTest
+{
+    @Test
+    void findsEveryWordWithinTheDistance( )
+    {
+        Random random = new Random( 3 );
+        List<String> words = new ArrayList<>( );
+        for( int i = 0; i < 3000; i++ )
+            words.add( randomWord( random ) );
+        DeletionIndex index = new DeletionIndex( words, 2 );
+
+        for( int i = 0; i < 300; i++ )
+        {
+            String typo = randomWord( random );
+            assertEquals( bruteForce( words, typo, 2 ), index.suggest( typo ), typo );
+        }
+    }
+
+    @Test
+    void countsAdjacentSwapsAsOneEdit( )
+    {
+        assertEquals( 1, DeletionIndex.editDistance( "form", "from", 3 ) );
+        assertEquals( 3, DeletionIndex.editDistance( "kitten", "sitting", 3 ) );
+        assertEquals( 2, DeletionIndex.editDistance( "abc", "abcdefg", 1 ) );
+
+        DeletionIndex index = new DeletionIndex( List.of( "from", "form", "farm", "forms" ), 1 );
+        assertEquals( List.of( "form" ), index.suggest( "fomr" ) );
+        assertEquals( List.of( "farm", "forms", "from" ), index.suggest( "form" ) );
+    }
+
+    @Test
+    void handsTheSameCorrectionsToASinkAndStopsAtItsBound( )
+    {
+        Random random = new Random( 8 );
+        List<String> words = new ArrayList<>( );
+        for( int i = 0; i < 3000; i++ )
+            words.add( randomWord( random ) );
+        DeletionIndex index = new DeletionIndex( words, 2 );
+
+        for( int i = 0; i < 200; i++ )
+        {
+            String typo = randomWord( random );
+            List<String> listed = index.suggest( typo );
+            assertEquals( listed, SinkCollector.collect( index, typo, Integer.MAX_VALUE ), typo );
+
+            List<String> near = new ArrayList<>( );
+            for( String w : listed )
+                if( DeletionIndex.editDistance( typo, w, 2 ) == 1 )
+                    near.add( w );
+            if( near.isEmpty( ) && !listed.isEmpty( ) )
+                near.add( listed.get( 0 ) );   // Handed over before the bound is known
+            assertEquals( near, SinkCollector.collect( index, typo, 1 ), typo );
+        }
+    }
+
+    /**
+     * Every word within max edits, nearest first, then alphabetical.
+     */
+    private static List<String> bruteForce( List<String> words, String typo, int max )
+    {
+        List<String> found = new ArrayList<>( );
+        for( int d = 1; d <= max; d++ )
+        {
+            List<String> atDistance = new ArrayList<>( );
+            for( String w : words )
+                if( !atDistance.contains( w ) && DeletionIndex.editDistance( typo, w, max ) == d )
+                    atDistance.add( w );
+            atDistance.sort( null );
+            found.addAll( atDistance );
+        }
+        return found;
+    }
+
+    private static String randomWord( Random random )
+    {
+        char [ ] w = new char[ 2 + random.nextInt( 9 ) ];
+        for( int i = 0; i < w.length; i++ )
+            w[ i ] = (char) ( 'a' + random.nextInt( 5 ) );
+        return new String( w );
+    }
+}
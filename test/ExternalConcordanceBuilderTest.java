@@ -0,0 +1,110 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ExternalConcordanceBuilderTest
+{
+    @TempDir
+    Path dir;
+
+    @Test
+    void mergesManyRunsInSeveralPasses( ) throws IOException
+    {
+        String text = String.join( "\n", TestText.lines( TestText.words( 2000, 40 ), 6000, 41 ) );
+        Map<String, List<Integer>> expected = sequential( text );
+
+        for( int fanIn : new int [ ] { 2, 3, 64 } )
+        {
+            Path out = dir.resolve( "fan" + fanIn + ".idx" );
+            int runs;
+            try( ExternalConcordanceBuilder builder = new ExternalConcordanceBuilder( out, 16 << 10, fanIn ) )
+            {
+                builder.index( new StringReader( text ) );
+                runs = builder.runs( );
+            }
+            assertTrue( runs > 64, "only " + runs + " runs" );
+            assertEquals( expected, read( out ), "fan-in " + fanIn );
+            assertEquals( List.of( out ), listing( ) );
+            Files.delete( out );
+        }
+    }
+
+    @Test
+    void writesTheTreeDirectlyWhenItFits( ) throws IOException
+    {
+        String text = "The cat\r\nsat on\rthe mat the\u0085end";
+        Path out = dir.resolve( "small.idx" );
+        try( ExternalConcordanceBuilder builder = new ExternalConcordanceBuilder( out, 1 << 20 ) )
+        {
+            builder.index( new StringReader( text ) );
+            assertEquals( 0, builder.runs( ) );
+        }
+        assertEquals( sequential( text ), read( out ) );
+        assertEquals( List.of( 1, 3, 4 ), read( out ).get( "the" ) );
+        assertEquals( List.of( out ), listing( ) );
+    }
+
+    @Test
+    void splitsLinesAcrossReadsAsTheScannerDoes( ) throws IOException
+    {
+        // Long lines and breaks of every kind, some landing on buffer edges
+        String [ ] breaks = { "\n", "\r\n", "\r", "\u0085", " ", " ", "\n\n" };
+        List<String> words = TestText.words( 300, 42 );
+        StringBuilder text = new StringBuilder( );
+        for( int i = 0; i < 4000; i++ )
+        {
+            text.append( words.get( i % words.size( ) ) ).append( i % 7 == 0 ? " " : "," );
+            if( i % 11 == 0 )
+                text.append( breaks[ i % breaks.length ] );
+        }
+        text.append( String.join( " ", words ) );   // One line longer than the buffer
+
+        Path out = dir.resolve( "breaks.idx" );
+        try( ExternalConcordanceBuilder builder = new ExternalConcordanceBuilder( out, 1 << 20 ) )
+        {
+            builder.index( new StringReader( text.toString( ) ) );
+        }
+        assertEquals( sequential( text.toString( ) ), read( out ) );
+    }
+
+    private static Map<String, List<Integer>> sequential( String text )
+    {
+        TwoParamObj<String> tree = new TwoParamObj<>( );
+        TwoParamObj.indexLines( new Scanner( text ), tree::insertWord );
+        return TwoParamObjTest.contents( tree );
+    }
+
+    private static Map<String, List<Integer>> read( Path file ) throws IOException
+    {
+        Map<String, List<Integer>> entries = new TreeMap<>( );
+        for( ConcordanceFile.Cursor c = ConcordanceFile.open( file ).cursor( ); c.next( ); )
+        {
+            List<Integer> lines = new ArrayList<>( );
+            c.lines( ).forEach( lines::add );
+            assertFalse( entries.containsKey( c.word( ) ) );
+            entries.put( c.word( ), lines );
+        }
+        return entries;
+    }
+
+    private List<Path> listing( ) throws IOException
+    {
+        try( var files = Files.list( dir ) )
+        {
+            return files.toList( );
+        }
+    }
+}
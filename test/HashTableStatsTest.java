@@ -0,0 +1,62 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class HashTableStatsTest
+{
+    @Test
+    void countsEveryLookupOnceWithBloomRejectsApart( )
+    {
+        SpellCheckHashTable h = new SpellCheckHashTable( );
+        for( int i = 0; i < 1000; i++ )
+            h.insert( "w" + i );
+        h.enableBloomFilter( 1000, 0.01 );
+        HashTableStats stats = h.enableStats( );
+
+        for( int i = 0; i < 500; i++ )
+            h.contains( "w" + i );
+        for( int i = 0; i < 500; i++ )
+            h.contains( "x" + i );
+
+        assertEquals( 500, stats.getContainsHits( ) );
+        assertEquals( 500, stats.getContainsMisses( ) + stats.getContainsBloomRejects( ) );
+        assertEquals( h.bloomRejects( ), stats.getContainsBloomRejects( ) );
+        assertTrue( stats.getContainsBloomRejects( ) > 400 );
+        assertEquals( 0.5, stats.getContainsHitRate( ), 1e-9 );
+        assertEquals( 500 + stats.getContainsMisses( ), total( stats.getProbeLengthHistogram( ) ) );
+    }
+
+    @Test
+    void recordsOneProbeSequencePerLookupDuringIncrementalRehash( )
+    {
+        SpellCheckHashTable h = new SpellCheckHashTable( );
+        h.setIncrementalRehash( 4 );
+        HashTableStats stats = h.enableStats( );
+        int capacity = h.capacity( );
+        int n = 0;
+        while( h.capacity( ) == capacity )
+            h.insert( "w" + n++ );
+        // The old array is still waiting to be moved, so lookups look in both
+
+        long before = total( stats.getProbeLengthHistogram( ) );
+        for( int i = 0; i < 50; i++ )
+            h.contains( "absent" + i );
+        for( int i = 0; i < n; i++ )
+            assertTrue( h.contains( "w" + i ) );
+        assertEquals( before + 50 + n, total( stats.getProbeLengthHistogram( ) ) );
+
+        long inserts = total( stats.getProbeLengthHistogram( ) );
+        h.insert( "one more" );
+        h.remove( "w0" );
+        assertEquals( inserts + 2, total( stats.getProbeLengthHistogram( ) ) );
+    }
+
+    private static long total( long [ ] histogram )
+    {
+        long total = 0;
+        for( long count : histogram )
+            total += count;
+        return total;
+    }
+}
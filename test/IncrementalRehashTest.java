@@ -0,0 +1,60 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class IncrementalRehashTest extends WordTableContract
+{
+    WordTable newTable( )
+    {
+        SpellCheckHashTable h = new SpellCheckHashTable( );
+        h.setIncrementalRehash( 4 );
+        return h;
+    }
+
+    @Test
+    void iteratesOverBothArraysWhileMoving( )
+    {
+        SpellCheckHashTable h = (SpellCheckHashTable) newTable( );
+        Set<String> expected = new HashSet<>( );
+        for( int i = 0; i < 5000; i++ )
+        {
+            h.insert( "w" + i );
+            expected.add( "w" + i );
+            if( i % 97 == 0 )
+                assertEquals( expected, contents( h ), "after " + i );
+        }
+    }
+
+    @Test
+    void rebuildsOnceDeletedWordsPileUp( )
+    {
+        SpellCheckHashTable h = (SpellCheckHashTable) newTable( );
+        for( int i = 0; i < 1000; i++ )
+            h.insert( "w" + i );
+        int capacity = h.capacity( );
+        for( int i = 0; i < 900; i++ )
+            h.remove( "w" + i );
+        for( int i = 0; i < 100; i++ )
+            h.contains( "w0" );
+
+        assertEquals( capacity, h.capacity( ) );
+        assertTrue( h.tombstones( ) <= capacity / 4, "tombstones " + h.tombstones( ) );
+        for( int i = 900; i < 1000; i++ )
+            assertTrue( h.contains( "w" + i ) );
+    }
+
+    @Test
+    void switchingBackFinishesTheMove( )
+    {
+        SpellCheckHashTable h = (SpellCheckHashTable) newTable( );
+        for( int i = 0; i < 300; i++ )
+            h.insert( "w" + i );
+        h.setIncrementalRehash( 0 );
+        assertEquals( 0, h.tombstones( ) );
+        assertEquals( 300, contents( h ).size( ) );
+    }
+}
@@ -0,0 +1,36 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ParallelCheckerTest
+{
+    @Test
+    void reportsWhatTheSequentialCheckReports( ) throws IOException
+    {
+        List<String> words = TestText.words( 2000, 1 );
+        SpellCheckHashTable h = new SpellCheckHashTable( );
+        for( String w : words )
+            h.insert( w );
+        String text = String.join( "\n", TestText.lines( words, 3000, 2 ) );
+
+        List<String> expected = new ArrayList<>( );
+        h.check( new BufferedReader( new StringReader( text ) ), m -> expected.add( m.toString( ) ) );
+        assertFalse( expected.isEmpty( ) );
+
+        for( int threads : new int[ ] { 1, 3 } )
+            for( int chunkLines : new int[ ] { 1, 7, 4096 } )
+            {
+                List<String> found = new ArrayList<>( );
+                ParallelChecker.check( h, new BufferedReader( new StringReader( text ) ),
+                                       m -> found.add( m.toString( ) ), threads, chunkLines );
+                assertEquals( expected, found, threads + " threads, " + chunkLines + " lines per chunk" );
+            }
+    }
+}
@@ -0,0 +1,59 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Scanner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParallelConcordanceTest
+{
+    @TempDir
+    Path dir;
+
+    @Test
+    void matchesTheSequentialBuild( ) throws IOException
+    {
+        List<String> lines = TestText.lines( TestText.words( 500, 20 ), 2000, 21 );
+        assertSameAsSequential( String.join( "\n", lines ), StandardCharsets.UTF_8 );
+    }
+
+    @Test
+    void breaksLinesWhereScannerDoes( ) throws IOException
+    {
+        StringBuilder text = new StringBuilder( );
+        String [ ] breaks = { "\n", "\r\n", "\r", "\u0085", "\u2028", "\u2029" };
+        List<String> lines = TestText.lines( TestText.words( 300, 22 ), 1200, 23 );
+        for( int i = 0; i < lines.size( ); i++ )
+            text.append( lines.get( i ) ).append( breaks[ i % breaks.length ] );
+        text.append( "last line" );
+
+        assertSameAsSequential( text.toString( ), StandardCharsets.UTF_8 );
+        // ISO-8859-1 has no U+2028 or U+2029, but U+0085 is one byte there
+        assertSameAsSequential( text.toString( ).replace( '\u2028', '\n' ).replace( '\u2029', '\n' ),
+                                StandardCharsets.ISO_8859_1 );
+    }
+
+    private void assertSameAsSequential( String text, Charset charset ) throws IOException
+    {
+        Path file = Files.write( dir.resolve( "text.txt" ), text.getBytes( charset ) );
+        TwoParamObj<String> expected = new TwoParamObj<>( );
+        try( Scanner scanner = new Scanner( file, charset ) )
+        {
+            TwoParamObj.indexLines( scanner, expected::insertWord );
+        }
+
+        for( int threads : new int[ ] { 1, 2, 5 } )
+        {
+            TwoParamObj<String> built = ParallelConcordance.build( file, threads, charset );
+            assertEquals( TwoParamObjTest.contents( expected ), TwoParamObjTest.contents( built ),
+                          threads + " threads" );
+            TwoParamObjTest.assertBalanced( built );
+        }
+    }
+}
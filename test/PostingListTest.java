@@ -0,0 +1,119 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PostingListTest
+{
+    @Test
+    void matchesAListOfTheSameLines( ) throws IOException
+    {
+        Random random = new Random( 14 );
+        for( int size : new int[ ] { 0, 1, 63, 64, 65, 1000 } )
+        {
+            PostingList list = new PostingList( );
+            List<Integer> expected = new ArrayList<>( );
+            int line = 0;
+            for( int i = 0; i < size; i++ )
+            {
+                line += random.nextInt( 3 ) == 0 ? random.nextInt( 100_000 ) : random.nextInt( 3 );
+                list.add( line );
+                expected.add( line );
+            }
+
+            assertEquals( expected.size( ), list.size( ) );
+            assertEquals( expected.toString( ), list.toString( ) );
+            for( int l = -1; l <= line + 1; l += 1 + random.nextInt( 50 ) )
+                assertEquals( expected.contains( l ), list.contains( l ), "line " + l );
+            for( int l : expected )
+                assertTrue( list.contains( l ) );
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream( );
+            list.writeEncoded( out );
+            PostingList copy = PostingList.fromEncoded( out.toByteArray( ), out.size( ), size );
+            assertArrayEquals( list.toArray( ), copy.toArray( ) );
+            for( int l : expected )
+                assertTrue( copy.contains( l ) );
+        }
+    }
+
+    @Test
+    void addRejectsLinesOutOfOrderButInsertPutsThemInPlace( )
+    {
+        PostingList list = new PostingList( );
+        for( int l = 10; l <= 1000; l += 10 )
+            list.add( l );
+        assertThrows( IllegalArgumentException.class, ( ) -> list.add( 5 ) );
+
+        list.insert( 5 );
+        list.insert( 505 );
+        list.insert( 1000 );
+        list.insert( 2000 );
+        assertEquals( 104, list.size( ) );
+        assertEquals( 5, list.first( ) );
+        assertEquals( 2000, list.last( ) );
+        int [ ] lines = list.toArray( );
+        for( int i = 1; i < lines.length; i++ )
+            assertTrue( lines[ i - 1 ] <= lines[ i ] );
+        assertTrue( list.contains( 505 ) );
+        assertFalse( list.contains( 506 ) );
+    }
+
+    @Test
+    void insertKeepsOrderForReversedAndShuffledLines( ) throws IOException
+    {
+        Random random = new Random( 15 );
+        for( boolean reversed : new boolean[ ] { true, false } )
+        {
+            PostingList list = new PostingList( );
+            List<Integer> expected = new ArrayList<>( );
+            for( int i = 0; i < 50_000; i++ )
+            {
+                int line = reversed ? 200_000 - 4 * i : random.nextInt( 200_000 );
+                list.insert( line );
+                expected.add( line );
+                if( i % 9973 == 0 )
+                    assertTrue( list.contains( line ) );
+            }
+            expected.sort( null );
+
+            assertEquals( expected.size( ), list.size( ) );
+            assertEquals( expected.toString( ), list.toString( ) );
+            assertEquals( (int) expected.get( 0 ), list.first( ) );
+            assertEquals( (int) expected.get( expected.size( ) - 1 ), list.last( ) );
+            for( int i = 0; i < 2000; i++ )
+            {
+                int l = random.nextInt( 200_001 );
+                assertEquals( expected.contains( l ), list.contains( l ), "line " + l );
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream( );
+            list.writeEncoded( out );
+            assertEquals( list.encodedLength( ), out.size( ) );
+            PostingList copy = PostingList.fromEncoded( out.toByteArray( ), out.size( ), list.size( ) );
+            assertArrayEquals( list.toArray( ), copy.toArray( ) );
+        }
+    }
+
+    @Test
+    void treeAcceptsLinesInAnyOrder( )
+    {
+        TwoParamObj<String> tree = new TwoParamObj<>( );
+        tree.insert( "word", 7 );
+        tree.insert( "word", 3 );
+        tree.insertWord( new StringBuilder( "word" ), 5 );
+        tree.insert( "other", 1 );
+        assertArrayEquals( new int[ ] { 3, 5, 7 }, tree.lines( "word" ).toArray( ) );
+        assertTrue( tree.appearsOn( "word", 3 ) );
+        assertFalse( tree.appearsOn( "word", 4 ) );
+    }
+}
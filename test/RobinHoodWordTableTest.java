@@ -0,0 +1,25 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class RobinHoodWordTableTest extends WordTableContract
+{
+    WordTable newTable( )
+    {
+        return new RobinHoodWordTable( );
+    }
+
+    @Test
+    void backwardShiftLeavesNoHoles( )
+    {
+        RobinHoodWordTable table = new RobinHoodWordTable( 16, 0.9 );
+        for( int i = 0; i < 5000; i++ )
+            table.insert( "w" + i );
+        for( int i = 0; i < 5000; i += 2 )
+            assertTrue( table.remove( "w" + i ) );
+        for( int i = 0; i < 5000; i++ )
+            assertEquals( i % 2 == 1, table.contains( "w" + i ), "w" + i );
+        assertEquals( 2500, contents( table ).size( ) );
+    }
+}
@@ -0,0 +1,39 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs an engine's sink search and checks what it is handed.
+ */
+final class SinkCollector
+{
+    private SinkCollector( )
+    {
+    }
+
+    /**
+     * Collect the corrections an engine hands to a sink with a fixed bound,
+     * checking each distance it reports and that they never decrease.
+     * The engine only learns the bound from the sink's first answer.
+     * @param engine the engine.
+     * @param typo the misspelling.
+     * @param bound the farthest distance the sink wants.
+     * @return the corrections in the order they were handed over.
+     */
+    static List<String> collect( SuggestionEngine engine, String typo, int bound )
+    {
+        List<String> found = new ArrayList<>( );
+        int [ ] last = { 0 };
+        engine.suggest( typo, ( w, distance ) -> {
+            assertEquals( DeletionIndex.editDistance( typo, w, 10 ), distance, w );
+            assertTrue( distance >= last[ 0 ], w );
+            assertTrue( distance <= bound || found.isEmpty( ), w + " is past the bound" );
+            last[ 0 ] = distance;
+            found.add( w );
+            return bound;
+        } );
+        return found;
+    }
+}
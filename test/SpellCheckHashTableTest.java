@@ -0,0 +1,121 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class SpellCheckHashTableTest extends WordTableContract
+{
+    WordTable newTable( )
+    {
+        return new SpellCheckHashTable( );
+    }
+
+    @Test
+    void reportsWhereEachMisspelledWordStarts( )
+    {
+        SpellCheckHashTable h = dictionary( "foo", "bar" );
+        List<Misspelling> found = h.check( List.of( "bar \"Fooo,\" said  xbar", "", "foo (baz" ) );
+
+        assertEquals( 4, found.size( ) );
+        assertMisspelling( found.get( 0 ), 1, 6, "Fooo" );
+        assertMisspelling( found.get( 1 ), 1, 13, "said" );
+        assertMisspelling( found.get( 2 ), 1, 19, "xbar" );
+        assertMisspelling( found.get( 3 ), 3, 5, "(baz" );
+        assertEquals( List.of( "bar" ), found.get( 2 ).suggestions( ) );
+    }
+
+    @Test
+    void checksOneLetterWords( ) throws IOException
+    {
+        SpellCheckHashTable h = dictionary( "a", "qa", "i" );
+        List<Misspelling> found = new ArrayList<>( );
+        h.check( new BufferedReader( new StringReader( "q\nx a" ) ), found::add );
+
+        assertEquals( 2, found.size( ) );
+        assertMisspelling( found.get( 0 ), 1, 1, "q" );
+        assertEquals( List.of( "qa" ), found.get( 0 ).suggestions( ) );
+        assertMisspelling( found.get( 1 ), 2, 1, "x" );
+        assertEquals( List.of( ), found.get( 1 ).suggestions( ) );
+        assertEquals( List.of( "a", "i" ), h.suggestions( "", 3 ) );
+    }
+
+    @Test
+    void suggestsInsertionsThenDeletionsThenSwaps( )
+    {
+        SpellCheckHashTable h = dictionary( "cat", "act", "at", "cart" );
+        assertEquals( List.of( "act", "cat" ), h.suggestions( "ct" ) );
+        assertEquals( List.of( "cart", "at", "act" ), h.suggestions( "cat" ) );
+        assertEquals( List.of( "cat" ), h.suggestions( "cta" ) );
+    }
+
+    @Test
+    void topSuggestionsMatchRankingTheFullList( )
+    {
+        List<String> words = TestText.words( 3000, 12 );
+        Random random = new Random( 13 );
+        for( String engine : List.of( "generate", "deletion", "dawg" ) )
+        {
+            SpellCheckHashTable h = dictionary( words.toArray( new String[ 0 ] ) );
+            if( engine.equals( "deletion" ) )
+                h.setSuggestionEngine( new DeletionIndex( h, 2 ) );
+            else if( engine.equals( "dawg" ) )
+                h.setSuggestionEngine( Dawg.build( h ) );
+            for( String w : words )
+                assertTrue( h.setFrequency( w, random.nextInt( 5 ) ) );
+
+            for( String w : words.subList( 0, 300 ) )
+            {
+                String typo = w.substring( 1 ) + "e";
+                List<String> ranked = new ArrayList<>( h.suggestions( typo ) );
+                ranked.sort( Comparator.comparingInt( ( String c ) -> DeletionIndex.editDistance( typo, c, 10 ) )
+                                       .thenComparing( c -> -h.frequency( c ) ) );
+                assertEquals( ranked.subList( 0, Math.min( 3, ranked.size( ) ) ), h.suggestions( typo, 3 ),
+                              engine + " " + typo );
+            }
+        }
+    }
+
+    @Test
+    void keepsFrequenciesOnlyForDictionaryWords( )
+    {
+        SpellCheckHashTable h = dictionary( "cat", "hat" );
+        assertTrue( h.setFrequency( "hat", 9 ) );
+        assertFalse( h.setFrequency( "bat", 5 ) );
+        assertEquals( 9, h.frequency( "hat" ) );
+        assertEquals( 0, h.frequency( "cat" ) );
+        assertEquals( 0, h.frequency( "bat" ) );
+        assertEquals( List.of( "hat", "cat" ), h.suggestions( "at", 2 ) );
+
+        // A store that keeps no frequencies of its own gets a side table
+        SpellCheckHashTable read = new SpellCheckHashTable( Dawg.build( List.of( "cat", "hat" ) ) );
+        assertTrue( read.setFrequency( "hat", 9 ) );
+        assertFalse( read.setFrequency( "bat", 5 ) );
+        assertEquals( 9, read.lookup( "hat" ) );
+        assertEquals( 0, read.lookup( "cat" ) );
+        assertEquals( -1, read.lookup( "bat" ) );
+    }
+
+    static SpellCheckHashTable dictionary( String... words )
+    {
+        SpellCheckHashTable h = new SpellCheckHashTable( );
+        for( String w : words )
+            h.insert( w );
+        return h;
+    }
+
+    static void assertMisspelling( Misspelling m, int line, int column, String word )
+    {
+        assertEquals( line, m.line( ), m.toString( ) );
+        assertEquals( column, m.column( ), m.toString( ) );
+        assertEquals( word, m.word( ), m.toString( ) );
+    }
+}
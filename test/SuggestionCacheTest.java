@@ -0,0 +1,94 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SuggestionCacheTest
+{
+    @Test
+    void lruEvictsTheLeastRecentlyUsedEntry( )
+    {
+        SuggestionCache cache = new SuggestionCache( 2, SuggestionCache.Policy.LRU );
+        cache.put( "a", List.of( "1" ) );
+        cache.put( "b", List.of( "2" ) );
+        cache.get( "a" );
+        cache.put( "c", List.of( "3" ) );
+
+        assertNull( cache.get( "b" ) );
+        assertEquals( List.of( "1" ), cache.get( "a" ) );
+        assertEquals( List.of( "3" ), cache.get( "c" ) );
+        assertEquals( 2, cache.size( ) );
+        assertEquals( 1, cache.evictions( ) );
+    }
+
+    @Test
+    void tinyLfuKeepsPopularWordsAgainstOneOffs( )
+    {
+        SuggestionCache cache = new SuggestionCache( 4, SuggestionCache.Policy.TINY_LFU );
+        for( int round = 0; round < 10; round++ )
+            for( String w : new String[ ] { "teh", "adn", "recieve", "wierd" } )
+                if( cache.get( w ) == null )
+                    cache.put( w, List.of( w ) );
+        for( int i = 0; i < 30; i++ )
+            if( cache.get( "once" + i ) == null )
+                cache.put( "once" + i, List.of( ) );
+
+        for( String w : new String[ ] { "teh", "adn", "recieve", "wierd" } )
+            assertNotNull( cache.get( w ), w );
+        assertEquals( 30, cache.rejections( ) );
+    }
+
+    @Test
+    void shardedCacheServesManyThreads( ) throws InterruptedException
+    {
+        SuggestionCache cache = new SuggestionCache( 1000, SuggestionCache.Policy.LRU );
+        assertEquals( 8, cache.shardCount( ) );
+        List<Thread> threads = new ArrayList<>( );
+        for( int t = 0; t < 4; t++ )
+            threads.add( new Thread( ( ) -> {
+                for( int i = 0; i < 5000; i++ )
+                    if( cache.get( "w" + i % 2000 ) == null )
+                        cache.put( "w" + i % 2000, List.of( "v" + i % 2000 ) );
+            } ) );
+        for( Thread t : threads )
+            t.start( );
+        for( Thread t : threads )
+            t.join( );
+
+        assertEquals( 20_000, cache.hits( ) + cache.misses( ) );
+        assertTrue( cache.size( ) <= 1000 );
+        for( int i = 0; i < 2000; i++ )
+        {
+            List<String> found = cache.get( "w" + i );
+            if( found != null )
+                assertEquals( List.of( "v" + i ), found );
+        }
+
+        long generation = cache.generation( );
+        cache.clear( );
+        cache.put( "late", List.of( "old" ), generation );
+        assertEquals( 0, cache.size( ) );
+    }
+
+    @Test
+    void tableServesCachedSuggestionsUntilTheDictionaryChanges( )
+    {
+        SpellCheckHashTable h = new SpellCheckHashTable( );
+        h.insert( "cat" );
+        h.insert( "hat" );
+        h.enableSuggestionCache( 10, SuggestionCache.Policy.LRU );
+        assertEquals( List.of( "cat", "hat" ), h.suggestions( "at" ) );
+        assertEquals( List.of( "cat", "hat" ), h.suggestions( "at" ) );
+        assertEquals( 1, h.suggestionCache( ).hits( ) );
+
+        h.insert( "bat" );
+        assertEquals( List.of( "bat", "cat", "hat" ), h.suggestions( "at" ) );
+        h.remove( "cat" );
+        assertEquals( List.of( "bat", "hat" ), h.suggestions( "at" ) );
+    }
+}
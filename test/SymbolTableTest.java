@@ -0,0 +1,114 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class SymbolTableTest
+{
+    @Test
+    void givesEachWordOneDenseIdWhateverItIsGivenAs( )
+    {
+        List<String> words = TestText.words( 5000, 70 );
+        SymbolTable symbols = new SymbolTable( 1 );
+        Map<String, Integer> ids = new HashMap<>( );
+        char [ ] text = ( "  " + String.join( " ", words ) + " " ).toCharArray( );
+
+        // Half by CharSequence, half as spans of one array
+        int start = 2;
+        for( int i = 0; i < words.size( ); i++ )
+        {
+            String w = words.get( i );
+            int id = i % 2 == 0 ? symbols.intern( new StringBuilder( w ) ) : symbols.intern( text, start, w.length( ) );
+            ids.putIfAbsent( w, ids.size( ) );
+            assertEquals( ids.get( w ), id, w );
+            start += w.length( ) + 1;
+        }
+        assertEquals( ids.size( ), symbols.size( ) );
+
+        start = 2;
+        for( String w : words )
+        {
+            int id = ids.get( w );
+            assertEquals( id, symbols.find( w ) );
+            assertEquals( id, symbols.find( text, start, w.length( ) ) );
+            assertEquals( id, symbols.intern( text, start, w.length( ) ) );
+            assertEquals( w, symbols.word( id ) );
+            assertEquals( w.length( ), symbols.length( id ) );
+            start += w.length( ) + 1;
+        }
+        assertEquals( ids.size( ), symbols.size( ) );
+        assertEquals( -1, symbols.find( "~" ) );
+        assertEquals( -1, symbols.find( text, 0, 1 ) );
+        assertEquals( -1, symbols.find( text, 2, words.get( 0 ).length( ) + 1 ) );
+    }
+
+    @Test
+    void comparesAsStringsDo( )
+    {
+        SymbolTable symbols = new SymbolTable( );
+        List<String> words = List.of( "b", "ab", "a", "", "abc", "abd", "B" );
+        char [ ] chars = "xabdx".toCharArray( );
+        assertEquals( symbols.intern( "abd" ), symbols.intern( chars, 1, 3 ) );
+        for( String w : words )
+            symbols.intern( w );
+        for( String a : words )
+            for( String b : words )
+            {
+                assertEquals( Integer.signum( a.compareTo( b ) ),
+                              Integer.signum( symbols.compare( symbols.find( a ), symbols.find( b ) ) ), a + " " + b );
+                assertEquals( Integer.signum( a.compareTo( b ) ),
+                              Integer.signum( symbols.compare( a, symbols.find( b ) ) ), a + " " + b );
+            }
+        assertThrows( IndexOutOfBoundsException.class, ( ) -> symbols.word( words.size( ) + 1 ) );
+    }
+
+    @Test
+    void aDictionaryAndAConcordanceShareOneVocabulary( )
+    {
+        List<String> words = TestText.words( 2000, 71 );
+        SymbolTable symbols = new SymbolTable( );
+        SymbolDictionary dictionary = new SymbolDictionary( symbols );
+        Set<String> known = new HashSet<>( words.subList( 0, 1000 ) );
+        for( String w : known )
+            dictionary.insert( w );
+        assertEquals( known.size( ), symbols.size( ) );
+
+        // Index a text by ID: words the dictionary holds add no symbols
+        ArrayAvlConcordance concordance = new ArrayAvlConcordance( symbols );
+        for( int line = 1; line <= words.size( ); line++ )
+        {
+            int id = symbols.intern( words.get( line - 1 ) );
+            concordance.insert( id, line );
+            assertEquals( known.contains( words.get( line - 1 ) ), dictionary.contains( id ), words.get( line - 1 ) );
+        }
+        assertEquals( new HashSet<>( words ).size( ), symbols.size( ) );
+        assertEquals( symbols.size( ), concordance.size( ) );
+        assertTrue( concordance.appearsOn( words.get( 0 ), 1 ) );
+    }
+
+    @Test
+    void takesOnlyIdsTheTableGaveOut( )
+    {
+        SymbolTable symbols = new SymbolTable( );
+        int cat = symbols.intern( "cat" );
+        SymbolDictionary dictionary = new SymbolDictionary( symbols );
+        ArrayAvlConcordance concordance = new ArrayAvlConcordance( symbols );
+
+        for( int id : new int[ ] { -1, 1, 1000 } )
+        {
+            assertThrows( IllegalArgumentException.class, ( ) -> dictionary.insert( id ) );
+            assertThrows( IllegalArgumentException.class, ( ) -> concordance.insert( id, 1 ) );
+        }
+        assertTrue( dictionary.insert( cat ) );
+        concordance.insert( cat, 1 );
+        assertEquals( Set.of( "cat" ), WordTableContract.contents( dictionary ) );
+        assertTrue( concordance.appearsOn( "cat", 1 ) );
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Small made-up dictionaries and texts for the tests, from fixed seeds.
+ */
+final class TestText
+{
+    private TestText( )
+    {
+    }
+
+    /**
+     * Make distinct lower-case words.
+     * @param count how many.
+     * @param seed the random seed.
+     * @return the words.
+     */
+    static List<String> words( int count, long seed )
+    {
+        Random random = new Random( seed );
+        Set<String> words = new LinkedHashSet<>( );
+        while( words.size( ) < count )
+        {
+            char [ ] w = new char[ 2 + random.nextInt( 8 ) ];
+            for( int i = 0; i < w.length; i++ )
+                w[ i ] = (char) ( 'a' + random.nextInt( 26 ) );
+            words.add( new String( w ) );
+        }
+        return new ArrayList<>( words );
+    }
+
+    /**
+     * Make lines of text from some words, with capitals, punctuation,
+     * blank lines and about one misspelled word in twenty.
+     * @param words the words to draw from.
+     * @param lines how many lines.
+     * @param seed the random seed.
+     * @return the lines.
+     */
+    static List<String> lines( List<String> words, int lines, long seed )
+    {
+        Random random = new Random( seed );
+        List<String> text = new ArrayList<>( );
+        for( int l = 0; l < lines; l++ )
+        {
+            StringBuilder line = new StringBuilder( );
+            int n = random.nextInt( 12 );
+            for( int i = 0; i < n; i++ )
+            {
+                String w = words.get( random.nextInt( words.size( ) ) );
+                switch( random.nextInt( 20 ) )
+                {
+                    case 0:
+                        w = w.substring( 1 ) + "q";
+                        break;
+                    case 1:
+                        w = Character.toUpperCase( w.charAt( 0 ) ) + w.substring( 1 );
+                        break;
+                    case 2:
+                        w = "\"" + w + ",\"";
+                        break;
+                    case 3:
+                        w = w + ".";
+                        break;
+                    default:
+                        break;
+                }
+                if( i > 0 )
+                    line.append( random.nextInt( 10 ) == 0 ? "  " : " " );
+                line.append( w );
+            }
+            text.add( line.toString( ) );
+        }
+        return text;
+    }
+}
@@ -0,0 +1,158 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+class TwoParamObjTest
+{
+    @Test
+    void insertMatchesATreeMapAndStaysBalanced( )
+    {
+        List<String> words = TestText.words( 2000, 15 );
+        Random random = new Random( 16 );
+        TwoParamObj<String> tree = new TwoParamObj<>( );
+        TreeMap<String, List<Integer>> expected = new TreeMap<>( );
+        for( int line = 1; line <= 20_000; line++ )
+        {
+            String w = words.get( random.nextInt( words.size( ) ) );
+            if( random.nextBoolean( ) )
+                tree.insert( w, line );
+            else
+                tree.insertWord( new StringBuilder( w ), line );
+            expected.computeIfAbsent( w, k -> new ArrayList<>( ) ).add( line );
+        }
+
+        assertEquals( expected, contents( tree ) );
+        assertBalanced( tree );
+        assertFalse( tree.containsWord( "absent!" ) );
+        assertTrue( tree.containsWord( new StringBuilder( expected.firstKey( ) ) ) );
+    }
+
+    @Test
+    void bulkLoadBuildsTheSameTree( )
+    {
+        TwoParamObj<String> inserted = new TwoParamObj<>( );
+        int line = 0;
+        for( String w : TestText.words( 1000, 17 ) )
+            inserted.insert( w, ++line );
+
+        List<String> keys = new ArrayList<>( );
+        List<PostingList> lines = new ArrayList<>( );
+        inserted.forEachEntry( ( w, l ) -> {
+            keys.add( w );
+            lines.add( l );
+        } );
+        TwoParamObj<String> loaded = new TwoParamObj<>( );
+        loaded.bulkLoad( keys, lines );
+
+        assertEquals( contents( inserted ), contents( loaded ) );
+        assertEquals( inserted.size( ), loaded.size( ) );
+        assertBalanced( loaded );
+
+        // The loaded tree takes further inserts as usual
+        loaded.insert( "zzzz", ++line );
+        loaded.insert( keys.get( 0 ), ++line );
+        assertArrayEquals( new int[ ] { line - 1 }, loaded.lines( "zzzz" ).toArray( ) );
+        assertEquals( 2, loaded.lines( keys.get( 0 ) ).size( ) );
+        assertBalanced( loaded );
+
+        List<String> unsorted = new ArrayList<>( keys );
+        unsorted.set( 0, keys.get( 1 ) );
+        assertThrows( IllegalArgumentException.class, ( ) -> loaded.bulkLoad( unsorted, lines ) );
+        assertThrows( IllegalArgumentException.class, ( ) -> loaded.bulkLoad( keys, lines.subList( 1, lines.size( ) ) ) );
+    }
+
+    @Test
+    void cursorsVisitTheirRangeInOrder( )
+    {
+        List<String> words = TestText.words( 3000, 18 );
+        TwoParamObj<String> tree = new TwoParamObj<>( );
+        TreeMap<String, Integer> expected = new TreeMap<>( );
+        for( int i = 0; i < words.size( ); i++ )
+        {
+            tree.insert( words.get( i ), i + 1 );
+            expected.put( words.get( i ), i + 1 );
+        }
+
+        List<String> all = new ArrayList<>( );
+        for( TwoParamObj<String>.Cursor c = tree.cursor( ); c.next( ); )
+        {
+            all.add( c.element( ) );
+            assertEquals( expected.get( c.element( ) ).intValue( ), c.lines( ).first( ) );
+        }
+        assertEquals( new ArrayList<>( expected.keySet( ) ), all );
+
+        Random random = new Random( 19 );
+        for( int i = 0; i < 200; i++ )
+        {
+            String from = words.get( random.nextInt( words.size( ) ) ).substring( 0, 1 + random.nextInt( 2 ) );
+            String to = from + "m";
+            assertEquals( new ArrayList<>( expected.subMap( from, to ).keySet( ) ), walk( tree.range( from, to ) ) );
+            assertEquals( new ArrayList<>( expected.subMap( from, to ).keySet( ) ), tree.stream( from, to ).toList( ) );
+
+            List<String> prefixed = new ArrayList<>( );
+            for( String w : expected.tailMap( from ).keySet( ) )
+                if( w.startsWith( from ) )
+                    prefixed.add( w );
+            assertEquals( prefixed, walk( tree.prefix( new StringBuilder( from ) ) ) );
+        }
+        assertEquals( List.of( ), walk( tree.prefix( "~" ) ) );
+        assertEquals( new ArrayList<>( expected.headMap( "m" ).keySet( ) ), tree.stream( null, "m" ).toList( ) );
+
+        TwoParamObj<String>.Cursor done = tree.range( "~", null );
+        assertFalse( done.next( ) );
+        assertThrows( java.util.NoSuchElementException.class, done::element );
+    }
+
+    private static List<String> walk( TwoParamObj<String>.Cursor c )
+    {
+        List<String> visited = new ArrayList<>( );
+        while( c.next( ) )
+            visited.add( c.element( ) );
+        return visited;
+    }
+
+    static Map<String, List<Integer>> contents( TwoParamObj<String> tree )
+    {
+        Map<String, List<Integer>> entries = new TreeMap<>( );
+        List<String> order = new ArrayList<>( );
+        tree.forEachEntry( ( w, l ) -> {
+            order.add( w );
+            List<Integer> lines = new ArrayList<>( );
+            l.forEach( lines::add );
+            entries.put( w, lines );
+        } );
+        assertEquals( new ArrayList<>( entries.keySet( ) ), order );
+        return entries;
+    }
+
+    /**
+     * checkBalance prints OOPS!! for every node out of balance.
+     */
+    static void assertBalanced( TwoParamObj<String> tree )
+    {
+        PrintStream out = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream( );
+        System.setOut( new PrintStream( printed ) );
+        try
+        {
+            tree.checkBalance( );
+        }
+        finally
+        {
+            System.setOut( out );
+        }
+        assertEquals( "", printed.toString( ) );
+    }
+}
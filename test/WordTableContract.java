@@ -0,0 +1,104 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Behaviour every writable WordTable shares, checked against a HashSet.
+ * Each storage engine's test extends this and says how to build one.
+ */
+abstract class WordTableContract
+{
+    /**
+     * Build an empty table of the kind under test.
+     */
+    abstract WordTable newTable( );
+
+    @Test
+    void matchesHashSetUnderRandomOperations( )
+    {
+        WordTable table = newTable( );
+        Set<String> expected = new HashSet<>( );
+        Random random = new Random( 1 );
+        for( int i = 0; i < 20_000; i++ )
+        {
+            String w = word( random, 2000 );
+            switch( random.nextInt( 3 ) )
+            {
+                case 0:
+                    assertEquals( expected.add( w ), table.insert( w ), "insert " + w );
+                    break;
+                case 1:
+                    assertEquals( expected.remove( w ), table.remove( w ), "remove " + w );
+                    break;
+                default:
+                    assertEquals( expected.contains( w ), table.contains( w ), "contains " + w );
+            }
+            assertEquals( expected.size( ), table.size( ) );
+        }
+        assertEquals( expected, contents( table ) );
+        for( int i = 0; i < 2000; i++ )
+        {
+            String w = "w" + i;
+            assertEquals( expected.contains( w ), table.contains( new StringBuilder( w ) ) );
+        }
+    }
+
+    @Test
+    void makeEmptyForgetsEverything( )
+    {
+        WordTable table = newTable( );
+        for( int i = 0; i < 500; i++ )
+            table.insert( "w" + i );
+        table.makeEmpty( );
+        assertEquals( 0, table.size( ) );
+        assertFalse( table.contains( "w1" ) );
+        assertFalse( table.iterator( ).hasNext( ) );
+        assertTrue( table.insert( "w1" ) );
+        assertTrue( table.contains( "w1" ) );
+    }
+
+    @Test
+    void frequenciesStayWithTheirWords( )
+    {
+        WordTable table = newTable( );
+        for( int i = 0; i < 500; i++ )
+            table.insert( "w" + i );
+        for( int i = 0; i < 500; i += 2 )
+            assertTrue( table.setFrequency( "w" + i, i + 1 ) );
+        assertFalse( table.setFrequency( "absent", 7 ) );
+
+        // Grow the table and move words around under the frequencies
+        for( int i = 500; i < 3000; i++ )
+            table.insert( "w" + i );
+        for( int i = 0; i < 500; i += 3 )
+            table.remove( "w" + i );
+
+        for( int i = 0; i < 500; i++ )
+        {
+            int expected = i % 3 == 0 ? -1 : i % 2 == 0 ? i + 1 : 0;
+            assertEquals( expected, table.lookup( new StringBuilder( "w" + i ) ), "w" + i );
+        }
+        assertEquals( -1, table.lookup( "absent" ) );
+        assertTrue( table.insert( "w0" ) );
+        assertEquals( 0, table.lookup( "w0" ) );
+    }
+
+    static Set<String> contents( Iterable<String> table )
+    {
+        Set<String> words = new HashSet<>( );
+        for( String w : table )
+            assertTrue( words.add( w ), "repeated " + w );
+        return words;
+    }
+
+    private static String word( Random random, int range )
+    {
+        return "w" + random.nextInt( range );
+    }
+}
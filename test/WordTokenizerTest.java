@@ -0,0 +1,64 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+class WordTokenizerTest
+{
+    @Test
+    void splitsAsTheOldPatternDid( )
+    {
+        for( String line : LINES )
+        {
+            assertEquals( reference( line, false ), words( new WordTokenizer( false ), line ), line );
+            assertEquals( reference( line, true ), words( new WordTokenizer( true ), line ), line );
+        }
+    }
+
+    @Test
+    void foldsNonAsciiCharactersIntoLetters( )
+    {
+        assertEquals( List.of( "kelvin", "istanbul" ),
+                      words( new WordTokenizer( true ), "\u212Aelvin \u0130stanbul" ) );
+        assertEquals( List.of( "cole" ), words( new WordTokenizer( true ), "\u00C9cole" ) );
+    }
+
+    /**
+     * The split the spell checker and concordance used before the tokenizer.
+     */
+    private static List<String> reference( String line, boolean lowerCase )
+    {
+        if( lowerCase )
+            line = line.toLowerCase( Locale.ROOT );
+        List<String> words = new ArrayList<>( );
+        for( String piece : line.split( " " ) )
+        {
+            String w = piece.replaceAll( "[^(a-zA-Z||')]", "" );
+            if( !w.isEmpty( ) )
+                words.add( w );
+        }
+        return words;
+    }
+
+    private static List<String> words( WordTokenizer t, String line )
+    {
+        List<String> words = new ArrayList<>( );
+        t.reset( line );
+        while( t.next( ) )
+            words.add( t.toString( ) );
+        return words;
+    }
+
+    private static final String [ ] LINES = {
+        "",
+        "   ",
+        "The quick brown fox.",
+        "\"Foo,\" said   Bar -- it's (sort of) |piped|",
+        "123 456 ,,, ...",
+        "\u00C9cole \u00FCber Stra\u00DFe \u212Aelvin \u0130stanbul",
+        "MiXeD CaSe WoRdS",
+    };
+}